@@ -0,0 +1,84 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.benchmark;
+
+import com.squareup.sdk.reader.checkout.CheckoutParameters;
+import com.squareup.sdk.reader.react.internal.CheckoutParametersDecoder;
+import com.squareup.sdk.reader.react.internal.converter.ResultFieldMask;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Validates checkout parameters the way CheckoutModule.startCheckout does, from the map that
+ * {@code ReadableMap.toHashMap()} copies out of JS.
+ */
+@State(Scope.Benchmark)
+public class CheckoutParametersDecoderBenchmark {
+    private Map<String, Object> validCheckoutParams;
+    private Map<String, Object> invalidCheckoutParams;
+    private List<Object> resultFields;
+
+    @Setup
+    public void setUp() {
+        validCheckoutParams = new HashMap<>();
+        validCheckoutParams.put("amountMoney", amountMoney(100.0, "USD"));
+        validCheckoutParams.put("note", "Coffee");
+        validCheckoutParams.put("skipReceipt", false);
+        validCheckoutParams.put("collectSignature", true);
+        Map<String, Object> tipSettings = new HashMap<>();
+        tipSettings.put("showCustomTipField", true);
+        tipSettings.put("tipPercentages", Arrays.<Object>asList(15.0, 20.0, 30.0));
+        validCheckoutParams.put("tipSettings", tipSettings);
+        validCheckoutParams.put("additionalPaymentTypes", Arrays.<Object>asList("cash", "manual_card_entry"));
+
+        invalidCheckoutParams = new HashMap<>(validCheckoutParams);
+        invalidCheckoutParams.put("amountMoney", amountMoney(1.5, "XYZ"));
+        invalidCheckoutParams.put("note", 5.0);
+
+        resultFields = Arrays.<Object>asList("transactionId", "totalMoney", "tenders.cardDetails.card");
+    }
+
+    @Benchmark
+    public CheckoutParameters decodeValidParameters() {
+        return CheckoutParametersDecoder.decode(validCheckoutParams, new ArrayList<String>());
+    }
+
+    @Benchmark
+    public List<String> decodeInvalidParameters() {
+        List<String> paramErrors = new ArrayList<>();
+        CheckoutParametersDecoder.decode(invalidCheckoutParams, paramErrors);
+        return paramErrors;
+    }
+
+    @Benchmark
+    public ResultFieldMask decodeResultFields() {
+        return ResultFieldMask.decode(resultFields, new ArrayList<String>());
+    }
+
+    static private Map<String, Object> amountMoney(double amount, String currencyCode) {
+        Map<String, Object> amountMoney = new HashMap<>();
+        amountMoney.put("amount", amount);
+        amountMoney.put("currencyCode", currencyCode);
+        return amountMoney;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.benchmark;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.squareup.sdk.reader.authorization.Location;
+import com.squareup.sdk.reader.checkout.CheckoutResult;
+import com.squareup.sdk.reader.react.internal.converter.CheckoutResultConverter;
+import com.squareup.sdk.reader.react.internal.converter.CompactCheckoutResultConverter;
+import com.squareup.sdk.reader.react.internal.converter.ConverterRegistry;
+import com.squareup.sdk.reader.react.internal.converter.LocationConverter;
+import com.squareup.sdk.reader.react.internal.converter.ResultFieldMask;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Converts results paid with a single tender and split across several tenders into the maps
+ * returned to JS.
+ */
+@State(Scope.Benchmark)
+public class CheckoutResultConverterBenchmark {
+    @Param({"1", "4"})
+    public int tenderCount;
+
+    private CheckoutResult result;
+    private Location location;
+    private CheckoutResultConverter checkoutResultConverter;
+    private CompactCheckoutResultConverter compactCheckoutResultConverter;
+    private LocationConverter locationConverter;
+
+    @Setup
+    public void setUp() {
+        result = CheckoutResults.create(tenderCount);
+        location = CheckoutResults.createLocation();
+        ConverterRegistry converterRegistry = ConverterRegistry.getInstance();
+        checkoutResultConverter = converterRegistry.getCheckoutResultConverter();
+        compactCheckoutResultConverter = converterRegistry.getCompactCheckoutResultConverter();
+        locationConverter = converterRegistry.getLocationConverter();
+    }
+
+    @Benchmark
+    public WritableMap toJSObject() {
+        return checkoutResultConverter.toJSObject(result);
+    }
+
+    @Benchmark
+    public WritableMap toJSObjectSummary() {
+        return checkoutResultConverter.toJSObject(result, false, ResultFieldMask.SUMMARY);
+    }
+
+    @Benchmark
+    public WritableArray toCompactJSArray() {
+        return compactCheckoutResultConverter.toJSArray(result, false, ResultFieldMask.FULL);
+    }
+
+    @Benchmark
+    public WritableMap locationToJSObject() {
+        return locationConverter.toJSObject(location);
+    }
+}
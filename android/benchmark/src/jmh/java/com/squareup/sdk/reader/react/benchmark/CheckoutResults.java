@@ -0,0 +1,64 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.benchmark;
+
+import com.squareup.sdk.reader.authorization.Location;
+import com.squareup.sdk.reader.checkout.Card;
+import com.squareup.sdk.reader.checkout.CheckoutResult;
+import com.squareup.sdk.reader.checkout.CurrencyCode;
+import com.squareup.sdk.reader.checkout.Money;
+import com.squareup.sdk.reader.checkout.Tender;
+import com.squareup.sdk.reader.checkout.TenderCardDetails;
+import com.squareup.sdk.reader.checkout.TenderCashDetails;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Checkout results and locations shaped like the ones the Reader SDK returns.
+ */
+final class CheckoutResults {
+    private static final long CREATED_AT_MILLIS = 1534961121000L;
+
+    private CheckoutResults() {
+    }
+
+    /**
+     * @return a result paid with one card tender, or split across tenderCount tenders that
+     *     alternate between card and cash
+     */
+    static CheckoutResult create(int tenderCount) {
+        Set<Tender> tenders = new LinkedHashSet<>();
+        for (int i = 0; i < tenderCount; i++) {
+            Date createdAt = new Date(CREATED_AT_MILLIS - (tenderCount - i) * 1000L);
+            if (i % 2 == 0) {
+                Card card = new Card(Card.Brand.VISA, "1111", 12, 2030, "card-" + i, "Jane Doe");
+                tenders.add(Tender.card(createdAt, usd(100), usd(1100), "tender-" + i, new TenderCardDetails(TenderCardDetails.EntryMethod.CHIP, card)));
+            } else {
+                tenders.add(Tender.cash(createdAt, usd(0), usd(500), new TenderCashDetails(usd(1000), usd(500))));
+            }
+        }
+        return new CheckoutResult("transaction", "client", "location", new Date(CREATED_AT_MILLIS), usd(1100L * tenderCount), usd(100L * tenderCount), tenders);
+    }
+
+    static Location createLocation() {
+        return new Location("location", "Main Street", "Coffee Shop", true, usd(100), usd(5000000), CurrencyCode.USD);
+    }
+
+    static private Money usd(long amount) {
+        return new Money(amount, CurrencyCode.USD);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.benchmark;
+
+import com.squareup.sdk.reader.react.internal.DateFormatUtils;
+import java.util.Date;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class DateFormatUtilsBenchmark {
+    private final Date date = new Date(1534961121000L);
+
+    @Benchmark
+    public String formatISO8601UTC() {
+        return DateFormatUtils.formatISO8601UTC(date);
+    }
+}
@@ -0,0 +1,48 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package android.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Stand-in for the Android atomic file, which the benchmarks never write.
+ */
+public class AtomicFile {
+    private final File baseFile;
+
+    public AtomicFile(File baseFile) {
+        this.baseFile = baseFile;
+    }
+
+    public FileOutputStream startWrite() throws IOException {
+        return new FileOutputStream(baseFile);
+    }
+
+    public void finishWrite(FileOutputStream str) {
+        try {
+            str.close();
+        } catch (IOException ex) {
+            // Nothing to recover in a stand-in
+        }
+    }
+
+    public void failWrite(FileOutputStream str) {
+        finishWrite(str);
+        baseFile.delete();
+    }
+}
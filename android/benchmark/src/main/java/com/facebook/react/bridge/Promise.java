@@ -0,0 +1,44 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.facebook.react.bridge;
+
+/**
+ * Stand-in for the React Native promise.
+ */
+public interface Promise {
+    void resolve(Object value);
+
+    void reject(String code, String message);
+
+    void reject(String code, Throwable throwable);
+
+    void reject(String code, String message, Throwable throwable);
+
+    void reject(Throwable throwable);
+
+    void reject(Throwable throwable, WritableMap userInfo);
+
+    void reject(String code, WritableMap userInfo);
+
+    void reject(String code, Throwable throwable, WritableMap userInfo);
+
+    void reject(String code, String message, WritableMap userInfo);
+
+    void reject(String code, String message, Throwable throwable, WritableMap userInfo);
+
+    @Deprecated
+    void reject(String message);
+}
@@ -0,0 +1,71 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.facebook.react.bridge;
+
+import java.util.ArrayList;
+
+/**
+ * Sink for converted arrays, kept in an {@link ArrayList} like {@link WritableNativeMap} keeps its
+ * values.
+ */
+public class WritableNativeArray implements WritableArray {
+    private final ArrayList<Object> values = new ArrayList<>();
+
+    @Override
+    public void pushNull() {
+        values.add(null);
+    }
+
+    @Override
+    public void pushBoolean(boolean value) {
+        values.add(value);
+    }
+
+    @Override
+    public void pushDouble(double value) {
+        values.add(value);
+    }
+
+    @Override
+    public void pushInt(int value) {
+        values.add(value);
+    }
+
+    @Override
+    public void pushString(String value) {
+        values.add(value);
+    }
+
+    @Override
+    public void pushArray(ReadableArray array) {
+        values.add(array);
+    }
+
+    @Override
+    public void pushMap(ReadableMap map) {
+        values.add(map);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public ArrayList<Object> toArrayList() {
+        return new ArrayList<>(values);
+    }
+}
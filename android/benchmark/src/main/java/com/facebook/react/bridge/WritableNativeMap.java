@@ -0,0 +1,69 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.facebook.react.bridge;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/**
+ * Sink for converted maps. The real map is filled across JNI, which a plain JVM cannot load, so
+ * values are kept in a {@link LinkedHashMap} instead, in the order they were put. Boxing numbers
+ * here costs about what the real map costs to marshal them, so conversions allocate roughly as
+ * much as on a device.
+ */
+public class WritableNativeMap implements WritableMap {
+    private final LinkedHashMap<String, Object> values = new LinkedHashMap<>();
+
+    @Override
+    public void putNull(String key) {
+        values.put(key, null);
+    }
+
+    @Override
+    public void putBoolean(String key, boolean value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putDouble(String key, double value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putInt(String key, int value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putString(String key, String value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putArray(String key, ReadableArray value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public void putMap(String key, ReadableMap value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public HashMap<String, Object> toHashMap() {
+        return new LinkedHashMap<>(values);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.authorization;
+
+import com.squareup.sdk.reader.checkout.CurrencyCode;
+import com.squareup.sdk.reader.checkout.Money;
+
+public final class Location {
+    private final String locationId;
+    private final String name;
+    private final String businessName;
+    private final boolean isCardProcessingActivated;
+    private final Money minimumCardPaymentAmountMoney;
+    private final Money maximumCardPaymentAmountMoney;
+    private final CurrencyCode currencyCode;
+
+    public Location(String locationId, String name, String businessName, boolean isCardProcessingActivated, Money minimumCardPaymentAmountMoney, Money maximumCardPaymentAmountMoney, CurrencyCode currencyCode) {
+        this.locationId = locationId;
+        this.name = name;
+        this.businessName = businessName;
+        this.isCardProcessingActivated = isCardProcessingActivated;
+        this.minimumCardPaymentAmountMoney = minimumCardPaymentAmountMoney;
+        this.maximumCardPaymentAmountMoney = maximumCardPaymentAmountMoney;
+        this.currencyCode = currencyCode;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getBusinessName() {
+        return businessName;
+    }
+
+    public boolean isCardProcessingActivated() {
+        return isCardProcessingActivated;
+    }
+
+    public Money getMinimumCardPaymentAmountMoney() {
+        return minimumCardPaymentAmountMoney;
+    }
+
+    public Money getMaximumCardPaymentAmountMoney() {
+        return maximumCardPaymentAmountMoney;
+    }
+
+    public CurrencyCode getCurrencyCode() {
+        return currencyCode;
+    }
+}
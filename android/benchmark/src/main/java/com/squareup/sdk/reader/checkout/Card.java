@@ -0,0 +1,73 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.checkout;
+
+public final class Card {
+    public enum Brand {
+        VISA,
+        MASTERCARD,
+        AMERICAN_EXPRESS,
+        DISCOVER,
+        DISCOVER_DINERS,
+        INTERAC,
+        JCB,
+        CHINA_UNIONPAY,
+        SQUARE_GIFT_CARD,
+        EFTPOS,
+        FELICA,
+        OTHER_BRAND
+    }
+
+    private final Brand brand;
+    private final String lastFourDigits;
+    private final Integer expirationMonth;
+    private final Integer expirationYear;
+    private final String id;
+    private final String cardholderName;
+
+    public Card(Brand brand, String lastFourDigits, Integer expirationMonth, Integer expirationYear, String id, String cardholderName) {
+        this.brand = brand;
+        this.lastFourDigits = lastFourDigits;
+        this.expirationMonth = expirationMonth;
+        this.expirationYear = expirationYear;
+        this.id = id;
+        this.cardholderName = cardholderName;
+    }
+
+    public Brand getBrand() {
+        return brand;
+    }
+
+    public String getLastFourDigits() {
+        return lastFourDigits;
+    }
+
+    public Integer getExpirationMonth() {
+        return expirationMonth;
+    }
+
+    public Integer getExpirationYear() {
+        return expirationYear;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCardholderName() {
+        return cardholderName;
+    }
+}
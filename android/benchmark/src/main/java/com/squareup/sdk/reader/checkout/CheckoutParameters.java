@@ -0,0 +1,130 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.checkout;
+
+import java.util.Set;
+
+public final class CheckoutParameters {
+    private final Money amountMoney;
+    private final String note;
+    private final boolean skipReceipt;
+    private final boolean collectSignature;
+    private final boolean allowSplitTender;
+    private final boolean delayCapture;
+    private final TipSettings tipSettings;
+    private final Set<AdditionalPaymentType> additionalPaymentTypes;
+
+    public static Builder newBuilder(Money amountMoney) {
+        return new Builder(amountMoney);
+    }
+
+    private CheckoutParameters(Builder builder) {
+        amountMoney = builder.amountMoney;
+        note = builder.note;
+        skipReceipt = builder.skipReceipt;
+        collectSignature = builder.collectSignature;
+        allowSplitTender = builder.allowSplitTender;
+        delayCapture = builder.delayCapture;
+        tipSettings = builder.tipSettings;
+        additionalPaymentTypes = builder.additionalPaymentTypes;
+    }
+
+    public Money getAmountMoney() {
+        return amountMoney;
+    }
+
+    public String getNote() {
+        return note;
+    }
+
+    public boolean getSkipReceipt() {
+        return skipReceipt;
+    }
+
+    public boolean getCollectSignature() {
+        return collectSignature;
+    }
+
+    public boolean getAllowSplitTender() {
+        return allowSplitTender;
+    }
+
+    public boolean getDelayCapture() {
+        return delayCapture;
+    }
+
+    public TipSettings getTipSettings() {
+        return tipSettings;
+    }
+
+    public Set<AdditionalPaymentType> getAdditionalPaymentTypes() {
+        return additionalPaymentTypes;
+    }
+
+    public static final class Builder {
+        private final Money amountMoney;
+        private String note;
+        private boolean skipReceipt;
+        private boolean collectSignature;
+        private boolean allowSplitTender;
+        private boolean delayCapture;
+        private TipSettings tipSettings;
+        private Set<AdditionalPaymentType> additionalPaymentTypes;
+
+        private Builder(Money amountMoney) {
+            this.amountMoney = amountMoney;
+        }
+
+        public Builder note(String note) {
+            this.note = note;
+            return this;
+        }
+
+        public Builder skipReceipt(boolean skipReceipt) {
+            this.skipReceipt = skipReceipt;
+            return this;
+        }
+
+        public Builder collectSignature(boolean collectSignature) {
+            this.collectSignature = collectSignature;
+            return this;
+        }
+
+        public Builder allowSplitTender(boolean allowSplitTender) {
+            this.allowSplitTender = allowSplitTender;
+            return this;
+        }
+
+        public Builder delayCapture(boolean delayCapture) {
+            this.delayCapture = delayCapture;
+            return this;
+        }
+
+        public Builder tipSettings(TipSettings tipSettings) {
+            this.tipSettings = tipSettings;
+            return this;
+        }
+
+        public Builder additionalPaymentTypes(Set<AdditionalPaymentType> additionalPaymentTypes) {
+            this.additionalPaymentTypes = additionalPaymentTypes;
+            return this;
+        }
+
+        public CheckoutParameters build() {
+            return new CheckoutParameters(this);
+        }
+    }
+}
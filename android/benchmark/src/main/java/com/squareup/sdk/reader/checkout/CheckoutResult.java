@@ -0,0 +1,67 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.checkout;
+
+import java.util.Date;
+import java.util.Set;
+
+public final class CheckoutResult {
+    private final String transactionId;
+    private final String transactionClientId;
+    private final String locationId;
+    private final Date createdAt;
+    private final Money totalMoney;
+    private final Money totalTipMoney;
+    private final Set<Tender> tenders;
+
+    public CheckoutResult(String transactionId, String transactionClientId, String locationId, Date createdAt, Money totalMoney, Money totalTipMoney, Set<Tender> tenders) {
+        this.transactionId = transactionId;
+        this.transactionClientId = transactionClientId;
+        this.locationId = locationId;
+        this.createdAt = createdAt;
+        this.totalMoney = totalMoney;
+        this.totalTipMoney = totalTipMoney;
+        this.tenders = tenders;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getTransactionClientId() {
+        return transactionClientId;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Money getTotalMoney() {
+        return totalMoney;
+    }
+
+    public Money getTotalTipMoney() {
+        return totalTipMoney;
+    }
+
+    public Set<Tender> getTenders() {
+        return tenders;
+    }
+}
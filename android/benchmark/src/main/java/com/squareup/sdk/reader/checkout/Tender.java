@@ -0,0 +1,84 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.checkout;
+
+import java.util.Date;
+
+public final class Tender {
+    public enum Type {
+        CARD,
+        CASH,
+        OTHER
+    }
+
+    private final Date createdAt;
+    private final Money tipMoney;
+    private final Money totalMoney;
+    private final Type type;
+    private final String tenderId;
+    private final TenderCardDetails cardDetails;
+    private final TenderCashDetails cashDetails;
+
+    public static Tender card(Date createdAt, Money tipMoney, Money totalMoney, String tenderId, TenderCardDetails cardDetails) {
+        return new Tender(createdAt, tipMoney, totalMoney, Type.CARD, tenderId, cardDetails, null);
+    }
+
+    public static Tender cash(Date createdAt, Money tipMoney, Money totalMoney, TenderCashDetails cashDetails) {
+        return new Tender(createdAt, tipMoney, totalMoney, Type.CASH, null, null, cashDetails);
+    }
+
+    public static Tender other(Date createdAt, Money tipMoney, Money totalMoney) {
+        return new Tender(createdAt, tipMoney, totalMoney, Type.OTHER, null, null, null);
+    }
+
+    private Tender(Date createdAt, Money tipMoney, Money totalMoney, Type type, String tenderId, TenderCardDetails cardDetails, TenderCashDetails cashDetails) {
+        this.createdAt = createdAt;
+        this.tipMoney = tipMoney;
+        this.totalMoney = totalMoney;
+        this.type = type;
+        this.tenderId = tenderId;
+        this.cardDetails = cardDetails;
+        this.cashDetails = cashDetails;
+    }
+
+    public Date getCreatedAt() {
+        return createdAt;
+    }
+
+    public Money getTipMoney() {
+        return tipMoney;
+    }
+
+    public Money getTotalMoney() {
+        return totalMoney;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getTenderId() {
+        return tenderId;
+    }
+
+    public TenderCardDetails getCardDetails() {
+        return cardDetails;
+    }
+
+    public TenderCashDetails getCashDetails() {
+        return cashDetails;
+    }
+}
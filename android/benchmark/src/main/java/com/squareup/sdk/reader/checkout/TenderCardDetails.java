@@ -0,0 +1,42 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.checkout;
+
+public final class TenderCardDetails {
+    public enum EntryMethod {
+        MANUALLY_ENTERED,
+        SWIPE,
+        CHIP,
+        CONTACTLESS,
+        UNKNOWN
+    }
+
+    private final EntryMethod entryMethod;
+    private final Card card;
+
+    public TenderCardDetails(EntryMethod entryMethod, Card card) {
+        this.entryMethod = entryMethod;
+        this.card = card;
+    }
+
+    public EntryMethod getEntryMethod() {
+        return entryMethod;
+    }
+
+    public Card getCard() {
+        return card;
+    }
+}
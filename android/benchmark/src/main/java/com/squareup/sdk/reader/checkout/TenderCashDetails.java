@@ -0,0 +1,34 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.checkout;
+
+public final class TenderCashDetails {
+    private final Money buyerTenderedMoney;
+    private final Money changeBackMoney;
+
+    public TenderCashDetails(Money buyerTenderedMoney, Money changeBackMoney) {
+        this.buyerTenderedMoney = buyerTenderedMoney;
+        this.changeBackMoney = changeBackMoney;
+    }
+
+    public Money getBuyerTenderedMoney() {
+        return buyerTenderedMoney;
+    }
+
+    public Money getChangeBackMoney() {
+        return changeBackMoney;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.checkout;
+
+import java.util.List;
+
+public final class TipSettings {
+    private final boolean showCustomTipField;
+    private final boolean showSeparateTipScreen;
+    private final List<Integer> tipPercentages;
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    private TipSettings(Builder builder) {
+        showCustomTipField = builder.showCustomTipField;
+        showSeparateTipScreen = builder.showSeparateTipScreen;
+        tipPercentages = builder.tipPercentages;
+    }
+
+    public boolean showCustomTipField() {
+        return showCustomTipField;
+    }
+
+    public boolean showSeparateTipScreen() {
+        return showSeparateTipScreen;
+    }
+
+    public List<Integer> getTipPercentages() {
+        return tipPercentages;
+    }
+
+    public static final class Builder {
+        private boolean showCustomTipField;
+        private boolean showSeparateTipScreen;
+        private List<Integer> tipPercentages;
+
+        public Builder showCustomTipField(boolean showCustomTipField) {
+            this.showCustomTipField = showCustomTipField;
+            return this;
+        }
+
+        public Builder showSeparateTipScreen(boolean showSeparateTipScreen) {
+            this.showSeparateTipScreen = showSeparateTipScreen;
+            return this;
+        }
+
+        public Builder tipPercentages(List<Integer> tipPercentages) {
+            this.tipPercentages = tipPercentages;
+            return this;
+        }
+
+        public TipSettings build() {
+            return new TipSettings(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.core;
+
+public final class ResultError<C extends ErrorCode> {
+    private final C code;
+    private final String message;
+    private final String debugCode;
+    private final String debugMessage;
+
+    public ResultError(C code, String message, String debugCode, String debugMessage) {
+        this.code = code;
+        this.message = message;
+        this.debugCode = debugCode;
+        this.debugMessage = debugMessage;
+    }
+
+    public C getCode() {
+        return code;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public String getDebugCode() {
+        return debugCode;
+    }
+
+    public String getDebugMessage() {
+        return debugMessage;
+    }
+}
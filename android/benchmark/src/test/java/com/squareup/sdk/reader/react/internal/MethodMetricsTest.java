@@ -0,0 +1,58 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import static org.junit.Assert.assertTrue;
+
+import android.os.SystemClock;
+import com.facebook.react.bridge.ReadableMap;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Map;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MethodMetricsTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordsTheMainThreadTimeOfEachCallback() throws Exception {
+        MethodMetrics methodMetrics = MethodMetrics.getInstance();
+        long callbackStartNanos = SystemClock.elapsedRealtimeNanos() - 2000000;
+        methodMetrics.recordMainThreadTime("MainThreadTestCallback", callbackStartNanos);
+        methodMetrics.recordCallbackLatency("MainThreadTestCallback", callbackStartNanos);
+
+        Map<String, Object> callbacks = getMap(methodMetrics.toJSObject().toHashMap(), "callbacks");
+        Map<String, Object> mainThreadMs = getMap(getMap(callbacks, "MainThreadTestCallback"), "mainThreadMs");
+        assertTrue(((Double) mainThreadMs.get("p50")) >= 2);
+
+        File file = new File(folder.getRoot(), "metrics.prom");
+        methodMetrics.writePrometheusText(file);
+        String text = new String(Files.readAllBytes(file.toPath()), UTF_8);
+        assertTrue(text.contains("# TYPE rn_reader_sdk_callback_main_thread_seconds summary\n"));
+        assertTrue(text.contains("rn_reader_sdk_callback_main_thread_seconds_count{callback=\"MainThreadTestCallback\"} 1\n"));
+        assertTrue(text.contains("rn_reader_sdk_callback_latency_seconds_count{callback=\"MainThreadTestCallback\"} 1\n"));
+    }
+
+    static private Map<String, Object> getMap(Map<String, Object> map, String key) {
+        return ((ReadableMap) map.get(key)).toHashMap();
+    }
+}
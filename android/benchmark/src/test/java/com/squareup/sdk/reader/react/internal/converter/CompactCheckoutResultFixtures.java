@@ -0,0 +1,218 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal.converter;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.squareup.sdk.reader.checkout.Card;
+import com.squareup.sdk.reader.checkout.CheckoutResult;
+import com.squareup.sdk.reader.checkout.CurrencyCode;
+import com.squareup.sdk.reader.checkout.Money;
+import com.squareup.sdk.reader.checkout.Tender;
+import com.squareup.sdk.reader.checkout.TenderCardDetails;
+import com.squareup.sdk.reader.checkout.TenderCashDetails;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes src/__tests__/fixtures/compactCheckoutResults.json, the results of the checkout result
+ * converters that the JS tests expand compact results against. Run it with
+ * {@code gradle writeCompactCheckoutResultFixtures} after changing either converter.
+ */
+public final class CompactCheckoutResultFixtures {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final long CREATED_AT_MILLIS = 1534961121000L;
+
+    private CompactCheckoutResultFixtures() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        FileOutputStream outputStream = new FileOutputStream(new File(args[0]));
+        try {
+            outputStream.write(toJson().getBytes(UTF_8));
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    /**
+     * A result converted with the same arguments by both converters.
+     */
+    static final class Case {
+        final String name;
+        final CheckoutResult result;
+        final boolean includeEpochMillis;
+        final ResultFieldMask fieldMask;
+
+        Case(String name, CheckoutResult result, boolean includeEpochMillis, Object resultFields) {
+            List<String> paramErrors = new ArrayList<>();
+            this.name = name;
+            this.result = result;
+            this.includeEpochMillis = includeEpochMillis;
+            this.fieldMask = ResultFieldMask.decode(resultFields, paramErrors);
+            if (!paramErrors.isEmpty()) {
+                throw new IllegalArgumentException(paramErrors.toString());
+            }
+        }
+
+        ReadableMap toKeyed() {
+            return ConverterRegistry.getInstance().getCheckoutResultConverter().toJSObject(result, includeEpochMillis, fieldMask);
+        }
+
+        ReadableArray toCompact() {
+            return ConverterRegistry.getInstance().getCompactCheckoutResultConverter().toJSArray(result, includeEpochMillis, fieldMask);
+        }
+    }
+
+    static List<Case> cases() {
+        CheckoutResult full = result("transaction-1", "client-1", "location-1", CurrencyCode.USD,
+                card(CREATED_AT_MILLIS - 3000, "tender-1", Card.Brand.VISA, "1111", 12, 2030, "card-1", "Jane Doe", TenderCardDetails.EntryMethod.CHIP),
+                cash(CREATED_AT_MILLIS - 2000, CurrencyCode.CAD),
+                Tender.other(new Date(CREATED_AT_MILLIS - 1000), money(0, CurrencyCode.USD), money(200, CurrencyCode.USD)));
+        CheckoutResult offline = result(null, "client-2", "location-2", CurrencyCode.USD,
+                card(CREATED_AT_MILLIS - 1000, null, Card.Brand.MASTERCARD, "2222", null, null, null, null, TenderCardDetails.EntryMethod.CONTACTLESS));
+        CheckoutResult nulls = result(null, null, null, CurrencyCode.GBP,
+                card(CREATED_AT_MILLIS - 1000, null, Card.Brand.OTHER_BRAND, null, null, null, null, null, TenderCardDetails.EntryMethod.MANUALLY_ENTERED));
+
+        List<Case> cases = new ArrayList<>();
+        cases.add(new Case("every tender type with epoch millis", full, true, "full"));
+        cases.add(new Case("offline result without transaction and tender ids", offline, false, "full"));
+        cases.add(new Case("null identifiers and last four digits", nulls, false, "full"));
+        cases.add(new Case("summary preset", full, true, "summary"));
+        cases.add(new Case("summary preset with null identifiers", nulls, false, "summary"));
+        cases.add(new Case("selected field paths", nulls, true,
+                Arrays.asList("transactionId", "locationId", "tenders.type", "tenders.cardDetails.card.lastFourDigits")));
+        cases.add(new Case("selected field paths of a cash tender", full, false,
+                Arrays.asList("transactionClientId", "tenders.cashDetails", "tenders.tenderId", "totalMoney")));
+        return cases;
+    }
+
+    /**
+     * @return the fixtures as JSON, the results of each case converted by {@link
+     *     CheckoutResultConverter} as keyed and by {@link CompactCheckoutResultConverter} as compact
+     */
+    static String toJson() {
+        StringBuilder json = new StringBuilder("[");
+        for (Case fixture : cases()) {
+            json.append(json.length() > 1 ? ",\n" : "\n").append("  {\n");
+            json.append("    \"name\": ");
+            appendValue(json, fixture.name, null);
+            json.append(",\n    \"keyed\": ");
+            appendValue(json, fixture.toKeyed(), "    ");
+            json.append(",\n    \"compact\": ");
+            // Compact results are written on one line, like they cross the bridge
+            appendValue(json, fixture.toCompact(), null);
+            json.append("\n  }");
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    /**
+     * Appends value as JSON, with each field of an object on its own line when indent is not null.
+     */
+    static private void appendValue(StringBuilder json, Object value, String indent) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof String) {
+            json.append('"').append(((String) value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        } else if (value instanceof Double) {
+            // The bridge passes every number as a double, and JSON integers have no fraction
+            double number = (Double) value;
+            json.append(number == Math.rint(number) ? Long.toString((long) number) : Double.toString(number));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else if (value instanceof ReadableMap) {
+            appendValue(json, ((ReadableMap) value).toHashMap(), indent);
+        } else if (value instanceof ReadableArray) {
+            appendValue(json, ((ReadableArray) value).toArrayList(), indent);
+        } else if (value instanceof Map) {
+            String fieldIndent = indent != null ? indent + "  " : null;
+            json.append('{');
+            boolean isFirst = true;
+            for (Map.Entry<?, ?> field : ((Map<?, ?>) value).entrySet()) {
+                json.append(isFirst ? "" : ",");
+                if (fieldIndent != null) {
+                    json.append('\n').append(fieldIndent);
+                } else if (!isFirst) {
+                    json.append(' ');
+                }
+                appendValue(json, field.getKey(), null);
+                json.append(": ");
+                appendValue(json, field.getValue(), fieldIndent);
+                isFirst = false;
+            }
+            json.append(fieldIndent != null && !isFirst ? "\n" + indent : "").append('}');
+        } else if (value instanceof List) {
+            String elementIndent = indent != null ? indent + "  " : null;
+            json.append('[');
+            boolean isFirst = true;
+            for (Object element : (List<?>) value) {
+                json.append(isFirst ? "" : ",");
+                if (elementIndent != null) {
+                    json.append('\n').append(elementIndent);
+                } else if (!isFirst) {
+                    json.append(' ');
+                }
+                appendValue(json, element, elementIndent);
+                isFirst = false;
+            }
+            json.append(elementIndent != null && !isFirst ? "\n" + indent : "").append(']');
+        } else {
+            throw new IllegalArgumentException("Unexpected value " + value.getClass());
+        }
+    }
+
+    static private CheckoutResult result(String transactionId, String transactionClientId, String locationId, CurrencyCode currencyCode, Tender... tenders) {
+        return new CheckoutResult(
+                transactionId,
+                transactionClientId,
+                locationId,
+                new Date(CREATED_AT_MILLIS),
+                money(1800, currencyCode),
+                money(100, currencyCode),
+                new LinkedHashSet<>(Arrays.asList(tenders)));
+    }
+
+    static private Tender card(long createdAtMillis, String tenderId, Card.Brand brand, String lastFourDigits, Integer expirationMonth, Integer expirationYear, String id, String cardholderName, TenderCardDetails.EntryMethod entryMethod) {
+        Card card = new Card(brand, lastFourDigits, expirationMonth, expirationYear, id, cardholderName);
+        return Tender.card(
+                new Date(createdAtMillis),
+                money(100, CurrencyCode.USD),
+                money(1100, CurrencyCode.USD),
+                tenderId,
+                new TenderCardDetails(entryMethod, card));
+    }
+
+    static private Tender cash(long createdAtMillis, CurrencyCode currencyCode) {
+        return Tender.cash(
+                new Date(createdAtMillis),
+                money(0, currencyCode),
+                money(500, currencyCode),
+                new TenderCashDetails(money(1000, currencyCode), money(500, currencyCode)));
+    }
+
+    static private Money money(long amount, CurrencyCode currencyCode) {
+        return new Money(amount, currencyCode);
+    }
+}
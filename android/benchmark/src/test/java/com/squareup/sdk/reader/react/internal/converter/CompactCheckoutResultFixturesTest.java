@@ -0,0 +1,118 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class CompactCheckoutResultFixturesTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void fixturesMatchTheConverters() throws Exception {
+        File fixturesFile = new File(System.getProperty("compactCheckoutResultFixtures"));
+        String fixtures = new String(Files.readAllBytes(fixturesFile.toPath()), UTF_8);
+
+        assertEquals(
+                fixturesFile + " is out of date, run gradle writeCompactCheckoutResultFixtures",
+                CompactCheckoutResultFixtures.toJson(),
+                fixtures);
+    }
+
+    @Test
+    public void compactResultsFollowTheGeneratedLayout() {
+        for (CompactCheckoutResultFixtures.Case fixture : CompactCheckoutResultFixtures.cases()) {
+            List<Object> compact = fixture.toCompact().toArrayList();
+            List<Object> dictionary = ((ReadableArray) compact.get(1)).toArrayList();
+
+            assertEquals(fixture.name, (double) ReaderSdkConstants.COMPACT_CHECKOUT_RESULT_VERSION, ((Number) compact.get(0)).doubleValue(), 0);
+            assertLayout(fixture.name, fixture.toKeyed().toHashMap(), compact.subList(2, compact.size()), ReaderSdkConstants.COMPACT_RESULT_FIELDS, dictionary);
+        }
+    }
+
+    /**
+     * Asserts that each field of keyed is at the position of its name in fields, that fields keyed
+     * leaves out are null and that null fields are false.
+     */
+    static private void assertLayout(String path, Map<String, Object> keyed, List<Object> compact, String[] fields, List<Object> dictionary) {
+        assertEquals(path, fields.length, compact.size());
+        for (String key : keyed.keySet()) {
+            assertTrue(path + "." + key + " is not in the layout", indexOf(fields, key) >= 0);
+        }
+        for (int i = 0; i < fields.length; i++) {
+            String fieldPath = path + "." + fields[i];
+            Object keyedValue = keyed.get(fields[i]);
+            Object compactValue = compact.get(i);
+            if (!keyed.containsKey(fields[i])) {
+                assertNull(fieldPath, compactValue);
+            } else if (keyedValue == null) {
+                assertEquals(fieldPath, false, compactValue);
+            } else if (keyedValue instanceof ReadableMap) {
+                String[] nestedFields = getNestedFields(fields[i]);
+                assertLayout(fieldPath, ((ReadableMap) keyedValue).toHashMap(), ((ReadableArray) compactValue).toArrayList(), nestedFields, dictionary);
+            } else if (keyedValue instanceof ReadableArray) {
+                List<Object> keyedElements = ((ReadableArray) keyedValue).toArrayList();
+                List<Object> compactElements = ((ReadableArray) compactValue).toArrayList();
+                assertEquals(fieldPath, keyedElements.size(), compactElements.size());
+                for (int j = 0; j < keyedElements.size(); j++) {
+                    assertLayout(fieldPath + "[" + j + "]", ((ReadableMap) keyedElements.get(j)).toHashMap(), ((ReadableArray) compactElements.get(j)).toArrayList(), ReaderSdkConstants.COMPACT_TENDER_FIELDS, dictionary);
+                }
+            } else if (fields[i].equals("currencyCode")) {
+                assertEquals(fieldPath, keyedValue, dictionary.get(((Number) compactValue).intValue()));
+            } else if (fields[i].equals("brand") || fields[i].equals("type") || fields[i].equals("entryMethod")) {
+                // Enum values are indexes into the generated enum tables
+                assertTrue(fieldPath, compactValue instanceof Number);
+            } else if (keyedValue instanceof Number) {
+                assertEquals(fieldPath, ((Number) keyedValue).doubleValue(), ((Number) compactValue).doubleValue(), 0);
+            } else {
+                assertEquals(fieldPath, keyedValue, compactValue);
+            }
+        }
+    }
+
+    static private String[] getNestedFields(String field) {
+        switch (field) {
+            case "cardDetails":
+                return ReaderSdkConstants.COMPACT_CARD_DETAILS_FIELDS;
+            case "card":
+                return ReaderSdkConstants.COMPACT_CARD_FIELDS;
+            case "cashDetails":
+                return ReaderSdkConstants.COMPACT_CASH_DETAILS_FIELDS;
+            default:
+                return ReaderSdkConstants.COMPACT_MONEY_FIELDS;
+        }
+    }
+
+    static private int indexOf(String[] fields, String field) {
+        for (int i = 0; i < fields.length; i++) {
+            if (fields[i].equals(field)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -17,12 +17,17 @@ package com.squareup.sdk.reader.react;
 
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.facebook.react.module.annotations.ReactModule;
 import com.squareup.sdk.reader.ReaderSdk;
+import com.squareup.sdk.reader.authorization.AuthorizationState;
 import com.squareup.sdk.reader.authorization.AuthorizeCallback;
 import com.squareup.sdk.reader.authorization.AuthorizeErrorCode;
 import com.squareup.sdk.reader.authorization.DeauthorizeCallback;
@@ -31,14 +36,27 @@ import com.squareup.sdk.reader.authorization.Location;
 import com.squareup.sdk.reader.core.CallbackReference;
 import com.squareup.sdk.reader.core.Result;
 import com.squareup.sdk.reader.core.ResultError;
+import com.squareup.sdk.reader.react.internal.AuthorizedLocationCache;
 import com.squareup.sdk.reader.react.internal.ErrorHandlerUtils;
+import com.squareup.sdk.reader.react.internal.FlightRecorder;
+import com.squareup.sdk.reader.react.internal.MethodMetrics;
+import com.squareup.sdk.reader.react.internal.LocationSnapshot;
+import com.squareup.sdk.reader.react.internal.OperationCoordinator;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
+import com.squareup.sdk.reader.react.internal.ResultDispatcher;
+import com.squareup.sdk.reader.react.internal.SingleFlight;
+import com.squareup.sdk.reader.react.internal.converter.ConverterRegistry;
 import com.squareup.sdk.reader.react.internal.converter.LocationConverter;
-import com.squareup.sdk.reader.react.internal.ReaderSdkException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+@ReactModule(name = AuthorizationModule.NAME)
 class AuthorizationModule extends ReactContextBaseJavaModule {
+    static final String NAME = "RNReaderSDKAuthorization";
+
     // Define all the authorization error debug codes and messages below
-    // These error codes and messages **MUST** align with iOS error codes and javascript error codes
-    // Search KEEP_IN_SYNC_AUTHORIZE_ERROR to update all places
+    // Expected error codes are generated in ReaderSdkConstants and published through getConstants
 
     // react native module debug error codes
     private static final String RN_AUTH_LOCATION_NOT_AUTHORIZED = "rn_auth_location_not_authorized";
@@ -48,72 +66,244 @@ class AuthorizationModule extends ReactContextBaseJavaModule {
 
     // Android only react native errors and messages
     private static final String RN_AUTHORIZE_ALREADY_IN_PROGRESS = "rn_authorize_already_in_progress";
-    private static final String RN_DEAUTHORIZE_ALREADY_IN_PROGRESS = "rn_deauthorize_already_in_progress";
-    private static final String RN_MESSAGE_AUTHORIZE_ALREADY_IN_PROGRESS = "Authorization is already in progress. Please wait for authorizeAsync to complete.";
-    private static final String RN_MESSAGE_DEAUTHORIZE_ALREADY_IN_PROGRESS = "Deauthorization is already in progress. Please wait for deauthorizeAsync to complete.";
+    private static final String RN_MESSAGE_AUTHORIZE_ALREADY_IN_PROGRESS = "Authorization with a different authorization code is already in progress. Please wait for authorizeAsync to complete.";
 
     private volatile CallbackReference authorizeCallbackRef;
     private volatile CallbackReference deauthorizeCallbackRef;
     private final Handler mainLooperHandler;
+    private final OperationCoordinator operationCoordinator;
+    private final LocationConverter locationConverter;
+    private final AuthorizedLocationCache authorizedLocationCache;
+    private final ResultDispatcher resultDispatcher;
+    private final FlightRecorder flightRecorder;
+    private final MethodMetrics methodMetrics;
+    // Concurrent calls for the same work join the call in progress and settle with its result
+    private final SingleFlight authorizeFlight;
+    private final SingleFlight deauthorizeFlight;
+    private final SingleFlight locationRefreshFlight;
 
     public AuthorizationModule(ReactApplicationContext reactContext) {
         super(reactContext);
         mainLooperHandler = new Handler(Looper.getMainLooper());
+        operationCoordinator = OperationCoordinator.getInstance();
+        locationConverter = ConverterRegistry.getInstance().getLocationConverter();
+        authorizedLocationCache = AuthorizedLocationCache.getInstance(reactContext);
+        // Read the persisted location off the JS thread before authorizedLocationSync needs it
+        authorizedLocationCache.preload();
+        resultDispatcher = ResultDispatcher.getInstance();
+        flightRecorder = FlightRecorder.getInstance();
+        methodMetrics = MethodMetrics.getInstance();
+        authorizeFlight = new SingleFlight();
+        deauthorizeFlight = new SingleFlight();
+        locationRefreshFlight = new SingleFlight();
     }
 
     @Override
     public String getName() {
-        return "RNReaderSDKAuthorization";
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+        constants.put("errorCodes", ErrorHandlerUtils.getErrorCodeConstants(ReaderSdkConstants.AUTHORIZE_ERRORS, ReaderSdkConstants.DEAUTHORIZE_ERRORS));
+        return constants;
     }
 
     @ReactMethod
     public void isAuthorized(Promise promise) {
+        promise = methodMetrics.meter("isAuthorized", promise);
         promise.resolve(ReaderSdk.authorizationManager().getAuthorizationState().isAuthorized());
     }
 
     @ReactMethod
     public void isAuthorizationInProgress(Promise promise) {
+        promise = methodMetrics.meter("isAuthorizationInProgress", promise);
         promise.resolve(ReaderSdk.authorizationManager().getAuthorizationState().isAuthorizationInProgress());
     }
 
     @ReactMethod
     public void authorizedLocation(Promise promise) {
-        if (ReaderSdk.authorizationManager().getAuthorizationState().isAuthorized()) {
-            LocationConverter locationConverter = new LocationConverter();
-            promise.resolve(locationConverter.toJSObject(ReaderSdk.authorizationManager().getAuthorizationState().getAuthorizedLocation()));
+        promise = methodMetrics.meter("authorizedLocation", promise);
+        LocationSnapshot cachedLocation = getCachedAuthorizedLocation();
+        if (cachedLocation != null) {
+            promise.resolve(locationConverter.toJSObject(cachedLocation));
+            return;
+        }
+        // Without a cached location, concurrent calls share one read of the authorization state and
+        // settle with its result
+        if (locationRefreshFlight.join(null, promise) == SingleFlight.JoinResult.STARTED) {
+            startAuthorizedLocationRefresh();
+        }
+    }
+
+    // Synchronous versions of the getters above, for render paths that cannot wait for a promise.
+    // They block the JS thread, so they only read in-memory state.
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean isAuthorizedSync() {
+        long entryNanos = methodMetrics.enter("isAuthorizedSync");
+        try {
+            return ReaderSdk.authorizationManager().getAuthorizationState().isAuthorized();
+        } finally {
+            methodMetrics.exit("isAuthorizedSync", entryNanos);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean isAuthorizationInProgressSync() {
+        long entryNanos = methodMetrics.enter("isAuthorizationInProgressSync");
+        try {
+            return ReaderSdk.authorizationManager().getAuthorizationState().isAuthorizationInProgress();
+        } finally {
+            methodMetrics.exit("isAuthorizationInProgressSync", entryNanos);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public boolean canDeauthorizeSync() {
+        long entryNanos = methodMetrics.enter("canDeauthorizeSync");
+        try {
+            return ReaderSdk.authorizationManager().getAuthorizationState().canDeauthorize();
+        } finally {
+            methodMetrics.exit("canDeauthorizeSync", entryNanos);
+        }
+    }
+
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap authorizedLocationSync() {
+        long entryNanos = methodMetrics.enter("authorizedLocationSync");
+        try {
+            LocationSnapshot location = getAuthorizedLocationSnapshot();
+            return location != null ? locationConverter.toJSObject(location) : null;
+        } finally {
+            methodMetrics.exit("authorizedLocationSync", entryNanos);
+        }
+    }
+
+    /**
+     * @return the authorized location from the cache, or null if Reader SDK is not authorized
+     */
+    private LocationSnapshot getAuthorizedLocationSnapshot() {
+        LocationSnapshot cachedLocation = getCachedAuthorizedLocation();
+        if (cachedLocation != null) {
+            return cachedLocation;
+        }
+        AuthorizationState authorizationState = ReaderSdk.authorizationManager().getAuthorizationState();
+        if (authorizationState.isAuthorized()) {
+            return authorizedLocationCache.update(authorizationState.getAuthorizedLocation());
+        }
+        return null;
+    }
+
+    /**
+     * @return the cached authorized location, or null if none is cached. A location persisted by a
+     *     previous process is returned as is, and the cache is refreshed in the background to check
+     *     that it is still authorized.
+     */
+    private LocationSnapshot getCachedAuthorizedLocation() {
+        LocationSnapshot cachedLocation = authorizedLocationCache.get();
+        if (cachedLocation != null
+                && !authorizedLocationCache.isVerified()
+                && locationRefreshFlight.join(null, null) == SingleFlight.JoinResult.STARTED) {
+            startAuthorizedLocationRefresh();
+        }
+        return cachedLocation;
+    }
+
+    @ReactMethod
+    public void getAuthorizationSnapshot(boolean includeOperationsInProgress, Promise promise) {
+        promise = methodMetrics.meter("getAuthorizationSnapshot", promise);
+        // Read the state once so that every field describes the same moment
+        AuthorizationState authorizationState = ReaderSdk.authorizationManager().getAuthorizationState();
+        WritableMap snapshot = new WritableNativeMap();
+        snapshot.putBoolean("isAuthorized", authorizationState.isAuthorized());
+        snapshot.putBoolean("isAuthorizationInProgress", authorizationState.isAuthorizationInProgress());
+        snapshot.putBoolean("canDeauthorize", authorizationState.canDeauthorize());
+        if (authorizationState.isAuthorized()) {
+            snapshot.putMap("authorizedLocation", locationConverter.toJSObject(authorizationState.getAuthorizedLocation()));
         } else {
-            String errorJsonMessage = ErrorHandlerUtils.createNativeModuleError(RN_AUTH_LOCATION_NOT_AUTHORIZED, RN_MESSAGE_AUTH_LOCATION_NOT_AUTHORIZED);
-            promise.reject(ErrorHandlerUtils.USAGE_ERROR, new ReaderSdkException(errorJsonMessage));
+            snapshot.putNull("authorizedLocation");
+        }
+        if (includeOperationsInProgress) {
+            WritableMap operationsInProgress = new WritableNativeMap();
+            operationsInProgress.putBoolean("authorize", operationCoordinator.isInProgress(OperationCoordinator.Operation.AUTHORIZE));
+            operationsInProgress.putBoolean("deauthorize", operationCoordinator.isInProgress(OperationCoordinator.Operation.DEAUTHORIZE));
+            operationsInProgress.putBoolean("checkout", operationCoordinator.isInProgress(OperationCoordinator.Operation.CHECKOUT));
+            operationsInProgress.putBoolean("readerSettings", operationCoordinator.isInProgress(OperationCoordinator.Operation.READER_SETTINGS));
+            operationsInProgress.putBoolean("storeCustomerCard", operationCoordinator.isInProgress(OperationCoordinator.Operation.STORE_CUSTOMER_CARD));
+            snapshot.putMap("operationsInProgress", operationsInProgress);
         }
+        promise.resolve(snapshot);
     }
 
     @ReactMethod
-    public void authorize(final String authCode, final Promise promise) {
-        if (authorizeCallbackRef != null) {
-            String errorJsonMessage = ErrorHandlerUtils.createNativeModuleError(RN_AUTHORIZE_ALREADY_IN_PROGRESS, RN_MESSAGE_AUTHORIZE_ALREADY_IN_PROGRESS);
-            promise.reject(ErrorHandlerUtils.USAGE_ERROR, new ReaderSdkException(errorJsonMessage));
+    public void getAuthorizedLocationCacheStats(Promise promise) {
+        promise = methodMetrics.meter("getAuthorizedLocationCacheStats", promise);
+        WritableMap stats = new WritableNativeMap();
+        stats.putDouble("hits", authorizedLocationCache.getHitCount());
+        stats.putDouble("misses", authorizedLocationCache.getMissCount());
+        promise.resolve(stats);
+    }
+
+    @ReactMethod
+    public void getCoalescedCallStats(Promise promise) {
+        promise = methodMetrics.meter("getCoalescedCallStats", promise);
+        WritableMap stats = new WritableNativeMap();
+        stats.putDouble("authorize", authorizeFlight.getCoalescedCount());
+        stats.putDouble("deauthorize", deauthorizeFlight.getCoalescedCount());
+        stats.putDouble("authorizedLocation", locationRefreshFlight.getCoalescedCount());
+        promise.resolve(stats);
+    }
+
+    @ReactMethod
+    public void authorize(final String authCode, Promise promise) {
+        promise = methodMetrics.meter("authorize", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "authorize", null);
+        SingleFlight.JoinResult joinResult = authorizeFlight.join(authCode, promise);
+        if (joinResult == SingleFlight.JoinResult.JOINED) {
+            return;
+        } else if (joinResult == SingleFlight.JoinResult.BUSY) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_AUTHORIZE_ALREADY_IN_PROGRESS, RN_MESSAGE_AUTHORIZE_ALREADY_IN_PROGRESS);
+            return;
+        }
+        OperationCoordinator.Operation conflictingOperation = operationCoordinator.tryStart(OperationCoordinator.Operation.AUTHORIZE);
+        if (conflictingOperation != null) {
+            rejectFlightWithConflict(authorizeFlight, conflictingOperation);
             return;
         }
         AuthorizeCallback authCallback = new AuthorizeCallback() {
             @Override
-            public void onResult(Result<Location, ResultError<AuthorizeErrorCode>> result) {
+            public void onResult(final Result<Location, ResultError<AuthorizeErrorCode>> result) {
+                long callbackStartNanos = SystemClock.elapsedRealtimeNanos();
                 authorizeCallbackRef.clear();
                 authorizeCallbackRef = null;
-                if (result.isError()) {
-                    ResultError<AuthorizeErrorCode> error = result.getError();
-                    String errorJsonMessage = ErrorHandlerUtils.serializeErrorToJson(error.getDebugCode(), error.getMessage(), error.getDebugMessage());
-                    promise.reject(ErrorHandlerUtils.getErrorCode(error.getCode()), new ReaderSdkException(errorJsonMessage));
-                    return;
-                }
-                Location location = result.getSuccessValue();
-                LocationConverter locationConverter = new LocationConverter();
-                promise.resolve(locationConverter.toJSObject(location));
+                final List<Promise> promises = authorizeFlight.finish();
+                operationCoordinator.finish(OperationCoordinator.Operation.AUTHORIZE);
+                // The cache is updated here so that it is ordered with the clear of a later deauthorize
+                final LocationSnapshot location = result.isError() ? null : authorizedLocationCache.update(result.getSuccessValue());
+                resultDispatcher.dispatch("AuthorizeCallback", callbackStartNanos, new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Promise promise : promises) {
+                            if (result.isError()) {
+                                ResultError<AuthorizeErrorCode> error = result.getError();
+                                ErrorHandlerUtils.rejectWithResultError(promise, error);
+                            } else {
+                                flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "AuthorizeCallback");
+                                promise.resolve(locationConverter.toJSObject(location));
+                            }
+                        }
+                    }
+                });
             }
         };
         authorizeCallbackRef = ReaderSdk.authorizationManager().addAuthorizeCallback(authCallback);
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "authorize", null);
         mainLooperHandler.post(new Runnable() {
             @Override
             public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "authorize", null);
                 ReaderSdk.authorizationManager().authorize(authCode);
             }
         });
@@ -121,48 +311,129 @@ class AuthorizationModule extends ReactContextBaseJavaModule {
 
     @ReactMethod
     public void canDeauthorize(Promise promise) {
+        promise = methodMetrics.meter("canDeauthorize", promise);
         promise.resolve(ReaderSdk.authorizationManager().getAuthorizationState().canDeauthorize());
     }
 
     @ReactMethod
-    public void deauthorize(final Promise promise) {
-        if (deauthorizeCallbackRef != null) {
-            String errorJsonMessage = ErrorHandlerUtils.createNativeModuleError(RN_DEAUTHORIZE_ALREADY_IN_PROGRESS, RN_MESSAGE_DEAUTHORIZE_ALREADY_IN_PROGRESS);
-            promise.reject(ErrorHandlerUtils.USAGE_ERROR, new ReaderSdkException(errorJsonMessage));
+    public void deauthorize(Promise promise) {
+        promise = methodMetrics.meter("deauthorize", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "deauthorize", null);
+        if (deauthorizeFlight.join(null, promise) == SingleFlight.JoinResult.JOINED) {
+            return;
+        }
+        OperationCoordinator.Operation conflictingOperation = operationCoordinator.tryStart(OperationCoordinator.Operation.DEAUTHORIZE);
+        if (conflictingOperation != null) {
+            rejectFlightWithConflict(deauthorizeFlight, conflictingOperation);
             return;
         }
         DeauthorizeCallback deauthCallback = new DeauthorizeCallback() {
             @Override
-            public void onResult(Result<Void, ResultError<DeauthorizeErrorCode>> result) {
+            public void onResult(final Result<Void, ResultError<DeauthorizeErrorCode>> result) {
+                long callbackStartNanos = SystemClock.elapsedRealtimeNanos();
                 deauthorizeCallbackRef.clear();
                 deauthorizeCallbackRef = null;
-                if (result.isError()) {
-                    ResultError<DeauthorizeErrorCode> error = result.getError();
-                    String errorJsonMessage = ErrorHandlerUtils.serializeErrorToJson(error.getDebugCode(), error.getMessage(), error.getDebugMessage());
-                    promise.reject(ErrorHandlerUtils.getErrorCode(error.getCode()), new ReaderSdkException(errorJsonMessage));
-                    return;
+                final List<Promise> promises = deauthorizeFlight.finish();
+                operationCoordinator.finish(OperationCoordinator.Operation.DEAUTHORIZE);
+                if (!result.isError()) {
+                    authorizedLocationCache.clear();
                 }
-                promise.resolve(null);
+                resultDispatcher.dispatch("DeauthorizeCallback", callbackStartNanos, new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Promise promise : promises) {
+                            if (result.isError()) {
+                                ResultError<DeauthorizeErrorCode> error = result.getError();
+                                ErrorHandlerUtils.rejectWithResultError(promise, error);
+                            } else {
+                                flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "DeauthorizeCallback");
+                                promise.resolve(null);
+                            }
+                        }
+                    }
+                });
             }
         };
         deauthorizeCallbackRef = ReaderSdk.authorizationManager().addDeauthorizeCallback(deauthCallback);
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "deauthorize", null);
         mainLooperHandler.post(new Runnable() {
             @Override
             public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "deauthorize", null);
                 ReaderSdk.authorizationManager().deauthorize();
             }
         });
     }
 
+    /**
+     * Refreshes the cache from the authorization state on the main thread, then finishes the
+     * location refresh flight, which the caller must have started, and settles every call that
+     * joined it.
+     */
+    private void startAuthorizedLocationRefresh() {
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "refreshAuthorizedLocation", null);
+        mainLooperHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "refreshAuthorizedLocation", null);
+                LocationSnapshot location = refreshAuthorizedLocationCache();
+                for (Promise promise : locationRefreshFlight.finish()) {
+                    if (location != null) {
+                        promise.resolve(locationConverter.toJSObject(location));
+                    } else {
+                        ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_AUTH_LOCATION_NOT_AUTHORIZED, RN_MESSAGE_AUTH_LOCATION_NOT_AUTHORIZED);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the authorized location, or null if Reader SDK is not authorized
+     */
+    private LocationSnapshot refreshAuthorizedLocationCache() {
+        AuthorizationState authorizationState = ReaderSdk.authorizationManager().getAuthorizationState();
+        if (authorizationState.isAuthorized()) {
+            return authorizedLocationCache.update(authorizationState.getAuthorizedLocation());
+        }
+        authorizedLocationCache.clear();
+        return null;
+    }
+
+    /**
+     * Rejects every call in a flight whose operation could not start, including calls that joined
+     * it before the operation was found to conflict.
+     */
+    static private void rejectFlightWithConflict(SingleFlight flight, OperationCoordinator.Operation conflictingOperation) {
+        for (Promise promise : flight.finish()) {
+            OperationCoordinator.rejectWithConflict(promise, conflictingOperation);
+        }
+    }
+
     @Override
     public void onCatalystInstanceDestroy() {
         super.onCatalystInstanceDestroy();
         // clear the callback to avoid memory leaks when react native module is destroyed
         if (authorizeCallbackRef != null) {
             authorizeCallbackRef.clear();
+            abandonFlight(authorizeFlight);
+            operationCoordinator.finish(OperationCoordinator.Operation.AUTHORIZE);
         }
         if (deauthorizeCallbackRef != null) {
             deauthorizeCallbackRef.clear();
+            abandonFlight(deauthorizeFlight);
+            operationCoordinator.finish(OperationCoordinator.Operation.DEAUTHORIZE);
+        }
+        // The refresh still updates the cache when it runs, but has no calls left to settle
+        abandonFlight(locationRefreshFlight);
+    }
+
+    /**
+     * Ends a flight whose promises belong to the destroyed React instance and are never settled.
+     */
+    private void abandonFlight(SingleFlight flight) {
+        for (Promise promise : flight.finish()) {
+            methodMetrics.abandon(promise);
         }
     }
 }
@@ -18,6 +18,7 @@ package com.squareup.sdk.reader.react;
 import android.app.Activity;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
@@ -25,245 +26,857 @@ import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
-import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.facebook.react.module.annotations.ReactModule;
 import com.squareup.sdk.reader.ReaderSdk;
-import com.squareup.sdk.reader.checkout.AdditionalPaymentType;
 import com.squareup.sdk.reader.checkout.CheckoutActivityCallback;
 import com.squareup.sdk.reader.checkout.CheckoutErrorCode;
 import com.squareup.sdk.reader.checkout.CheckoutParameters;
 import com.squareup.sdk.reader.checkout.CheckoutResult;
-import com.squareup.sdk.reader.checkout.CurrencyCode;
 import com.squareup.sdk.reader.checkout.Money;
-import com.squareup.sdk.reader.checkout.TipSettings;
 import com.squareup.sdk.reader.core.CallbackReference;
 import com.squareup.sdk.reader.core.Result;
 import com.squareup.sdk.reader.core.ResultError;
+import com.squareup.sdk.reader.react.internal.CheckoutParametersDecoder;
+import com.squareup.sdk.reader.react.internal.CheckoutResultMailbox;
+import com.squareup.sdk.reader.react.internal.CheckoutTotals;
+import com.squareup.sdk.reader.react.internal.CheckoutTemplate;
 import com.squareup.sdk.reader.react.internal.converter.CheckoutResultConverter;
+import com.squareup.sdk.reader.react.internal.converter.CompactCheckoutResultConverter;
+import com.squareup.sdk.reader.react.internal.converter.ConverterRegistry;
+import com.squareup.sdk.reader.react.internal.converter.ResultFieldMask;
 import com.squareup.sdk.reader.react.internal.ErrorHandlerUtils;
-import com.squareup.sdk.reader.react.internal.ReaderSdkException;
+import com.squareup.sdk.reader.react.internal.FlightRecorder;
+import com.squareup.sdk.reader.react.internal.MethodMetrics;
+import com.squareup.sdk.reader.react.internal.OperationCoordinator;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
+import com.squareup.sdk.reader.react.internal.ResultDispatcher;
+import com.squareup.sdk.reader.react.internal.TransactionJournal;
+import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.LinkedHashSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.json.JSONException;
 
+@ReactModule(name = CheckoutModule.NAME)
 class CheckoutModule extends ReactContextBaseJavaModule {
+    static final String NAME = "RNReaderSDKCheckout";
+
     // Define all the checkout debug codes and messages below
-    // These error codes and messages **MUST** align with iOS error codes and javascript error codes
-    // Search KEEP_IN_SYNC_CHECKOUT_ERROR to update all places
+    // Expected error codes are generated in ReaderSdkConstants and published through getConstants
 
     // react native module debug error codes
     private static final String RN_CHECKOUT_ALREADY_IN_PROGRESS = "rn_checkout_already_in_progress";
     private static final String RN_CHECKOUT_INVALID_PARAMETER = "rn_checkout_invalid_parameter";
+    private static final String RN_CHECKOUT_TEMPLATE_NOT_FOUND = "rn_checkout_template_not_found";
+    private static final String RN_CHECKOUT_NO_PREVIOUS_CHECKOUT = "rn_checkout_no_previous_checkout";
+    private static final String RN_CHECKOUT_PREPARED_NOT_FOUND = "rn_checkout_prepared_not_found";
+    private static final String RN_CHECKOUT_QUEUE_FULL = "rn_checkout_queue_full";
+    private static final String RN_CHECKOUT_QUEUED_CHECKOUT_CANCELED = "rn_checkout_queued_checkout_canceled";
+    private static final String RN_CHECKOUT_TIMED_OUT = "rn_checkout_timed_out";
+    private static final String RN_CHECKOUT_CANCELED = "rn_checkout_canceled";
+    private static final String RN_CHECKOUT_JOURNAL_ERROR = "rn_checkout_journal_error";
+    private static final String RN_CHECKOUT_MAILBOX_ERROR = "rn_checkout_mailbox_error";
 
     // react native module debug messages
     private static final String RN_MESSAGE_CHECKOUT_ALREADY_IN_PROGRESS = "A checkout operation is already in progress. Ensure that the in-progress checkout is completed before calling startCheckoutAsync again.";
     private static final String RN_MESSAGE_CHECKOUT_INVALID_PARAMETER = "Invalid parameter found in checkout parameters.";
+    private static final String RN_MESSAGE_CHECKOUT_TEMPLATE_NOT_FOUND = "No checkout template is registered with id %s. Call registerCheckoutTemplateAsync before starting a checkout with it.";
+    private static final String RN_MESSAGE_CHECKOUT_NO_PREVIOUS_CHECKOUT = "There is no previous checkout to repeat. Start a checkout with startCheckoutAsync first.";
+    private static final String RN_MESSAGE_CHECKOUT_PREPARED_NOT_FOUND = "The prepared checkout was already started, disposed or has expired. Call prepareCheckoutAsync again.";
+    private static final String RN_MESSAGE_CHECKOUT_QUEUE_FULL = "The checkout queue is full. Wait for a queued checkout to complete before starting another one.";
+    private static final String RN_MESSAGE_CHECKOUT_QUEUED_CHECKOUT_CANCELED = "The queued checkout was canceled before it started.";
+    private static final String RN_MESSAGE_CHECKOUT_QUEUE_INVALID_MAX_DEPTH = "'maxDepth' must be at least 1.";
+    private static final String RN_MESSAGE_CHECKOUT_TIMED_OUT = "The checkout did not complete within %d ms.";
+    private static final String RN_MESSAGE_CHECKOUT_CANCELED = "The checkout was canceled by cancelCheckoutAsync.";
+    private static final String RN_MESSAGE_CHECKOUT_JOURNAL_INVALID_RETENTION = "'maxAgeDays' and 'maxBytes' must be positive numbers.";
+    private static final String RN_MESSAGE_CHECKOUT_JOURNAL_INVALID_QUERY = "'limit' must be at least 1 and 'cursor' must be the nextCursor of a previous page.";
+    private static final String RN_MESSAGE_CHECKOUT_JOURNAL_ERROR = "The transaction journal could not be read: %s";
+    private static final String RN_MESSAGE_CHECKOUT_MAILBOX_ERROR = "The checkout result mailbox could not be written, and its entries were kept: %s";
+
+    // Prepared checkouts hold a checkout callback registration until they are started or disposed
+    private static final long PREPARED_CHECKOUT_EXPIRY_MS = 5 * 60 * 1000;
 
-    private volatile CallbackReference checkoutCallbackRef;
+    // The checkout that was started and has not completed, guarded by checkoutQueue for updates
+    private volatile CheckoutRequest activeCheckoutRequest;
+    // Stores the late result of the last checkout that was abandoned while its activity was on
+    // screen. Process-wide, so that a late result is stored once across React instances, and only
+    // used on the main thread.
+    private static LateCheckoutResultCallback lateCheckoutResultCallback;
     private final Handler mainLooperHandler;
+    private final OperationCoordinator operationCoordinator;
     private final CheckoutResultConverter checkoutResultConverter;
+    private final CompactCheckoutResultConverter compactCheckoutResultConverter;
+    private final ResultDispatcher resultDispatcher;
+    private final FlightRecorder flightRecorder;
+    private final MethodMetrics methodMetrics;
+    private final CheckoutResultMailbox checkoutResultMailbox;
+    private final TransactionJournal transactionJournal;
+    private final CheckoutTotals checkoutTotals;
+    private final Map<String, RegisteredCheckoutTemplate> checkoutTemplates;
+    private volatile CheckoutParameters lastCheckoutParams;
+    private volatile ResultFieldMask lastResultFieldMask;
+    private volatile long lastTimeoutMs;
+    private volatile boolean epochMillisTimestampsEnabled;
+    private volatile boolean compactCheckoutResultsEnabled;
+    private volatile boolean isDestroyed;
+    private final Map<String, CheckoutRequest> preparedCheckouts;
+    // Guards activeCheckoutRequest updates so that a checkout is either started or queued, never both
+    private final Deque<QueuedCheckout> checkoutQueue;
+    private boolean checkoutQueueEnabled;
+    private int checkoutQueueMaxDepth;
 
     public CheckoutModule(ReactApplicationContext reactContext) {
         super(reactContext);
         mainLooperHandler = new Handler(Looper.getMainLooper());
-        checkoutResultConverter = new CheckoutResultConverter();
+        operationCoordinator = OperationCoordinator.getInstance();
+        checkoutResultConverter = ConverterRegistry.getInstance().getCheckoutResultConverter();
+        compactCheckoutResultConverter = ConverterRegistry.getInstance().getCompactCheckoutResultConverter();
+        resultDispatcher = ResultDispatcher.getInstance();
+        flightRecorder = FlightRecorder.getInstance();
+        methodMetrics = MethodMetrics.getInstance();
+        checkoutResultMailbox = CheckoutResultMailbox.getInstance(reactContext);
+        transactionJournal = TransactionJournal.getInstance(reactContext);
+        checkoutTotals = CheckoutTotals.getInstance(reactContext);
+        checkoutTemplates = new ConcurrentHashMap<>();
+        preparedCheckouts = new ConcurrentHashMap<>();
+        checkoutQueue = new ArrayDeque<>();
     }
 
     @Override
     public String getName() {
-        return "RNReaderSDKCheckout";
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+        constants.put("errorCodes", ErrorHandlerUtils.getErrorCodeConstants(ReaderSdkConstants.CHECKOUT_ERRORS, ReaderSdkConstants.OPERATION_ERRORS));
+        ConverterRegistry converterRegistry = ConverterRegistry.getInstance();
+        constants.put("cardBrands", converterRegistry.getCardBrandValues());
+        constants.put("entryMethods", converterRegistry.getEntryMethodValues());
+        constants.put("tenderTypes", converterRegistry.getTenderTypeValues());
+        return constants;
     }
 
     @ReactMethod
-    public void startCheckout(ReadableMap jsCheckoutParameters, final Promise promise) {
-        StringBuilder paramError = new StringBuilder();
-        if (!validateJSCheckoutParams(jsCheckoutParameters, paramError)) {
-            String paramErrorDebugMessage = String.format("%s %s", RN_MESSAGE_CHECKOUT_INVALID_PARAMETER, paramError.toString());
-            String errorJsonMessage = ErrorHandlerUtils.createNativeModuleError(RN_CHECKOUT_INVALID_PARAMETER, paramErrorDebugMessage);
-            promise.reject(ErrorHandlerUtils.USAGE_ERROR, new ReaderSdkException(errorJsonMessage));
+    public void startCheckout(ReadableMap jsCheckoutParameters, Promise promise) {
+        promise = methodMetrics.meter("startCheckout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "startCheckout", null);
+        List<String> paramErrors = new ArrayList<>();
+        Map<String, Object> checkoutParamsMap = jsCheckoutParameters.toHashMap();
+        final CheckoutParameters checkoutParams = CheckoutParametersDecoder.decode(checkoutParamsMap, paramErrors);
+        Object queueId = checkoutParamsMap.get("queueId");
+        if (queueId != null && !(queueId instanceof String)) {
+            paramErrors.add("'queueId' is not a string");
+        }
+        ResultFieldMask resultFieldMask = decodeResultFieldMask(checkoutParamsMap, paramErrors);
+        long timeoutMs = decodeTimeoutMs(checkoutParamsMap, paramErrors);
+        if (checkoutParams == null || !paramErrors.isEmpty()) {
+            flightRecorder.record(FlightRecorder.Event.VALIDATION, "startCheckout", RN_CHECKOUT_INVALID_PARAMETER);
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, buildParamErrorDebugMessage(paramErrors));
             return;
         }
+        flightRecorder.record(FlightRecorder.Event.VALIDATION, "startCheckout", FlightRecorder.VALID);
 
-        if (checkoutCallbackRef != null) {
-            String errorJsonMessage = ErrorHandlerUtils.createNativeModuleError(RN_CHECKOUT_ALREADY_IN_PROGRESS, RN_MESSAGE_CHECKOUT_ALREADY_IN_PROGRESS);
-            promise.reject(ErrorHandlerUtils.USAGE_ERROR, new ReaderSdkException(errorJsonMessage));
+        startCheckoutActivity(checkoutParams, resultFieldMask, timeoutMs, (String) queueId, promise);
+    }
+
+    @ReactMethod
+    public void registerCheckoutTemplate(String templateId, ReadableMap jsTemplateParameters, Promise promise) {
+        promise = methodMetrics.meter("registerCheckoutTemplate", promise);
+        List<String> paramErrors = new ArrayList<>();
+        Map<String, Object> templateParamsMap = jsTemplateParameters.toHashMap();
+        CheckoutTemplate checkoutTemplate = CheckoutParametersDecoder.decodeTemplate(templateParamsMap, paramErrors);
+        ResultFieldMask resultFieldMask = decodeResultFieldMask(templateParamsMap, paramErrors);
+        long timeoutMs = decodeTimeoutMs(templateParamsMap, paramErrors);
+        if (checkoutTemplate == null || !paramErrors.isEmpty()) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, buildParamErrorDebugMessage(paramErrors));
             return;
         }
+        checkoutTemplates.put(templateId, new RegisteredCheckoutTemplate(checkoutTemplate, resultFieldMask, timeoutMs));
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void unregisterCheckoutTemplate(String templateId, Promise promise) {
+        promise = methodMetrics.meter("unregisterCheckoutTemplate", promise);
+        promise.resolve(checkoutTemplates.remove(templateId) != null);
+    }
+
+    @ReactMethod
+    public void startCheckoutWithTemplate(String templateId, ReadableMap jsAmountMoney, Promise promise) {
+        promise = methodMetrics.meter("startCheckoutWithTemplate", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "startCheckoutWithTemplate", null);
+        RegisteredCheckoutTemplate registeredTemplate = checkoutTemplates.get(templateId);
+        if (registeredTemplate == null) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_TEMPLATE_NOT_FOUND, String.format(RN_MESSAGE_CHECKOUT_TEMPLATE_NOT_FOUND, templateId));
+            return;
+        }
+        List<String> paramErrors = new ArrayList<>();
+        Money amountMoney = CheckoutParametersDecoder.decodeAmountMoney(jsAmountMoney, paramErrors);
+        if (amountMoney == null) {
+            flightRecorder.record(FlightRecorder.Event.VALIDATION, "startCheckoutWithTemplate", RN_CHECKOUT_INVALID_PARAMETER);
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, buildParamErrorDebugMessage(paramErrors));
+            return;
+        }
+        flightRecorder.record(FlightRecorder.Event.VALIDATION, "startCheckoutWithTemplate", FlightRecorder.VALID);
+        startCheckoutActivity(registeredTemplate.checkoutTemplate.toCheckoutParameters(amountMoney), registeredTemplate.resultFieldMask, registeredTemplate.timeoutMs, null, promise);
+    }
+
+    @ReactMethod
+    public void repeatLastCheckout(Promise promise) {
+        promise = methodMetrics.meter("repeatLastCheckout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "repeatLastCheckout", null);
+        CheckoutParameters checkoutParams = lastCheckoutParams;
+        if (checkoutParams == null) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_NO_PREVIOUS_CHECKOUT, RN_MESSAGE_CHECKOUT_NO_PREVIOUS_CHECKOUT);
+            return;
+        }
+        startCheckoutActivity(checkoutParams, lastResultFieldMask, lastTimeoutMs, null, promise);
+    }
 
-        CheckoutActivityCallback checkoutCallback = new CheckoutActivityCallback() {
+    @ReactMethod
+    public void prepareCheckout(ReadableMap jsCheckoutParameters, Promise promise) {
+        promise = methodMetrics.meter("prepareCheckout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "prepareCheckout", null);
+        List<String> paramErrors = new ArrayList<>();
+        Map<String, Object> checkoutParamsMap = jsCheckoutParameters.toHashMap();
+        CheckoutParameters checkoutParams = CheckoutParametersDecoder.decode(checkoutParamsMap, paramErrors);
+        ResultFieldMask resultFieldMask = decodeResultFieldMask(checkoutParamsMap, paramErrors);
+        long timeoutMs = decodeTimeoutMs(checkoutParamsMap, paramErrors);
+        if (checkoutParams == null || !paramErrors.isEmpty()) {
+            flightRecorder.record(FlightRecorder.Event.VALIDATION, "prepareCheckout", RN_CHECKOUT_INVALID_PARAMETER);
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, buildParamErrorDebugMessage(paramErrors));
+            return;
+        }
+        flightRecorder.record(FlightRecorder.Event.VALIDATION, "prepareCheckout", FlightRecorder.VALID);
+
+        final String handle = UUID.randomUUID().toString();
+        final CheckoutRequest checkoutRequest = newCheckoutRequest(checkoutParams, resultFieldMask, timeoutMs);
+        checkoutRequest.expiry = new Runnable() {
             @Override
-            public void onResult(Result<CheckoutResult, ResultError<CheckoutErrorCode>> result) {
-                checkoutCallbackRef.clear();
-                checkoutCallbackRef = null;
-                if (result.isError()) {
-                    ResultError<CheckoutErrorCode> error = result.getError();
-                    String errorJsonMessage = ErrorHandlerUtils.serializeErrorToJson(error.getDebugCode(), error.getMessage(), error.getDebugMessage());
-                    promise.reject(ErrorHandlerUtils.getErrorCode(error.getCode()), new ReaderSdkException(errorJsonMessage));
-                    return;
-                }
-                CheckoutResult checkoutResult = result.getSuccessValue();
-                promise.resolve(checkoutResultConverter.toJSObject(checkoutResult));
+            public void run() {
+                disposePreparedCheckout(handle);
             }
         };
-        checkoutCallbackRef = ReaderSdk.checkoutManager().addCheckoutActivityCallback(checkoutCallback);
+        checkoutRequest.expiresAtUptimeMs = SystemClock.uptimeMillis() + PREPARED_CHECKOUT_EXPIRY_MS;
+        putPreparedCheckout(handle, checkoutRequest);
+        promise.resolve(handle);
+    }
+
+    @ReactMethod
+    public void startPreparedCheckout(String handle, Promise promise) {
+        promise = methodMetrics.meter("startPreparedCheckout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "startPreparedCheckout", null);
+        CheckoutRequest checkoutRequest = takePreparedCheckout(handle);
+        if (checkoutRequest == null) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_PREPARED_NOT_FOUND, RN_MESSAGE_CHECKOUT_PREPARED_NOT_FOUND);
+            return;
+        }
+        if (!startOrQueueCheckout(checkoutRequest, null, promise)) {
+            // the handle stays usable until it expires
+            putPreparedCheckout(handle, checkoutRequest);
+        }
+    }
 
-        ReadableMap jsAmountMoney = jsCheckoutParameters.getMap("amountMoney");
-        Money amountMoney = new Money(
-                jsAmountMoney.getInt("amount"),
-                jsAmountMoney.hasKey("currencyCode") ? CurrencyCode.valueOf(jsAmountMoney.getString("currencyCode")) : CurrencyCode.current());
+    @ReactMethod
+    public void disposePreparedCheckout(String handle, Promise promise) {
+        promise = methodMetrics.meter("disposePreparedCheckout", promise);
+        promise.resolve(disposePreparedCheckout(handle));
+    }
 
-        CheckoutParameters.Builder checkoutParamsBuilder = CheckoutParameters.newBuilder(amountMoney);
-        if (jsCheckoutParameters.hasKey("note")) {
-            checkoutParamsBuilder.note(jsCheckoutParameters.getString("note"));
+    private boolean disposePreparedCheckout(String handle) {
+        CheckoutRequest checkoutRequest = takePreparedCheckout(handle);
+        if (checkoutRequest == null) {
+            return false;
         }
-        if (jsCheckoutParameters.hasKey("skipReceipt")) {
-            checkoutParamsBuilder.skipReceipt(jsCheckoutParameters.getBoolean("skipReceipt"));
+        checkoutRequest.callbackRef.clear();
+        return true;
+    }
+
+    /**
+     * Adds a prepared checkout and schedules its expiry at its original expiry time, so that a
+     * handle put back after a failed start still expires.
+     */
+    private void putPreparedCheckout(String handle, CheckoutRequest checkoutRequest) {
+        synchronized (preparedCheckouts) {
+            preparedCheckouts.put(handle, checkoutRequest);
+            mainLooperHandler.postAtTime(checkoutRequest.expiry, checkoutRequest.expiresAtUptimeMs);
         }
-        if (jsCheckoutParameters.hasKey("collectSignature")) {
-            checkoutParamsBuilder.collectSignature(jsCheckoutParameters.getBoolean("collectSignature"));
+    }
+
+    /**
+     * Removes a prepared checkout and cancels its expiry together, so that the expiry cannot run
+     * between the two and the checkout is taken by one caller only.
+     *
+     * @return the prepared checkout, or null if it was already taken
+     */
+    private CheckoutRequest takePreparedCheckout(String handle) {
+        synchronized (preparedCheckouts) {
+            CheckoutRequest checkoutRequest = preparedCheckouts.remove(handle);
+            if (checkoutRequest != null) {
+                mainLooperHandler.removeCallbacks(checkoutRequest.expiry);
+            }
+            return checkoutRequest;
         }
-        if (jsCheckoutParameters.hasKey("allowSplitTender")) {
-            checkoutParamsBuilder.allowSplitTender(jsCheckoutParameters.getBoolean("allowSplitTender"));
+    }
+
+    @ReactMethod
+    public void setEpochMillisTimestampsEnabled(boolean enabled, Promise promise) {
+        promise = methodMetrics.meter("setEpochMillisTimestampsEnabled", promise);
+        epochMillisTimestampsEnabled = enabled;
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void setCompactCheckoutResultsEnabled(boolean enabled, Promise promise) {
+        promise = methodMetrics.meter("setCompactCheckoutResultsEnabled", promise);
+        compactCheckoutResultsEnabled = enabled;
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void setCheckoutQueueEnabled(boolean enabled, int maxDepth, Promise promise) {
+        promise = methodMetrics.meter("setCheckoutQueueEnabled", promise);
+        if (maxDepth < 1) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, RN_MESSAGE_CHECKOUT_QUEUE_INVALID_MAX_DEPTH);
+            return;
+        }
+        synchronized (checkoutQueue) {
+            // Checkouts already queued still run when the queue is disabled
+            checkoutQueueEnabled = enabled;
+            checkoutQueueMaxDepth = maxDepth;
+        }
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void getCheckoutQueue(Promise promise) {
+        promise = methodMetrics.meter("getCheckoutQueue", promise);
+        long now = SystemClock.elapsedRealtime();
+        WritableArray jsQueue = new WritableNativeArray();
+        synchronized (checkoutQueue) {
+            int position = 1;
+            for (QueuedCheckout queuedCheckout : checkoutQueue) {
+                WritableMap jsQueuedCheckout = new WritableNativeMap();
+                jsQueuedCheckout.putString("queueId", queuedCheckout.queueId);
+                jsQueuedCheckout.putInt("position", position++);
+                jsQueuedCheckout.putDouble("waitMs", now - queuedCheckout.queuedAt);
+                jsQueue.pushMap(jsQueuedCheckout);
+            }
+        }
+        promise.resolve(jsQueue);
+    }
+
+    @ReactMethod
+    public void cancelCheckout(Promise promise) {
+        final Promise meteredPromise = methodMetrics.meter("cancelCheckout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "cancelCheckout", null);
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "cancelCheckout", null);
+        mainLooperHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "cancelCheckout", null);
+                CheckoutRequest checkoutRequest = activeCheckoutRequest;
+                Promise checkoutPromise = checkoutRequest != null ? checkoutRequest.abandon() : null;
+                if (checkoutPromise != null) {
+                    // Recorded as a reject of the canceled checkout call, with the canceled debug code
+                    ErrorHandlerUtils.rejectWithNativeModuleError(checkoutPromise, ReaderSdkConstants.OPERATION_CANCELED, RN_CHECKOUT_CANCELED, RN_MESSAGE_CHECKOUT_CANCELED, checkoutRequest.requestId);
+                }
+                flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "cancelCheckout");
+                meteredPromise.resolve(checkoutPromise != null);
+            }
+        });
+    }
+
+    @ReactMethod
+    public void setTransactionJournalEnabled(boolean enabled, double maxAgeDays, double maxBytes, Promise promise) {
+        promise = methodMetrics.meter("setTransactionJournalEnabled", promise);
+        if (!(maxAgeDays > 0) || !(maxBytes >= 1)) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, RN_MESSAGE_CHECKOUT_JOURNAL_INVALID_RETENTION);
+            return;
+        }
+        transactionJournal.setEnabled(enabled, (long) (maxAgeDays * 24 * 60 * 60 * 1000), (long) maxBytes);
+        promise.resolve(null);
+    }
+
+    @ReactMethod
+    public void findJournalTransaction(String transactionClientId, String transactionId, Promise promise) {
+        promise = methodMetrics.meter("findJournalTransaction", promise);
+        try {
+            String compactResultJson = transactionJournal.find(transactionClientId, transactionId);
+            // Results are stored in the compact format, and are expanded by JS like compact checkout results
+            promise.resolve(compactResultJson != null ? compactCheckoutResultConverter.toJSArray(compactResultJson) : null);
+        } catch (IOException | JSONException ex) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_JOURNAL_ERROR, String.format(RN_MESSAGE_CHECKOUT_JOURNAL_ERROR, ex.getMessage()));
         }
-        if (jsCheckoutParameters.hasKey("delayCapture")) {
-            checkoutParamsBuilder.delayCapture(jsCheckoutParameters.getBoolean("delayCapture"));
+    }
+
+    @ReactMethod
+    public void queryJournalTransactions(ReadableMap query, Promise promise) {
+        promise = methodMetrics.meter("queryJournalTransactions", promise);
+        long fromMillis = query.hasKey("fromMillis") ? (long) query.getDouble("fromMillis") : Long.MIN_VALUE;
+        long toMillis = query.hasKey("toMillis") ? (long) query.getDouble("toMillis") : Long.MAX_VALUE;
+        String cardBrand = query.hasKey("cardBrand") ? query.getString("cardBrand") : null;
+        String lastFourDigits = query.hasKey("lastFourDigits") ? query.getString("lastFourDigits") : null;
+        String cursor = query.hasKey("cursor") ? query.getString("cursor") : null;
+        int limit = query.hasKey("limit") ? query.getInt("limit") : 0;
+        if (limit < 1) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, RN_MESSAGE_CHECKOUT_JOURNAL_INVALID_QUERY);
+            return;
         }
-        if (jsCheckoutParameters.hasKey("tipSettings")) {
-            TipSettings tipSettings = buildTipSettings(jsCheckoutParameters.getMap("tipSettings"));
-            checkoutParamsBuilder.tipSettings(tipSettings);
+        try {
+            TransactionJournal.Page page = transactionJournal.query(fromMillis, toMillis, cardBrand, lastFourDigits, cursor, limit);
+            WritableArray jsResults = new WritableNativeArray();
+            for (String compactResultJson : page.results) {
+                jsResults.pushArray(compactCheckoutResultConverter.toJSArray(compactResultJson));
+            }
+            WritableMap jsPage = new WritableNativeMap();
+            // Results are stored in the compact format, and are expanded by JS like compact checkout results
+            jsPage.putArray("results", jsResults);
+            jsPage.putString("nextCursor", page.nextCursor);
+            promise.resolve(jsPage);
+        } catch (IllegalArgumentException ex) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_INVALID_PARAMETER, RN_MESSAGE_CHECKOUT_JOURNAL_INVALID_QUERY);
+        } catch (IOException | JSONException ex) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_JOURNAL_ERROR, String.format(RN_MESSAGE_CHECKOUT_JOURNAL_ERROR, ex.getMessage()));
         }
-        if (jsCheckoutParameters.hasKey("additionalPaymentTypes")) {
-            Set<AdditionalPaymentType> additionalPaymentTypes = buildAdditionalPaymentTypes(jsCheckoutParameters.getArray("additionalPaymentTypes"));
-            checkoutParamsBuilder.additionalPaymentTypes(additionalPaymentTypes);
+    }
+
+    @ReactMethod
+    public void getCheckoutTotals(double fromMillis, double toMillis, Promise promise) {
+        promise = methodMetrics.meter("getCheckoutTotals", promise);
+        promise.resolve(checkoutTotals.getTotals((long) fromMillis, (long) toMillis));
+    }
+
+    @ReactMethod
+    public void drainCheckoutResultMailbox(Promise promise) {
+        promise = methodMetrics.meter("drainCheckoutResultMailbox", promise);
+        try {
+            promise.resolve(checkoutResultMailbox.drain());
+        } catch (IOException ex) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_MAILBOX_ERROR, String.format(RN_MESSAGE_CHECKOUT_MAILBOX_ERROR, ex.getMessage()));
         }
+    }
+
+    @ReactMethod
+    public void peekCheckoutResultMailbox(Promise promise) {
+        promise = methodMetrics.meter("peekCheckoutResultMailbox", promise);
+        promise.resolve(checkoutResultMailbox.peek());
+    }
 
-        final CheckoutParameters checkoutParams = checkoutParamsBuilder.build();
+    @ReactMethod
+    public void acknowledgeCheckoutResultMailbox(ReadableArray jsIds, Promise promise) {
+        promise = methodMetrics.meter("acknowledgeCheckoutResultMailbox", promise);
+        List<String> ids = new ArrayList<>(jsIds.size());
+        for (int i = 0; i < jsIds.size(); i++) {
+            ids.add(jsIds.getString(i));
+        }
+        try {
+            checkoutResultMailbox.acknowledge(ids);
+            promise.resolve(null);
+        } catch (IOException ex) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_MAILBOX_ERROR, String.format(RN_MESSAGE_CHECKOUT_MAILBOX_ERROR, ex.getMessage()));
+        }
+    }
+
+    @ReactMethod
+    public void cancelQueuedCheckout(String queueId, Promise promise) {
+        promise = methodMetrics.meter("cancelQueuedCheckout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "cancelQueuedCheckout", null);
+        QueuedCheckout canceledCheckout = null;
+        synchronized (checkoutQueue) {
+            Iterator<QueuedCheckout> iterator = checkoutQueue.iterator();
+            while (iterator.hasNext()) {
+                QueuedCheckout queuedCheckout = iterator.next();
+                if (queuedCheckout.queueId.equals(queueId)) {
+                    iterator.remove();
+                    canceledCheckout = queuedCheckout;
+                    break;
+                }
+            }
+        }
+        if (canceledCheckout == null) {
+            promise.resolve(false);
+            return;
+        }
+        canceledCheckout.checkoutRequest.callbackRef.clear();
+        ErrorHandlerUtils.rejectWithNativeModuleError(
+                canceledCheckout.promise,
+                ErrorHandlerUtils.getErrorCode(CheckoutErrorCode.CANCELED),
+                RN_CHECKOUT_QUEUED_CHECKOUT_CANCELED,
+                RN_MESSAGE_CHECKOUT_QUEUED_CHECKOUT_CANCELED);
+        promise.resolve(true);
+    }
+
+    private void startCheckoutActivity(CheckoutParameters checkoutParams, ResultFieldMask resultFieldMask, long timeoutMs, String queueId, Promise promise) {
+        CheckoutRequest checkoutRequest = newCheckoutRequest(checkoutParams, resultFieldMask, timeoutMs);
+        if (!startOrQueueCheckout(checkoutRequest, queueId, promise)) {
+            checkoutRequest.callbackRef.clear();
+        }
+    }
+
+    /**
+     * Starts the checkout right away if no checkout is in progress, otherwise queues it when the
+     * checkout queue is enabled and has room. Checkouts are not queued behind other operations.
+     *
+     * @return false if the promise was rejected without starting or queueing the checkout
+     */
+    private boolean startOrQueueCheckout(CheckoutRequest checkoutRequest, String queueId, Promise promise) {
+        boolean isQueueFull;
+        synchronized (checkoutQueue) {
+            OperationCoordinator.Operation conflictingOperation = operationCoordinator.tryStart(OperationCoordinator.Operation.CHECKOUT);
+            if (conflictingOperation == null) {
+                launchCheckout(checkoutRequest, promise);
+                return true;
+            }
+            if (conflictingOperation != OperationCoordinator.Operation.CHECKOUT) {
+                OperationCoordinator.rejectWithConflict(promise, conflictingOperation);
+                return false;
+            }
+            if (checkoutQueueEnabled && checkoutQueue.size() < checkoutQueueMaxDepth) {
+                checkoutQueue.add(new QueuedCheckout(
+                        queueId != null ? queueId : UUID.randomUUID().toString(),
+                        checkoutRequest,
+                        promise,
+                        SystemClock.elapsedRealtime()));
+                return true;
+            }
+            isQueueFull = checkoutQueueEnabled;
+        }
+        if (isQueueFull) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_QUEUE_FULL, RN_MESSAGE_CHECKOUT_QUEUE_FULL);
+        } else {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_CHECKOUT_ALREADY_IN_PROGRESS, RN_MESSAGE_CHECKOUT_ALREADY_IN_PROGRESS);
+        }
+        return false;
+    }
+
+    private CheckoutRequest newCheckoutRequest(CheckoutParameters checkoutParams, ResultFieldMask resultFieldMask, long timeoutMs) {
+        CheckoutRequest checkoutRequest = new CheckoutRequest(checkoutParams, resultFieldMask, timeoutMs);
+        checkoutRequest.callbackRef = ReaderSdk.checkoutManager().addCheckoutActivityCallback(checkoutRequest);
+        return checkoutRequest;
+    }
+
+    private void launchCheckout(final CheckoutRequest checkoutRequest, Promise promise) {
+        checkoutRequest.promise = promise;
+        activeCheckoutRequest = checkoutRequest;
+        lastCheckoutParams = checkoutRequest.checkoutParams;
+        lastResultFieldMask = checkoutRequest.resultFieldMask;
+        lastTimeoutMs = checkoutRequest.timeoutMs;
+        if (checkoutRequest.timeoutMs > 0) {
+            // The deadline starts when the checkout starts, not when it is prepared or queued
+            mainLooperHandler.postDelayed(checkoutRequest.deadline, checkoutRequest.timeoutMs);
+        }
         final Activity currentActivity = getCurrentActivity();
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "launchCheckout", null);
         mainLooperHandler.post(new Runnable() {
             @Override
             public void run() {
-                ReaderSdk.checkoutManager().startCheckoutActivity(currentActivity, checkoutParams);
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "launchCheckout", null);
+                flightRecorder.record(FlightRecorder.Event.ACTIVITY_LAUNCH, "CheckoutActivity", null);
+                ReaderSdk.checkoutManager().startCheckoutActivity(currentActivity, checkoutRequest.checkoutParams);
             }
         });
     }
 
+    private void startNextQueuedCheckout() {
+        synchronized (checkoutQueue) {
+            activeCheckoutRequest = null;
+            // Start the next queued checkout right away, without a round trip to JS
+            QueuedCheckout nextCheckout = checkoutQueue.poll();
+            if (nextCheckout != null) {
+                launchCheckout(nextCheckout.checkoutRequest, nextCheckout.promise);
+            } else {
+                operationCoordinator.finish(OperationCoordinator.Operation.CHECKOUT);
+            }
+        }
+    }
+
     @Override
     public void onCatalystInstanceDestroy() {
         super.onCatalystInstanceDestroy();
-        // clear the callback to avoid memory leaks when react native module is destroyed
-        if (checkoutCallbackRef != null) {
-            checkoutCallbackRef.clear();
+        isDestroyed = true;
+        // clear the callbacks to avoid memory leaks when react native module is destroyed. The result
+        // of the checkout on screen is stored in the mailbox for the next instance.
+        mainLooperHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                CheckoutRequest checkoutRequest = activeCheckoutRequest;
+                if (checkoutRequest != null) {
+                    checkoutRequest.orphan();
+                }
+            }
+        });
+        for (String handle : preparedCheckouts.keySet()) {
+            disposePreparedCheckout(handle);
+        }
+        synchronized (checkoutQueue) {
+            for (QueuedCheckout queuedCheckout : checkoutQueue) {
+                queuedCheckout.checkoutRequest.callbackRef.clear();
+            }
+            checkoutQueue.clear();
         }
     }
 
-    static private boolean validateJSCheckoutParams(ReadableMap jsCheckoutParams, StringBuilder paramError) {
-        // check types of all parameters
-        if (!jsCheckoutParams.hasKey("amountMoney") || jsCheckoutParams.getType("amountMoney") != ReadableType.Map) {
-            paramError.append("'amountMoney' is missing or not an object");
-            return false;
-        } else if (jsCheckoutParams.hasKey("skipReceipt") && jsCheckoutParams.getType("skipReceipt") != ReadableType.Boolean) {
-            paramError.append("'skipReceipt' is not a boolean");
-            return false;
-        } else if (jsCheckoutParams.hasKey("collectSignature") && jsCheckoutParams.getType("collectSignature") != ReadableType.Boolean) {
-            paramError.append("'collectSignature' is not a boolean");
-            return false;
-        } else if (jsCheckoutParams.hasKey("allowSplitTender") && jsCheckoutParams.getType("allowSplitTender") != ReadableType.Boolean) {
-            paramError.append("'allowSplitTender' is not a boolean");
-            return false;
-        } else if (jsCheckoutParams.hasKey("delayCapture") && jsCheckoutParams.getType("delayCapture") != ReadableType.Boolean) {
-            paramError.append("'delayCapture' is not a boolean");
-            return false;
-        } else if (jsCheckoutParams.hasKey("note") && jsCheckoutParams.getType("note") != ReadableType.String) {
-            paramError.append("'note' is not a string");
-            return false;
-        } else if (jsCheckoutParams.hasKey("tipSettings") && jsCheckoutParams.getType("tipSettings") != ReadableType.Map) {
-            paramError.append("'tipSettings' is not an object");
-            return false;
-        } else if (jsCheckoutParams.hasKey("additionalPaymentTypes") && jsCheckoutParams.getType("additionalPaymentTypes") != ReadableType.Array) {
-            paramError.append("'additionalPaymentTypes' is not an array");
-            return false;
+    static private ResultFieldMask decodeResultFieldMask(Map<String, Object> checkoutParamsMap, List<String> paramErrors) {
+        Object resultFields = checkoutParamsMap.get("resultFields");
+        if (resultFields == null) {
+            return ResultFieldMask.FULL;
+        }
+        return ResultFieldMask.decode(resultFields, paramErrors);
+    }
+
+    static private long decodeTimeoutMs(Map<String, Object> checkoutParamsMap, List<String> paramErrors) {
+        Object timeoutMs = checkoutParamsMap.get("timeoutMs");
+        if (timeoutMs == null) {
+            return 0;
+        }
+        if (!(timeoutMs instanceof Number) || !(((Number) timeoutMs).doubleValue() >= 1)) {
+            paramErrors.add("'timeoutMs' is not a positive number");
+            return 0;
         }
+        return ((Number) timeoutMs).longValue();
+    }
 
-        // check amountMoney
-        ReadableMap amountMoney = jsCheckoutParams.getMap("amountMoney");
-        if (!amountMoney.hasKey("amount") || amountMoney.getType("amount") != ReadableType.Number) {
-            paramError.append("'amount' is not an integer");
-            return false;
+    static private String buildParamErrorDebugMessage(List<String> paramErrors) {
+        StringBuilder paramErrorDebugMessage = new StringBuilder(RN_MESSAGE_CHECKOUT_INVALID_PARAMETER);
+        for (int i = 0; i < paramErrors.size(); i++) {
+            paramErrorDebugMessage.append(i == 0 ? " " : "; ").append(paramErrors.get(i));
         }
-        if (amountMoney.hasKey("currencyCode") && amountMoney.getType("currencyCode") != ReadableType.String) {
-            paramError.append("'currencyCode' is not a String");
-            return false;
+        return paramErrorDebugMessage.toString();
+    }
+
+    private final class CheckoutRequest implements CheckoutActivityCallback {
+        final CheckoutParameters checkoutParams;
+        final ResultFieldMask resultFieldMask;
+        final long timeoutMs;
+        final Runnable deadline;
+        // Identifies the checkout in its timeout or cancel rejection and in the checkout result
+        // mailbox entry of its late result
+        final String requestId;
+        CallbackReference callbackRef;
+        Runnable expiry;
+        long expiresAtUptimeMs;
+        // Stays null while the checkout is only prepared or queued, so results of other checkouts are
+        // ignored, and is cleared when the checkout is released
+        volatile Promise promise;
+
+        CheckoutRequest(CheckoutParameters checkoutParams, ResultFieldMask resultFieldMask, final long timeoutMs) {
+            this.checkoutParams = checkoutParams;
+            this.resultFieldMask = resultFieldMask;
+            this.timeoutMs = timeoutMs;
+            requestId = UUID.randomUUID().toString();
+            deadline = new Runnable() {
+                @Override
+                public void run() {
+                    Promise promise = abandon();
+                    if (promise != null) {
+                        ErrorHandlerUtils.rejectWithNativeModuleError(promise, ReaderSdkConstants.OPERATION_TIMED_OUT, RN_CHECKOUT_TIMED_OUT, String.format(RN_MESSAGE_CHECKOUT_TIMED_OUT, timeoutMs), requestId);
+                    }
+                }
+            };
         }
-        if (amountMoney.hasKey("currencyCode")) {
-            try {
-                CurrencyCode.valueOf(amountMoney.getString("currencyCode"));
-            } catch (IllegalArgumentException ex) {
-                paramError.append("failed to parse 'currencyCode'");
-                return false;
+
+        /**
+         * Releases the callback registration and deadline of this started checkout once its result
+         * arrives, and starts the next queued checkout. Must be called on the main thread, so that
+         * the result, the deadline and a cancellation settle the promise only once.
+         *
+         * @return the promise of the checkout, or null if it is only prepared or already settled
+         */
+        Promise release() {
+            Promise promise = this.promise;
+            if (promise == null) {
+                return null;
             }
+            this.promise = null;
+            mainLooperHandler.removeCallbacks(deadline);
+            complete();
+            return promise;
         }
 
-        if (jsCheckoutParams.hasKey("tipSettings")) {
-            // check tipSettings
-            ReadableMap tipSettings = jsCheckoutParams.getMap("tipSettings");
-            if (tipSettings.hasKey("showCustomTipField") && tipSettings.getType("showCustomTipField") != ReadableType.Boolean) {
-                paramError.append("'showCustomTipField' is not a boolean");
-                return false;
-            } else if (tipSettings.hasKey("showSeparateTipScreen") && tipSettings.getType("showSeparateTipScreen") != ReadableType.Boolean) {
-                paramError.append("'showSeparateTipScreen' is not a boolean");
-                return false;
-            } else if (tipSettings.hasKey("tipPercentages") && tipSettings.getType("tipPercentages") != ReadableType.Array) {
-                paramError.append("'tipPercentages' is not an array");
-                return false;
+        /**
+         * Abandons this started checkout before its activity returns, so that its promise can be
+         * settled right away. The callback registration and the checkout in progress are released
+         * like a result would, so that the next checkout starts even if the activity never
+         * returns, and a late result is stored in the checkout result mailbox under requestId
+         * instead. Must be called on the main thread.
+         *
+         * @return the promise of the checkout, or null if it is only prepared or already settled
+         */
+        Promise abandon() {
+            Promise promise = this.promise;
+            if (promise == null) {
+                return null;
             }
+            this.promise = null;
+            mainLooperHandler.removeCallbacks(deadline);
+            awaitLateCheckoutResult(requestId);
+            complete();
+            return promise;
         }
 
-        return true;
-    }
+        /**
+         * Abandons this started checkout because its React instance was destroyed, so that its
+         * result is stored in the checkout result mailbox instead of being lost. Must be called on
+         * the main thread.
+         */
+        void orphan() {
+            Promise promise = abandon();
+            if (promise != null) {
+                // The promise belongs to the destroyed React instance and is never settled
+                methodMetrics.abandon(promise);
+            }
+        }
 
-    static private TipSettings buildTipSettings(ReadableMap tipSettingsConfig) {
-        TipSettings.Builder tipSettingsBuilder = TipSettings.newBuilder();
+        private void complete() {
+            callbackRef.clear();
+            // Every registered callback receives this result, so the next queued checkout is only
+            // started once they have all seen it
+            mainLooperHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    startNextQueuedCheckout();
+                }
+            });
+        }
 
-        if (tipSettingsConfig.hasKey("showCustomTipField")) {
-            tipSettingsBuilder.showCustomTipField(tipSettingsConfig.getBoolean("showCustomTipField"));
+        @Override
+        public void onResult(final Result<CheckoutResult, ResultError<CheckoutErrorCode>> result) {
+            long callbackStartNanos = SystemClock.elapsedRealtimeNanos();
+            final Promise promise = release();
+            if (promise == null) {
+                return;
+            }
+            if (isDestroyed) {
+                // The result arrived before onCatalystInstanceDestroy orphaned this checkout
+                methodMetrics.abandon(promise);
+                storeLateCheckoutResult(requestId, result, callbackStartNanos);
+                return;
+            }
+            final boolean includeEpochMillis = epochMillisTimestampsEnabled;
+            final boolean isCompact = compactCheckoutResultsEnabled;
+            resultDispatcher.dispatch("CheckoutActivityCallback", callbackStartNanos, new Runnable() {
+                @Override
+                public void run() {
+                    if (result.isError()) {
+                        ResultError<CheckoutErrorCode> error = result.getError();
+                        ErrorHandlerUtils.rejectWithResultError(promise, error);
+                        return;
+                    }
+                    CheckoutResult checkoutResult = result.getSuccessValue();
+                    recordCheckoutResult(checkoutResult);
+                    flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "CheckoutActivityCallback");
+                    if (isCompact) {
+                        promise.resolve(compactCheckoutResultConverter.toJSArray(checkoutResult, includeEpochMillis, resultFieldMask));
+                    } else {
+                        promise.resolve(checkoutResultConverter.toJSObject(checkoutResult, includeEpochMillis, resultFieldMask));
+                    }
+                }
+            });
         }
-        if (tipSettingsConfig.hasKey("showSeparateTipScreen")) {
-            tipSettingsBuilder.showSeparateTipScreen(tipSettingsConfig.getBoolean("showSeparateTipScreen"));
+    }
+
+    /**
+     * Registers the callback that stores the late result of the checkout identified by requestId,
+     * which was abandoned while its activity was on screen, replacing the callback of a checkout
+     * abandoned earlier, whose activity is then assumed to be gone. Must be called on the main
+     * thread.
+     */
+    private void awaitLateCheckoutResult(String requestId) {
+        if (lateCheckoutResultCallback != null) {
+            lateCheckoutResultCallback.callbackRef.clear();
         }
-        if (tipSettingsConfig.hasKey("tipPercentages")) {
-            ReadableArray tipPercentages = tipSettingsConfig.getArray("tipPercentages");
-            if (tipPercentages != null) {
-                List<Integer> percentagesList = new ArrayList<>();
-                for (int i = 0; i < tipPercentages.size(); i++) {
-                    percentagesList.add(tipPercentages.getInt(i));
+        lateCheckoutResultCallback = new LateCheckoutResultCallback(requestId);
+        lateCheckoutResultCallback.callbackRef = ReaderSdk.checkoutManager().addCheckoutActivityCallback(lateCheckoutResultCallback);
+    }
+
+    private void storeLateCheckoutResult(final String requestId, final Result<CheckoutResult, ResultError<CheckoutErrorCode>> result, long callbackStartNanos) {
+        final boolean includeEpochMillis = epochMillisTimestampsEnabled;
+        resultDispatcher.dispatch("CheckoutActivityCallback", callbackStartNanos, new Runnable() {
+            @Override
+            public void run() {
+                if (result.isError()) {
+                    checkoutResultMailbox.putError(result.getError(), requestId);
+                } else {
+                    recordCheckoutResult(result.getSuccessValue());
+                    checkoutResultMailbox.putResult(checkoutResultConverter.toJSObject(result.getSuccessValue(), includeEpochMillis, ResultFieldMask.FULL), requestId);
                 }
-                tipSettingsBuilder.tipPercentages(percentagesList);
             }
+        });
+    }
+
+    private void recordCheckoutResult(CheckoutResult checkoutResult) {
+        checkoutTotals.add(checkoutResult);
+        if (transactionJournal.isEnabled()) {
+            transactionJournal.append(checkoutResult, compactCheckoutResultConverter.toJSArray(checkoutResult, true, ResultFieldMask.FULL));
         }
+    }
 
-        return tipSettingsBuilder.build();
-    }
-
-    static private Set<AdditionalPaymentType> buildAdditionalPaymentTypes(ReadableArray additionalPaymentTypes) {
-        Set<AdditionalPaymentType> types = new LinkedHashSet<>();
-        if (additionalPaymentTypes != null) {
-            for (int i = 0; i < additionalPaymentTypes.size(); i++) {
-                String typeName = additionalPaymentTypes.getString(i);
-                switch (typeName) {
-                    case "cash":
-                        types.add(AdditionalPaymentType.CASH);
-                        break;
-                    case "manual_card_entry":
-                        types.add(AdditionalPaymentType.MANUAL_CARD_ENTRY);
-                        break;
-                    case "other":
-                        types.add(AdditionalPaymentType.OTHER);
-                        break;
-                    default:
-                        throw new RuntimeException("Unexpected payment type: " + typeName);
-                }
+    /**
+     * Receives the result of the activity of an abandoned checkout. Reader SDK does not start a
+     * checkout while another checkout activity is on screen, so a result that arrives while a
+     * checkout is in progress belongs to that checkout, and is left to its own callback.
+     */
+    private final class LateCheckoutResultCallback implements CheckoutActivityCallback {
+        final String requestId;
+        CallbackReference callbackRef;
+
+        LateCheckoutResultCallback(String requestId) {
+            this.requestId = requestId;
+        }
+
+        @Override
+        public void onResult(Result<CheckoutResult, ResultError<CheckoutErrorCode>> result) {
+            long callbackStartNanos = SystemClock.elapsedRealtimeNanos();
+            if (operationCoordinator.isInProgress(OperationCoordinator.Operation.CHECKOUT)) {
+                return;
             }
+            callbackRef.clear();
+            if (lateCheckoutResultCallback == this) {
+                lateCheckoutResultCallback = null;
+            }
+            storeLateCheckoutResult(requestId, result, callbackStartNanos);
+        }
+    }
+
+    /**
+     * A checkout template with the result fields and timeout of the checkouts started with it.
+     */
+    private static final class RegisteredCheckoutTemplate {
+        final CheckoutTemplate checkoutTemplate;
+        final ResultFieldMask resultFieldMask;
+        final long timeoutMs;
+
+        RegisteredCheckoutTemplate(CheckoutTemplate checkoutTemplate, ResultFieldMask resultFieldMask, long timeoutMs) {
+            this.checkoutTemplate = checkoutTemplate;
+            this.resultFieldMask = resultFieldMask;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+
+    private static final class QueuedCheckout {
+        final String queueId;
+        final CheckoutRequest checkoutRequest;
+        final Promise promise;
+        final long queuedAt;
+
+        QueuedCheckout(String queueId, CheckoutRequest checkoutRequest, Promise promise, long queuedAt) {
+            this.queueId = queueId;
+            this.checkoutRequest = checkoutRequest;
+            this.promise = promise;
+            this.queuedAt = queuedAt;
         }
-        return types;
     }
 }
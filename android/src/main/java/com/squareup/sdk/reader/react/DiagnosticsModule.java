@@ -0,0 +1,89 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react;
+
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.bridge.ReactContextBaseJavaModule;
+import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.module.annotations.ReactModule;
+import com.squareup.sdk.reader.react.internal.ErrorHandlerUtils;
+import com.squareup.sdk.reader.react.internal.FlightRecorder;
+import com.squareup.sdk.reader.react.internal.MethodMetrics;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Exports the flight recording and method metrics of all modules, so that an app that never
+ * asks for them does not create this module.
+ */
+@ReactModule(name = DiagnosticsModule.NAME)
+class DiagnosticsModule extends ReactContextBaseJavaModule {
+    static final String NAME = "RNReaderSDKDiagnostics";
+
+    // Android only react native errors and messages
+    private static final String RN_FLIGHT_RECORDING_DUMP_FAILED = "rn_flight_recording_dump_failed";
+    private static final String RN_MESSAGE_FLIGHT_RECORDING_DUMP_FAILED = "Failed to write the flight recording: %s";
+    private static final String RN_METHOD_METRICS_WRITE_FAILED = "rn_method_metrics_write_failed";
+    private static final String RN_MESSAGE_METHOD_METRICS_WRITE_FAILED = "Failed to write the method metrics: %s";
+
+    private static final String FLIGHT_RECORDING_FILE_NAME = "rn_reader_sdk_flight_recording.json";
+    private static final String METHOD_METRICS_FILE_NAME = "rn_reader_sdk_metrics.prom";
+
+    private final FlightRecorder flightRecorder;
+    private final MethodMetrics methodMetrics;
+
+    public DiagnosticsModule(ReactApplicationContext reactContext) {
+        super(reactContext);
+        flightRecorder = FlightRecorder.getInstance();
+        methodMetrics = MethodMetrics.getInstance();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @ReactMethod
+    public void dumpFlightRecording(Promise promise) {
+        promise = methodMetrics.meter("dumpFlightRecording", promise);
+        File file = new File(getReactApplicationContext().getCacheDir(), FLIGHT_RECORDING_FILE_NAME);
+        try {
+            flightRecorder.dump(file);
+            promise.resolve(file.getAbsolutePath());
+        } catch (IOException ex) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_FLIGHT_RECORDING_DUMP_FAILED, String.format(RN_MESSAGE_FLIGHT_RECORDING_DUMP_FAILED, ex.getMessage()));
+        }
+    }
+
+    @ReactMethod
+    public void getMethodMetrics(Promise promise) {
+        promise = methodMetrics.meter("getMethodMetrics", promise);
+        promise.resolve(methodMetrics.toJSObject());
+    }
+
+    @ReactMethod
+    public void writeMethodMetrics(Promise promise) {
+        promise = methodMetrics.meter("writeMethodMetrics", promise);
+        File file = new File(getReactApplicationContext().getCacheDir(), METHOD_METRICS_FILE_NAME);
+        try {
+            methodMetrics.writePrometheusText(file);
+            promise.resolve(file.getAbsolutePath());
+        } catch (IOException ex) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_METHOD_METRICS_WRITE_FAILED, String.format(RN_MESSAGE_METHOD_METRICS_WRITE_FAILED, ex.getMessage()));
+        }
+    }
+}
@@ -15,28 +15,103 @@ limitations under the License.
 */
 package com.squareup.sdk.reader.react;
 
-import java.util.ArrayList;
+import android.os.SystemClock;
+import android.util.Log;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import com.facebook.react.ReactPackage;
+import com.facebook.react.TurboReactPackage;
 import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
+import com.facebook.react.module.model.ReactModuleInfo;
+import com.facebook.react.module.model.ReactModuleInfoProvider;
 import com.facebook.react.uimanager.ViewManager;
+import com.squareup.sdk.reader.react.internal.ErrorHandlerUtils;
+import com.squareup.sdk.reader.react.internal.OperationCoordinator;
+
+/**
+ * Creates each native module, and with it the converters and error tables it uses, the first time
+ * JS uses it instead of during React startup.
+ */
+public class ReaderSdkPackage extends TurboReactPackage {
+    private static final String TAG = "RNReaderSDK";
+
+    /**
+     * Rejects errors with the JSON string message used before error details moved to the
+     * rejection userInfo, for apps that parse the message of native module errors themselves.
+     */
+    public static void setLegacyErrorFormatEnabled(boolean enabled) {
+        ErrorHandlerUtils.setLegacyErrorFormatEnabled(enabled);
+    }
+
+    /**
+     * Sets whether two different Reader SDK operations may be in progress at the same time. By
+     * default checkout, reader settings and store customer card may not overlap with each other,
+     * and neither may authorize and deauthorize. Starting an operation that may not overlap with
+     * one in progress rejects with the rn_operation_conflict debug code.
+     */
+    public static void setOperationsCompatible(OperationCoordinator.Operation operation, OperationCoordinator.Operation otherOperation, boolean compatible) {
+        OperationCoordinator.getInstance().setCompatible(operation, otherOperation, compatible);
+    }
 
-public class ReaderSdkPackage implements ReactPackage {
     @Override
-    public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
-        List<NativeModule> modules = new ArrayList<>();
-        modules.add(new AuthorizationModule(reactContext));
-        modules.add(new CheckoutModule(reactContext));
-        modules.add(new ReaderSettingsModule(reactContext));
-        modules.add(new StoreCustomerCardModule(reactContext));
-        return modules;
+    public NativeModule getModule(String name, ReactApplicationContext reactContext) {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        NativeModule module;
+        switch (name) {
+            case AuthorizationModule.NAME:
+                module = new AuthorizationModule(reactContext);
+                break;
+            case CheckoutModule.NAME:
+                module = new CheckoutModule(reactContext);
+                break;
+            case ReaderSettingsModule.NAME:
+                module = new ReaderSettingsModule(reactContext);
+                break;
+            case StoreCustomerCardModule.NAME:
+                module = new StoreCustomerCardModule(reactContext);
+                break;
+            case DiagnosticsModule.NAME:
+                module = new DiagnosticsModule(reactContext);
+                break;
+            default:
+                return null;
+        }
+        Log.d(TAG, String.format("Created %s in %.3f ms", name, (SystemClock.elapsedRealtimeNanos() - startNanos) / 1e6));
+        return module;
+    }
+
+    @Override
+    public ReactModuleInfoProvider getReactModuleInfoProvider() {
+        return new ReactModuleInfoProvider() {
+            @Override
+            public Map<String, ReactModuleInfo> getReactModuleInfos() {
+                Map<String, ReactModuleInfo> moduleInfos = new HashMap<>();
+                putModuleInfo(moduleInfos, AuthorizationModule.NAME, AuthorizationModule.class, true);
+                putModuleInfo(moduleInfos, CheckoutModule.NAME, CheckoutModule.class, true);
+                putModuleInfo(moduleInfos, ReaderSettingsModule.NAME, ReaderSettingsModule.class, true);
+                putModuleInfo(moduleInfos, StoreCustomerCardModule.NAME, StoreCustomerCardModule.class, true);
+                putModuleInfo(moduleInfos, DiagnosticsModule.NAME, DiagnosticsModule.class, false);
+                return moduleInfos;
+            }
+        };
     }
 
     @Override
     public List<ViewManager> createViewManagers(ReactApplicationContext reactContext) {
         return Collections.emptyList();
     }
+
+    private static void putModuleInfo(Map<String, ReactModuleInfo> moduleInfos, String name, Class<? extends NativeModule> moduleClass, boolean hasConstants) {
+        moduleInfos.put(name, new ReactModuleInfo(
+                name,
+                moduleClass.getName(),
+                false, // canOverrideExistingModule
+                false, // needsEagerInit
+                hasConstants,
+                false, // isCxxModule
+                false)); // isTurboModule
+    }
 }
@@ -18,11 +18,13 @@ package com.squareup.sdk.reader.react;
 import android.app.Activity;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.module.annotations.ReactModule;
 import com.squareup.sdk.reader.ReaderSdk;
 import com.squareup.sdk.reader.core.CallbackReference;
 import com.squareup.sdk.reader.core.Result;
@@ -30,71 +32,226 @@ import com.squareup.sdk.reader.core.ResultError;
 import com.squareup.sdk.reader.hardware.ReaderSettingsActivityCallback;
 import com.squareup.sdk.reader.hardware.ReaderSettingsErrorCode;
 import com.squareup.sdk.reader.react.internal.ErrorHandlerUtils;
-import com.squareup.sdk.reader.react.internal.ReaderSdkException;
+import com.squareup.sdk.reader.react.internal.FlightRecorder;
+import com.squareup.sdk.reader.react.internal.MethodMetrics;
+import com.squareup.sdk.reader.react.internal.OperationCoordinator;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
+import java.util.HashMap;
+import java.util.Map;
 
+@ReactModule(name = ReaderSettingsModule.NAME)
 class ReaderSettingsModule extends ReactContextBaseJavaModule {
+    static final String NAME = "RNReaderSDKReaderSettings";
+
     // Define all the reader settings debug codes and messages below
-    // These error codes and messages **MUST** align with iOS error codes and javascript error codes
-    // Search KEEP_IN_SYNC_READER_SETTINGS_ERROR to update all places
+    // Expected error codes are generated in ReaderSdkConstants and published through getConstants
 
     // react native module debug error codes
     private static final String RN_READER_SETTINGS_ALREADY_IN_PROGRESS = "rn_reader_settings_already_in_progress";
+    private static final String RN_READER_SETTINGS_INVALID_PARAMETER = "rn_reader_settings_invalid_parameter";
+    private static final String RN_READER_SETTINGS_TIMED_OUT = "rn_reader_settings_timed_out";
+    private static final String RN_READER_SETTINGS_CANCELED = "rn_reader_settings_canceled";
 
     // react native module debug messages
     private static final String RN_MESSAGE_READER_SETTINGS_ALREADY_IN_PROGRESS = "A reader settings operation is already in progress. Ensure that the in-progress reader settings is completed before calling startReaderSettingsAsync again.";
+    private static final String RN_MESSAGE_READER_SETTINGS_INVALID_TIMEOUT = "'timeoutMs' must be a positive number of milliseconds.";
+    private static final String RN_MESSAGE_READER_SETTINGS_TIMED_OUT = "The reader settings flow did not complete within %d ms.";
+    private static final String RN_MESSAGE_READER_SETTINGS_CANCELED = "The reader settings flow was canceled by cancelReaderSettingsAsync.";
 
     private volatile CallbackReference readerSettingCallbackRef;
+    // Set when a flow starts, then read and cleared on the main thread like the Reader SDK callbacks
+    private volatile Promise readerSettingsPromise;
+    private volatile Runnable readerSettingsDeadline;
     private final Handler mainLooperHandler;
+    private final OperationCoordinator operationCoordinator;
+    private final FlightRecorder flightRecorder;
+    private final MethodMetrics methodMetrics;
 
     public ReaderSettingsModule(ReactApplicationContext reactContext) {
         super(reactContext);
         mainLooperHandler = new Handler(Looper.getMainLooper());
+        operationCoordinator = OperationCoordinator.getInstance();
+        flightRecorder = FlightRecorder.getInstance();
+        methodMetrics = MethodMetrics.getInstance();
     }
 
     @Override
     public String getName() {
-        return "RNReaderSDKReaderSettings";
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+        constants.put("errorCodes", ErrorHandlerUtils.getErrorCodeConstants(ReaderSdkConstants.READER_SETTINGS_ERRORS, ReaderSdkConstants.OPERATION_ERRORS));
+        return constants;
+    }
+
+    @ReactMethod
+    public void startReaderSettings(Promise promise) {
+        promise = methodMetrics.meter("startReaderSettings", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "startReaderSettings", null);
+        launchReaderSettings(0, promise);
     }
 
     @ReactMethod
-    public void startReaderSettings(final Promise promise) {
-        if (readerSettingCallbackRef != null) {
-            String errorJsonMessage = ErrorHandlerUtils.createNativeModuleError(RN_READER_SETTINGS_ALREADY_IN_PROGRESS, RN_MESSAGE_READER_SETTINGS_ALREADY_IN_PROGRESS);
-            promise.reject(ErrorHandlerUtils.USAGE_ERROR, new ReaderSdkException(errorJsonMessage));
+    public void startReaderSettingsWithTimeout(double timeoutMs, Promise promise) {
+        promise = methodMetrics.meter("startReaderSettingsWithTimeout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "startReaderSettingsWithTimeout", null);
+        if (!(timeoutMs >= 1)) {
+            flightRecorder.record(FlightRecorder.Event.VALIDATION, "startReaderSettingsWithTimeout", RN_READER_SETTINGS_INVALID_PARAMETER);
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_READER_SETTINGS_INVALID_PARAMETER, RN_MESSAGE_READER_SETTINGS_INVALID_TIMEOUT);
+            return;
+        }
+        flightRecorder.record(FlightRecorder.Event.VALIDATION, "startReaderSettingsWithTimeout", FlightRecorder.VALID);
+        launchReaderSettings((long) timeoutMs, promise);
+    }
+
+    @ReactMethod
+    public void cancelReaderSettings(Promise promise) {
+        final Promise meteredPromise = methodMetrics.meter("cancelReaderSettings", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "cancelReaderSettings", null);
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "cancelReaderSettings", null);
+        mainLooperHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "cancelReaderSettings", null);
+                Promise readerSettingsPromise = abandonReaderSettings();
+                if (readerSettingsPromise == null) {
+                    flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "cancelReaderSettings");
+                    meteredPromise.resolve(false);
+                    return;
+                }
+                ErrorHandlerUtils.rejectWithNativeModuleError(readerSettingsPromise, ReaderSdkConstants.OPERATION_CANCELED, RN_READER_SETTINGS_CANCELED, RN_MESSAGE_READER_SETTINGS_CANCELED);
+                flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "cancelReaderSettings");
+                meteredPromise.resolve(true);
+            }
+        });
+    }
+
+    private void launchReaderSettings(final long timeoutMs, Promise promise) {
+        OperationCoordinator.Operation conflictingOperation = operationCoordinator.tryStart(OperationCoordinator.Operation.READER_SETTINGS);
+        if (conflictingOperation == OperationCoordinator.Operation.READER_SETTINGS) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_READER_SETTINGS_ALREADY_IN_PROGRESS, RN_MESSAGE_READER_SETTINGS_ALREADY_IN_PROGRESS);
+            return;
+        } else if (conflictingOperation != null) {
+            OperationCoordinator.rejectWithConflict(promise, conflictingOperation);
             return;
         }
         ReaderSettingsActivityCallback readerSettingsCallback = new ReaderSettingsActivityCallback() {
             @Override
             public void onResult(Result<Void, ResultError<ReaderSettingsErrorCode>> result) {
-                readerSettingCallbackRef.clear();
-                readerSettingCallbackRef = null;
+                long callbackStartNanos = SystemClock.elapsedRealtimeNanos();
+                flightRecorder.record(FlightRecorder.Event.SDK_CALLBACK, "ReaderSettingsActivityCallback", null, callbackStartNanos);
+                Promise promise = detachReaderSettings();
+                // Reader SDK does not start a flow while another one is on screen, so this result is
+                // the result of this flow
+                finishReaderSettings();
+                if (promise == null) {
+                    return;
+                }
                 if (result.isError()) {
                     ResultError<ReaderSettingsErrorCode> error = result.getError();
-                    String errorJsonMessage = ErrorHandlerUtils.serializeErrorToJson(error.getDebugCode(), error.getMessage(), error.getDebugMessage());
-                    promise.reject(ErrorHandlerUtils.getErrorCode(error.getCode()), new ReaderSdkException(errorJsonMessage));
-                    return;
+                    ErrorHandlerUtils.rejectWithResultError(promise, error);
+                } else {
+                    flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "ReaderSettingsActivityCallback");
+                    promise.resolve(null);
                 }
-                promise.resolve(null);
+                // Settled on the main thread, without a result to convert on the result dispatcher
+                methodMetrics.recordCallbackLatency("ReaderSettingsActivityCallback", callbackStartNanos);
+                methodMetrics.recordMainThreadTime("ReaderSettingsActivityCallback", callbackStartNanos);
             }
         };
+        // Register the callback before publishing the promise that detachReaderSettings reads
         readerSettingCallbackRef = ReaderSdk.readerManager()
                 .addReaderSettingsActivityCallback(readerSettingsCallback);
+        readerSettingsPromise = promise;
+        if (timeoutMs > 0) {
+            readerSettingsDeadline = new Runnable() {
+                @Override
+                public void run() {
+                    Promise promise = abandonReaderSettings();
+                    if (promise != null) {
+                        ErrorHandlerUtils.rejectWithNativeModuleError(promise, ReaderSdkConstants.OPERATION_TIMED_OUT, RN_READER_SETTINGS_TIMED_OUT, String.format(RN_MESSAGE_READER_SETTINGS_TIMED_OUT, timeoutMs));
+                    }
+                }
+            };
+            mainLooperHandler.postDelayed(readerSettingsDeadline, timeoutMs);
+        }
 
         final Activity currentActivity = getCurrentActivity();
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "launchReaderSettings", null);
         mainLooperHandler.post(new Runnable() {
             @Override
             public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "launchReaderSettings", null);
+                flightRecorder.record(FlightRecorder.Event.ACTIVITY_LAUNCH, "ReaderSettingsActivity", null);
                 ReaderSdk.readerManager().startReaderSettingsActivity(currentActivity);
             }
         });
     }
 
+    /**
+     * Detaches the promise of the reader settings flow in progress and cancels its deadline. Must
+     * be called on the main thread, so that the result, the deadline and a cancellation settle
+     * the promise only once.
+     *
+     * @return the promise of the flow, or null if no flow is in progress or it was already settled
+     */
+    private Promise detachReaderSettings() {
+        Promise promise = readerSettingsPromise;
+        if (promise == null) {
+            return null;
+        }
+        readerSettingsPromise = null;
+        if (readerSettingsDeadline != null) {
+            mainLooperHandler.removeCallbacks(readerSettingsDeadline);
+            readerSettingsDeadline = null;
+        }
+        return promise;
+    }
+
+    /**
+     * Abandons the reader settings flow in progress before its activity returns, because it timed
+     * out, was canceled or its React instance was destroyed. The flow is released like a result
+     * would, so that the next flow starts even if the activity never returns, and a late result is
+     * dropped. Must be called on the main thread.
+     *
+     * @return the promise of the flow, or null if no flow is in progress or it was already settled
+     */
+    private Promise abandonReaderSettings() {
+        Promise promise = detachReaderSettings();
+        if (promise != null) {
+            finishReaderSettings();
+        }
+        return promise;
+    }
+
+    /**
+     * Releases the callback registration of the reader settings flow whose activity returned or
+     * that was abandoned. Must be called on the main thread.
+     */
+    private void finishReaderSettings() {
+        if (readerSettingCallbackRef == null) {
+            return;
+        }
+        readerSettingCallbackRef.clear();
+        readerSettingCallbackRef = null;
+        operationCoordinator.finish(OperationCoordinator.Operation.READER_SETTINGS);
+    }
+
     @Override
     public void onCatalystInstanceDestroy() {
         super.onCatalystInstanceDestroy();
-        // clear the callback to avoid memory leaks when react native module is destroyed
-        if (readerSettingCallbackRef != null) {
-            readerSettingCallbackRef.clear();
-        }
+        mainLooperHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Promise promise = abandonReaderSettings();
+                if (promise != null) {
+                    // The promise belongs to the destroyed React instance and is never settled
+                    methodMetrics.abandon(promise);
+                }
+            }
+        });
     }
 }
@@ -18,10 +18,12 @@ package com.squareup.sdk.reader.react;
 import android.app.Activity;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 import com.facebook.react.bridge.Promise;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
+import com.facebook.react.module.annotations.ReactModule;
 import com.squareup.sdk.reader.ReaderSdk;
 import com.squareup.sdk.reader.checkout.Card;
 import com.squareup.sdk.reader.core.CallbackReference;
@@ -30,76 +32,238 @@ import com.squareup.sdk.reader.core.ResultError;
 import com.squareup.sdk.reader.crm.StoreCardActivityCallback;
 import com.squareup.sdk.reader.crm.StoreCustomerCardErrorCode;
 import com.squareup.sdk.reader.react.internal.ErrorHandlerUtils;
-import com.squareup.sdk.reader.react.internal.ReaderSdkException;
+import com.squareup.sdk.reader.react.internal.FlightRecorder;
+import com.squareup.sdk.reader.react.internal.MethodMetrics;
+import com.squareup.sdk.reader.react.internal.OperationCoordinator;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
+import com.squareup.sdk.reader.react.internal.ResultDispatcher;
 import com.squareup.sdk.reader.react.internal.converter.CardConverter;
+import com.squareup.sdk.reader.react.internal.converter.ConverterRegistry;
+import java.util.HashMap;
+import java.util.Map;
 
+@ReactModule(name = StoreCustomerCardModule.NAME)
 class StoreCustomerCardModule extends ReactContextBaseJavaModule {
+    static final String NAME = "RNReaderSDKStoreCustomerCard";
+
     // Define all the store customer card debug codes and messages below
-    // These error codes and messages **MUST** align with iOS error codes and javascript error codes
-    // Search KEEP_IN_SYNC_STORE_CUSTOMER_CARD_ERROR to update all places
+    // Expected error codes are generated in ReaderSdkConstants and published through getConstants
 
     // react native module debug error codes
     private static final String RN_STORE_CUSTOMER_CARD_ALREADY_IN_PROGRESS = "rn_store_customer_card_already_in_progress";
+    private static final String RN_STORE_CUSTOMER_CARD_INVALID_PARAMETER = "rn_store_customer_card_invalid_parameter";
+    private static final String RN_STORE_CUSTOMER_CARD_TIMED_OUT = "rn_store_customer_card_timed_out";
+    private static final String RN_STORE_CUSTOMER_CARD_CANCELED = "rn_store_customer_card_canceled";
 
     // react native module debug messages
     private static final String RN_MESSAGE_STORE_CUSTOMER_CARD_ALREADY_IN_PROGRESS = "A store customer card operation is already in progress. Ensure that the in-progress store customer card is completed before calling startStoreCardAsync again.";
+    private static final String RN_MESSAGE_STORE_CUSTOMER_CARD_INVALID_TIMEOUT = "'timeoutMs' must be a positive number of milliseconds.";
+    private static final String RN_MESSAGE_STORE_CUSTOMER_CARD_TIMED_OUT = "The store customer card flow did not complete within %d ms.";
+    private static final String RN_MESSAGE_STORE_CUSTOMER_CARD_CANCELED = "The store customer card flow was canceled by cancelStoreCardAsync.";
 
     private volatile CallbackReference storeCardCallbackRef;
+    // Set when a flow starts, then read and cleared on the main thread like the Reader SDK callbacks
+    private volatile Promise storeCardPromise;
+    private volatile Runnable storeCardDeadline;
     private final Handler mainLooperHandler;
+    private final OperationCoordinator operationCoordinator;
+    private final FlightRecorder flightRecorder;
+    private final MethodMetrics methodMetrics;
     private final CardConverter cardConverter;
+    private final ResultDispatcher resultDispatcher;
 
     public StoreCustomerCardModule(ReactApplicationContext reactContext) {
         super(reactContext);
         mainLooperHandler = new Handler(Looper.getMainLooper());
-        cardConverter = new CardConverter();
+        operationCoordinator = OperationCoordinator.getInstance();
+        flightRecorder = FlightRecorder.getInstance();
+        methodMetrics = MethodMetrics.getInstance();
+        cardConverter = ConverterRegistry.getInstance().getCardConverter();
+        resultDispatcher = ResultDispatcher.getInstance();
     }
 
     @Override
     public String getName() {
-        return "RNReaderSDKStoreCustomerCard";
+        return NAME;
+    }
+
+    @Override
+    public Map<String, Object> getConstants() {
+        Map<String, Object> constants = new HashMap<>();
+        constants.put("errorCodes", ErrorHandlerUtils.getErrorCodeConstants(ReaderSdkConstants.STORE_CUSTOMER_CARD_ERRORS, ReaderSdkConstants.OPERATION_ERRORS));
+        ConverterRegistry converterRegistry = ConverterRegistry.getInstance();
+        constants.put("cardBrands", converterRegistry.getCardBrandValues());
+        return constants;
     }
 
     @ReactMethod
-    public void startStoreCard(final String customerId, final Promise promise) {
-        if (storeCardCallbackRef != null) {
-            String errorJsonMessage = ErrorHandlerUtils.createNativeModuleError(RN_STORE_CUSTOMER_CARD_ALREADY_IN_PROGRESS, RN_MESSAGE_STORE_CUSTOMER_CARD_ALREADY_IN_PROGRESS);
-            promise.reject(ErrorHandlerUtils.USAGE_ERROR, new ReaderSdkException(errorJsonMessage));
+    public void startStoreCard(String customerId, Promise promise) {
+        promise = methodMetrics.meter("startStoreCard", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "startStoreCard", null);
+        launchStoreCard(customerId, 0, promise);
+    }
+
+    @ReactMethod
+    public void startStoreCardWithTimeout(String customerId, double timeoutMs, Promise promise) {
+        promise = methodMetrics.meter("startStoreCardWithTimeout", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "startStoreCardWithTimeout", null);
+        if (!(timeoutMs >= 1)) {
+            flightRecorder.record(FlightRecorder.Event.VALIDATION, "startStoreCardWithTimeout", RN_STORE_CUSTOMER_CARD_INVALID_PARAMETER);
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_STORE_CUSTOMER_CARD_INVALID_PARAMETER, RN_MESSAGE_STORE_CUSTOMER_CARD_INVALID_TIMEOUT);
+            return;
+        }
+        flightRecorder.record(FlightRecorder.Event.VALIDATION, "startStoreCardWithTimeout", FlightRecorder.VALID);
+        launchStoreCard(customerId, (long) timeoutMs, promise);
+    }
+
+    @ReactMethod
+    public void cancelStoreCard(Promise promise) {
+        final Promise meteredPromise = methodMetrics.meter("cancelStoreCard", promise);
+        flightRecorder.record(FlightRecorder.Event.METHOD_ENTRY, "cancelStoreCard", null);
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "cancelStoreCard", null);
+        mainLooperHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "cancelStoreCard", null);
+                Promise storeCardPromise = abandonStoreCard();
+                if (storeCardPromise == null) {
+                    flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "cancelStoreCard");
+                    meteredPromise.resolve(false);
+                    return;
+                }
+                ErrorHandlerUtils.rejectWithNativeModuleError(storeCardPromise, ReaderSdkConstants.OPERATION_CANCELED, RN_STORE_CUSTOMER_CARD_CANCELED, RN_MESSAGE_STORE_CUSTOMER_CARD_CANCELED);
+                flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "cancelStoreCard");
+                meteredPromise.resolve(true);
+            }
+        });
+    }
+
+    private void launchStoreCard(final String customerId, final long timeoutMs, Promise promise) {
+        OperationCoordinator.Operation conflictingOperation = operationCoordinator.tryStart(OperationCoordinator.Operation.STORE_CUSTOMER_CARD);
+        if (conflictingOperation == OperationCoordinator.Operation.STORE_CUSTOMER_CARD) {
+            ErrorHandlerUtils.rejectWithNativeModuleError(promise, RN_STORE_CUSTOMER_CARD_ALREADY_IN_PROGRESS, RN_MESSAGE_STORE_CUSTOMER_CARD_ALREADY_IN_PROGRESS);
+            return;
+        } else if (conflictingOperation != null) {
+            OperationCoordinator.rejectWithConflict(promise, conflictingOperation);
             return;
         }
 
         StoreCardActivityCallback storeCardActivityCallback = new StoreCardActivityCallback() {
             @Override
-            public void onResult(Result<Card, ResultError<StoreCustomerCardErrorCode>> result) {
-                storeCardCallbackRef.clear();
-                storeCardCallbackRef = null;
-                if (result.isError()) {
-                    ResultError<StoreCustomerCardErrorCode> error = result.getError();
-                    String errorJsonMessage = ErrorHandlerUtils.serializeErrorToJson(error.getDebugCode(), error.getMessage(), error.getDebugMessage());
-                    promise.reject(ErrorHandlerUtils.getErrorCode(error.getCode()), new ReaderSdkException(errorJsonMessage));
+            public void onResult(final Result<Card, ResultError<StoreCustomerCardErrorCode>> result) {
+                long callbackStartNanos = SystemClock.elapsedRealtimeNanos();
+                final Promise promise = detachStoreCard();
+                // Reader SDK does not start a flow while another one is on screen, so this result is
+                // the result of this flow
+                finishStoreCard();
+                if (promise == null) {
                     return;
                 }
+                resultDispatcher.dispatch("StoreCardActivityCallback", callbackStartNanos, new Runnable() {
+                    @Override
+                    public void run() {
+                        if (result.isError()) {
+                            ResultError<StoreCustomerCardErrorCode> error = result.getError();
+                            ErrorHandlerUtils.rejectWithResultError(promise, error);
+                            return;
+                        }
 
-                Card card = result.getSuccessValue();
-                promise.resolve(cardConverter.toJSObject(card));
+                        Card card = result.getSuccessValue();
+                        flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.RESOLVE, "StoreCardActivityCallback");
+                        promise.resolve(cardConverter.toJSObject(card));
+                    }
+                });
             }
         };
 
+        // Register the callback before publishing the promise that detachStoreCard reads
         storeCardCallbackRef = ReaderSdk.customerCardManager().addStoreCardActivityCallback(storeCardActivityCallback);
+        storeCardPromise = promise;
+        if (timeoutMs > 0) {
+            storeCardDeadline = new Runnable() {
+                @Override
+                public void run() {
+                    Promise promise = abandonStoreCard();
+                    if (promise != null) {
+                        ErrorHandlerUtils.rejectWithNativeModuleError(promise, ReaderSdkConstants.OPERATION_TIMED_OUT, RN_STORE_CUSTOMER_CARD_TIMED_OUT, String.format(RN_MESSAGE_STORE_CUSTOMER_CARD_TIMED_OUT, timeoutMs));
+                    }
+                }
+            };
+            mainLooperHandler.postDelayed(storeCardDeadline, timeoutMs);
+        }
         final Activity currentActivity = getCurrentActivity();
+        flightRecorder.record(FlightRecorder.Event.MAIN_POST, "launchStoreCard", null);
         mainLooperHandler.post(new Runnable() {
             @Override
             public void run() {
+                flightRecorder.record(FlightRecorder.Event.MAIN_RUN, "launchStoreCard", null);
+                flightRecorder.record(FlightRecorder.Event.ACTIVITY_LAUNCH, "StoreCardActivity", null);
                 ReaderSdk.customerCardManager().startStoreCardActivity(currentActivity, customerId);
             }
         });
     }
 
+    /**
+     * Detaches the promise of the store customer card flow in progress and cancels its deadline. Must
+     * be called on the main thread, so that the result, the deadline and a cancellation settle
+     * the promise only once.
+     *
+     * @return the promise of the flow, or null if no flow is in progress or it was already settled
+     */
+    private Promise detachStoreCard() {
+        Promise promise = storeCardPromise;
+        if (promise == null) {
+            return null;
+        }
+        storeCardPromise = null;
+        if (storeCardDeadline != null) {
+            mainLooperHandler.removeCallbacks(storeCardDeadline);
+            storeCardDeadline = null;
+        }
+        return promise;
+    }
+
+    /**
+     * Abandons the store customer card flow in progress before its activity returns, because it timed
+     * out, was canceled or its React instance was destroyed. The flow is released like a result
+     * would, so that the next flow starts even if the activity never returns, and a late result is
+     * dropped. Must be called on the main thread.
+     *
+     * @return the promise of the flow, or null if no flow is in progress or it was already settled
+     */
+    private Promise abandonStoreCard() {
+        Promise promise = detachStoreCard();
+        if (promise != null) {
+            finishStoreCard();
+        }
+        return promise;
+    }
+
+    /**
+     * Releases the callback registration of the store customer card flow whose activity returned or
+     * that was abandoned. Must be called on the main thread.
+     */
+    private void finishStoreCard() {
+        if (storeCardCallbackRef == null) {
+            return;
+        }
+        storeCardCallbackRef.clear();
+        storeCardCallbackRef = null;
+        operationCoordinator.finish(OperationCoordinator.Operation.STORE_CUSTOMER_CARD);
+    }
+
     @Override
     public void onCatalystInstanceDestroy() {
         super.onCatalystInstanceDestroy();
-        // clear the callback to avoid memory leaks when react native module is destroyed
-        if (storeCardCallbackRef != null) {
-            storeCardCallbackRef.clear();
-        }
+        mainLooperHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Promise promise = abandonStoreCard();
+                if (promise != null) {
+                    // The promise belongs to the destroyed React instance and is never settled
+                    methodMetrics.abandon(promise);
+                }
+            }
+        });
     }
 }
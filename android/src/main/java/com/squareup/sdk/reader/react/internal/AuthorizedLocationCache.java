@@ -0,0 +1,175 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+import com.squareup.sdk.reader.authorization.Location;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import org.json.JSONException;
+
+/**
+ * Process-wide snapshot of the authorized location, persisted to a small file so that it is
+ * available right after a cold start.
+ *
+ * A snapshot loaded from disk is unverified until {@link #update(Location)} or {@link #clear()} is
+ * called with the current authorization state.
+ */
+public final class AuthorizedLocationCache {
+    private static final String TAG = "RNReaderSDK";
+    private static final String FILE_NAME = "rn_reader_sdk_authorized_location.json";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static volatile AuthorizedLocationCache instance;
+
+    private final AtomicFile file;
+    private final Executor diskExecutor;
+    private final AtomicLong hitCount;
+    private final AtomicLong missCount;
+    private final Object loadLock;
+    private volatile boolean isLoaded;
+    private volatile boolean isVerified;
+    private volatile LocationSnapshot snapshot;
+
+    public static AuthorizedLocationCache getInstance(Context context) {
+        if (instance == null) {
+            synchronized (AuthorizedLocationCache.class) {
+                if (instance == null) {
+                    instance = new AuthorizedLocationCache(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private AuthorizedLocationCache(File file) {
+        this.file = new AtomicFile(file);
+        diskExecutor = Executors.newSingleThreadExecutor();
+        hitCount = new AtomicLong();
+        missCount = new AtomicLong();
+        loadLock = new Object();
+    }
+
+    /**
+     * Loads the snapshot persisted by a previous process on a background thread, so that the first
+     * {@link #get()} does not read the disk on the calling thread.
+     */
+    public void preload() {
+        if (isLoaded) {
+            return;
+        }
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                load();
+            }
+        });
+    }
+
+    /**
+     * @return the cached authorized location, or null if there is none. Loads the snapshot
+     * persisted by a previous process if {@link #preload()} has not loaded it yet.
+     */
+    public LocationSnapshot get() {
+        if (!isLoaded) {
+            load();
+        }
+        LocationSnapshot currentSnapshot = snapshot;
+        if (currentSnapshot != null) {
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+        }
+        return currentSnapshot;
+    }
+
+    public boolean isVerified() {
+        return isVerified;
+    }
+
+    public LocationSnapshot update(Location location) {
+        LocationSnapshot newSnapshot = LocationSnapshot.of(location);
+        synchronized (loadLock) {
+            isLoaded = true;
+            isVerified = true;
+            snapshot = newSnapshot;
+            persist(newSnapshot);
+        }
+        return newSnapshot;
+    }
+
+    public void clear() {
+        synchronized (loadLock) {
+            isLoaded = true;
+            isVerified = true;
+            snapshot = null;
+            persist(null);
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    private void load() {
+        synchronized (loadLock) {
+            if (isLoaded) {
+                return;
+            }
+            try {
+                snapshot = LocationSnapshot.fromJson(new String(file.readFully(), UTF_8));
+            } catch (IOException | JSONException ex) {
+                // Nothing persisted yet, or an unreadable file that the next update overwrites
+                snapshot = null;
+            }
+            isLoaded = true;
+        }
+    }
+
+    private void persist(final LocationSnapshot snapshotToPersist) {
+        diskExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (snapshotToPersist == null) {
+                    file.delete();
+                    return;
+                }
+                FileOutputStream outputStream = null;
+                try {
+                    outputStream = file.startWrite();
+                    outputStream.write(snapshotToPersist.toJson().getBytes(UTF_8));
+                    file.finishWrite(outputStream);
+                } catch (IOException | JSONException ex) {
+                    if (outputStream != null) {
+                        file.failWrite(outputStream);
+                    }
+                    Log.w(TAG, "Failed to persist the authorized location", ex);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,258 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.squareup.sdk.reader.checkout.AdditionalPaymentType;
+import com.squareup.sdk.reader.checkout.CheckoutParameters;
+import com.squareup.sdk.reader.checkout.CurrencyCode;
+import com.squareup.sdk.reader.checkout.Money;
+import com.squareup.sdk.reader.checkout.TipSettings;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decodes the JS checkout parameters into {@link CheckoutParameters} in a single pass.
+ *
+ * The JS map is copied across JNI once with {@link ReadableMap#toHashMap()}, then every field is
+ * validated as it is read. All invalid fields are reported together.
+ */
+public final class CheckoutParametersDecoder {
+    private static final int MAX_TIP_PERCENTAGES = 3;
+    private static final int MAX_TIP_PERCENTAGE = 100;
+
+    private static final Map<String, CurrencyCode> currencyCodeMap;
+    private static final Map<String, AdditionalPaymentType> additionalPaymentTypeMap;
+
+    static {
+        currencyCodeMap = new HashMap<>();
+        for (CurrencyCode currencyCode : CurrencyCode.values()) {
+            currencyCodeMap.put(currencyCode.name(), currencyCode);
+        }
+
+        additionalPaymentTypeMap = new HashMap<>();
+        for (AdditionalPaymentType additionalPaymentType : AdditionalPaymentType.values()) {
+            switch (additionalPaymentType) {
+                case CASH:
+                    additionalPaymentTypeMap.put("cash", additionalPaymentType);
+                    break;
+                case MANUAL_CARD_ENTRY:
+                    additionalPaymentTypeMap.put("manual_card_entry", additionalPaymentType);
+                    break;
+                case OTHER:
+                    additionalPaymentTypeMap.put("other", additionalPaymentType);
+                    break;
+                default:
+                    // Payment types unknown to the plugin are rejected as invalid parameters
+                    break;
+            }
+        }
+    }
+
+    private CheckoutParametersDecoder() {
+    }
+
+    /**
+     * @return the checkout parameters, or null if any parameter is invalid. Every invalid
+     * parameter found is appended to paramErrors.
+     */
+    public static CheckoutParameters decode(ReadableMap jsCheckoutParams, List<String> paramErrors) {
+        return decode(jsCheckoutParams.toHashMap(), paramErrors);
+    }
+
+    public static CheckoutParameters decode(Map<String, Object> checkoutParams, List<String> paramErrors) {
+        int initialErrorCount = paramErrors.size();
+        Money amountMoney = decodeMoney(checkoutParams.get("amountMoney"), checkoutParams.containsKey("amountMoney"), paramErrors);
+        CheckoutTemplate checkoutTemplate = decodeTemplate(checkoutParams, paramErrors);
+        if (paramErrors.size() > initialErrorCount) {
+            return null;
+        }
+        return checkoutTemplate.toCheckoutParameters(amountMoney);
+    }
+
+    /**
+     * @return the amount money, or null if it is invalid, in which case every problem found is
+     * appended to paramErrors.
+     */
+    public static Money decodeAmountMoney(ReadableMap jsAmountMoney, List<String> paramErrors) {
+        return decodeMoney(jsAmountMoney != null ? jsAmountMoney.toHashMap() : null, jsAmountMoney != null, paramErrors);
+    }
+
+    /**
+     * Decodes every checkout parameter except amountMoney, which is ignored if present.
+     *
+     * @return the checkout template, or null if any parameter is invalid, in which case every
+     * problem found is appended to paramErrors.
+     */
+    public static CheckoutTemplate decodeTemplate(ReadableMap jsTemplateParams, List<String> paramErrors) {
+        return decodeTemplate(jsTemplateParams.toHashMap(), paramErrors);
+    }
+
+    public static CheckoutTemplate decodeTemplate(Map<String, Object> checkoutParams, List<String> paramErrors) {
+        int initialErrorCount = paramErrors.size();
+        String note = null;
+        if (checkoutParams.containsKey("note")) {
+            Object value = checkoutParams.get("note");
+            if (value instanceof String) {
+                note = (String) value;
+            } else {
+                paramErrors.add("'note' is not a string");
+            }
+        }
+        Boolean skipReceipt = decodeOptionalBoolean(checkoutParams, "skipReceipt", paramErrors);
+        Boolean collectSignature = decodeOptionalBoolean(checkoutParams, "collectSignature", paramErrors);
+        Boolean allowSplitTender = decodeOptionalBoolean(checkoutParams, "allowSplitTender", paramErrors);
+        Boolean delayCapture = decodeOptionalBoolean(checkoutParams, "delayCapture", paramErrors);
+        TipSettings tipSettings = null;
+        if (checkoutParams.containsKey("tipSettings")) {
+            tipSettings = decodeTipSettings(checkoutParams.get("tipSettings"), paramErrors);
+        }
+        Set<AdditionalPaymentType> additionalPaymentTypes = null;
+        if (checkoutParams.containsKey("additionalPaymentTypes")) {
+            additionalPaymentTypes = decodeAdditionalPaymentTypes(checkoutParams.get("additionalPaymentTypes"), paramErrors);
+        }
+
+        if (paramErrors.size() > initialErrorCount) {
+            return null;
+        }
+        return new CheckoutTemplate(note, skipReceipt, collectSignature, allowSplitTender, delayCapture, tipSettings, additionalPaymentTypes);
+    }
+
+    static private Money decodeMoney(Object value, boolean isPresent, List<String> paramErrors) {
+        if (!isPresent || !(value instanceof Map)) {
+            paramErrors.add("'amountMoney' is missing or not an object");
+            return null;
+        }
+        Map<?, ?> amountMoney = (Map<?, ?>) value;
+        Object amount = amountMoney.get("amount");
+        // JS numbers arrive as doubles, so 1.5 is rejected rather than truncated to 1
+        boolean isIntegralAmount = amount instanceof Number
+                && ((Number) amount).doubleValue() == ((Number) amount).longValue();
+        if (!isIntegralAmount) {
+            paramErrors.add("'amount' is not an integer");
+        }
+        CurrencyCode currencyCode = null;
+        if (amountMoney.containsKey("currencyCode")) {
+            Object jsCurrencyCode = amountMoney.get("currencyCode");
+            if (!(jsCurrencyCode instanceof String)) {
+                paramErrors.add("'currencyCode' is not a String");
+            } else {
+                currencyCode = currencyCodeMap.get(jsCurrencyCode);
+                if (currencyCode == null) {
+                    paramErrors.add("failed to parse 'currencyCode'");
+                }
+            }
+        } else {
+            currencyCode = CurrencyCode.current();
+        }
+        if (!isIntegralAmount || currencyCode == null) {
+            return null;
+        }
+        return new Money(((Number) amount).longValue(), currencyCode);
+    }
+
+    static private Boolean decodeOptionalBoolean(Map<?, ?> map, String key, List<String> paramErrors) {
+        if (!map.containsKey(key)) {
+            return null;
+        }
+        Object value = map.get(key);
+        if (!(value instanceof Boolean)) {
+            paramErrors.add(String.format("'%s' is not a boolean", key));
+            return null;
+        }
+        return (Boolean) value;
+    }
+
+    /**
+     * @return the tip settings, or null if they are invalid, in which case every problem found is
+     * appended to paramErrors.
+     */
+    public static TipSettings decodeTipSettings(Object value, List<String> paramErrors) {
+        if (!(value instanceof Map)) {
+            paramErrors.add("'tipSettings' is not an object");
+            return null;
+        }
+        Map<?, ?> tipSettingsConfig = (Map<?, ?>) value;
+        int initialErrorCount = paramErrors.size();
+        Boolean showCustomTipField = decodeOptionalBoolean(tipSettingsConfig, "showCustomTipField", paramErrors);
+        Boolean showSeparateTipScreen = decodeOptionalBoolean(tipSettingsConfig, "showSeparateTipScreen", paramErrors);
+        List<Integer> percentagesList = null;
+        if (tipSettingsConfig.containsKey("tipPercentages")) {
+            Object tipPercentages = tipSettingsConfig.get("tipPercentages");
+            if (!(tipPercentages instanceof List)) {
+                paramErrors.add("'tipPercentages' is not an array");
+            } else {
+                List<?> jsPercentages = (List<?>) tipPercentages;
+                if (jsPercentages.size() > MAX_TIP_PERCENTAGES) {
+                    paramErrors.add(String.format("'tipPercentages' has more than %d values", MAX_TIP_PERCENTAGES));
+                }
+                percentagesList = new ArrayList<>(jsPercentages.size());
+                for (Object percentage : jsPercentages) {
+                    if (!(percentage instanceof Number)
+                            || ((Number) percentage).doubleValue() != ((Number) percentage).intValue()
+                            || ((Number) percentage).intValue() < 0
+                            || ((Number) percentage).intValue() > MAX_TIP_PERCENTAGE) {
+                        paramErrors.add(String.format("'tipPercentages' value %s is not an integer from 0 to %d", percentage, MAX_TIP_PERCENTAGE));
+                        continue;
+                    }
+                    percentagesList.add(((Number) percentage).intValue());
+                }
+            }
+        }
+
+        if (paramErrors.size() > initialErrorCount) {
+            return null;
+        }
+
+        TipSettings.Builder tipSettingsBuilder = TipSettings.newBuilder();
+        if (showCustomTipField != null) {
+            tipSettingsBuilder.showCustomTipField(showCustomTipField);
+        }
+        if (showSeparateTipScreen != null) {
+            tipSettingsBuilder.showSeparateTipScreen(showSeparateTipScreen);
+        }
+        if (percentagesList != null) {
+            tipSettingsBuilder.tipPercentages(percentagesList);
+        }
+        return tipSettingsBuilder.build();
+    }
+
+    /**
+     * @return the additional payment types, or null if they are invalid, in which case every
+     * problem found is appended to paramErrors.
+     */
+    public static Set<AdditionalPaymentType> decodeAdditionalPaymentTypes(Object value, List<String> paramErrors) {
+        if (!(value instanceof List)) {
+            paramErrors.add("'additionalPaymentTypes' is not an array");
+            return null;
+        }
+        int initialErrorCount = paramErrors.size();
+        Set<AdditionalPaymentType> types = new LinkedHashSet<>();
+        for (Object typeName : (List<?>) value) {
+            AdditionalPaymentType type = typeName instanceof String ? additionalPaymentTypeMap.get(typeName) : null;
+            if (type == null) {
+                paramErrors.add(String.format("'additionalPaymentTypes' has unexpected payment type %s", typeName));
+                continue;
+            }
+            types.add(type);
+        }
+        return paramErrors.size() > initialErrorCount ? null : types;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+import com.facebook.react.bridge.WritableMap;
+import com.squareup.sdk.reader.core.ErrorCode;
+import com.squareup.sdk.reader.core.ResultError;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Process-wide store of checkout results and errors that completed after the React instance that
+ * started the checkout was destroyed, persisted to a small file so that they survive a process
+ * restart until JS drains them.
+ *
+ * Entries are identified by transactionClientId, or by a generated id for errors, which have no
+ * transaction. Results of checkouts that were abandoned by a timeout or cancellation also carry
+ * the requestId that their rejection carried. Every change is written to disk before it takes effect, so an entry is never lost
+ * because a write failed, and an entry that was drained or acknowledged is never returned again,
+ * even if the process dies right after. JS that must not lose an entry if it crashes while
+ * handling it peeks at the entries and acknowledges them once they are handled.
+ */
+public final class CheckoutResultMailbox {
+    private static final String TAG = "RNReaderSDK";
+    private static final String FILE_NAME = "rn_reader_sdk_checkout_result_mailbox.json";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static volatile CheckoutResultMailbox instance;
+
+    private final AtomicFile file;
+    // Entries by id in the order they were received, loaded from the file on first use
+    private Map<String, JSONObject> entries;
+
+    public static CheckoutResultMailbox getInstance(Context context) {
+        if (instance == null) {
+            synchronized (CheckoutResultMailbox.class) {
+                if (instance == null) {
+                    instance = new CheckoutResultMailbox(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private CheckoutResultMailbox(File file) {
+        this.file = new AtomicFile(file);
+    }
+
+    /**
+     * Stores the result of a checkout, as returned to JS by the checkout result converter. A result
+     * with a transactionClientId that is already stored is ignored. Writes to disk, so it must not
+     * be called on the main thread.
+     *
+     * @param requestId the id of the checkout that the result belongs to
+     */
+    public void putResult(WritableMap jsCheckoutResult, String requestId) {
+        String transactionClientId = jsCheckoutResult.getString("transactionClientId");
+        try {
+            JSONObject entry = new JSONObject();
+            entry.put("id", transactionClientId);
+            entry.put("requestId", requestId);
+            entry.put("transactionClientId", transactionClientId);
+            entry.put("result", new JSONObject(jsCheckoutResult.toHashMap()));
+            put(transactionClientId, entry);
+        } catch (JSONException ex) {
+            Log.w(TAG, "Failed to store the checkout result " + transactionClientId, ex);
+        }
+    }
+
+    /**
+     * Stores the error of a checkout. Writes to disk, so it must not be called on the main thread.
+     *
+     * @param requestId the id of the checkout that the error belongs to
+     */
+    public void putError(ResultError<? extends ErrorCode> error, String requestId) {
+        try {
+            JSONObject jsError = new JSONObject();
+            jsError.put("code", ErrorHandlerUtils.getErrorCode(error.getCode()));
+            jsError.put("message", error.getMessage());
+            jsError.put("debugCode", error.getDebugCode());
+            jsError.put("debugMessage", error.getDebugMessage());
+            String id = "error-" + UUID.randomUUID();
+            JSONObject entry = new JSONObject();
+            entry.put("id", id);
+            entry.put("requestId", requestId);
+            entry.put("error", jsError);
+            put(id, entry);
+        } catch (JSONException ex) {
+            Log.w(TAG, "Failed to store the checkout error " + error.getDebugCode(), ex);
+        }
+    }
+
+    /**
+     * Removes every entry once the empty mailbox is written to disk. Must not be called on the main
+     * thread.
+     *
+     * @return the entries as a JSON array, in the order they were received
+     * @throws IOException if the empty mailbox could not be written, in which case the entries are
+     *         kept
+     */
+    public synchronized String drain() throws IOException {
+        load();
+        if (entries.isEmpty()) {
+            return "[]";
+        }
+        persist(Collections.<String, JSONObject>emptyMap());
+        JSONArray drainedEntries = new JSONArray(entries.values());
+        entries.clear();
+        return drainedEntries.toString();
+    }
+
+    /**
+     * Returns every entry without removing it. Must not be called on the main thread.
+     *
+     * @return the entries as a JSON array, in the order they were received
+     */
+    public synchronized String peek() {
+        load();
+        return new JSONArray(entries.values()).toString();
+    }
+
+    /**
+     * Removes the entries with the given ids once the remaining entries are written to disk. Ids
+     * that are not stored are ignored. Must not be called on the main thread.
+     *
+     * @throws IOException if the remaining entries could not be written, in which case every entry
+     *         is kept
+     */
+    public synchronized void acknowledge(Collection<String> ids) throws IOException {
+        load();
+        Map<String, JSONObject> remainingEntries = new LinkedHashMap<>(entries);
+        remainingEntries.keySet().removeAll(ids);
+        if (remainingEntries.size() == entries.size()) {
+            return;
+        }
+        persist(remainingEntries);
+        entries = remainingEntries;
+    }
+
+    private synchronized void put(String id, JSONObject entry) {
+        load();
+        if (entries.containsKey(id)) {
+            return;
+        }
+        entries.put(id, entry);
+        try {
+            persist(entries);
+        } catch (IOException ex) {
+            // Kept in memory, and written with the next change
+            Log.w(TAG, "Failed to persist the checkout result mailbox", ex);
+        }
+    }
+
+    private void load() {
+        if (entries != null) {
+            return;
+        }
+        entries = new LinkedHashMap<>();
+        try {
+            JSONArray persistedEntries = new JSONArray(new String(file.readFully(), UTF_8));
+            for (int i = 0; i < persistedEntries.length(); i++) {
+                JSONObject entry = persistedEntries.getJSONObject(i);
+                entries.put(entry.getString("id"), entry);
+            }
+        } catch (IOException | JSONException ex) {
+            // Nothing persisted yet, or an unreadable file that the next write overwrites
+        }
+    }
+
+    private void persist(Map<String, JSONObject> entries) throws IOException {
+        if (entries.isEmpty()) {
+            file.delete();
+            return;
+        }
+        FileOutputStream outputStream = file.startWrite();
+        try {
+            outputStream.write(new JSONArray(entries.values()).toString().getBytes(UTF_8));
+        } catch (IOException ex) {
+            file.failWrite(outputStream);
+            throw ex;
+        }
+        file.finishWrite(outputStream);
+    }
+}
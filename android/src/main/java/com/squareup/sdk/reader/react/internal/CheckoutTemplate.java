@@ -0,0 +1,87 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import com.squareup.sdk.reader.checkout.AdditionalPaymentType;
+import com.squareup.sdk.reader.checkout.CheckoutParameters;
+import com.squareup.sdk.reader.checkout.Money;
+import com.squareup.sdk.reader.checkout.TipSettings;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Every checkout parameter except the amount, decoded and built once so that repeated sales only
+ * need to supply amountMoney.
+ */
+public final class CheckoutTemplate {
+    private final String note;
+    private final Boolean skipReceipt;
+    private final Boolean collectSignature;
+    private final Boolean allowSplitTender;
+    private final Boolean delayCapture;
+    private final TipSettings tipSettings;
+    private final Set<AdditionalPaymentType> additionalPaymentTypes;
+
+    CheckoutTemplate(
+            String note,
+            Boolean skipReceipt,
+            Boolean collectSignature,
+            Boolean allowSplitTender,
+            Boolean delayCapture,
+            TipSettings tipSettings,
+            Set<AdditionalPaymentType> additionalPaymentTypes) {
+        this.note = note;
+        this.skipReceipt = skipReceipt;
+        this.collectSignature = collectSignature;
+        this.allowSplitTender = allowSplitTender;
+        this.delayCapture = delayCapture;
+        this.tipSettings = tipSettings;
+        if (additionalPaymentTypes != null) {
+            Set<AdditionalPaymentType> types = EnumSet.noneOf(AdditionalPaymentType.class);
+            types.addAll(additionalPaymentTypes);
+            this.additionalPaymentTypes = Collections.unmodifiableSet(types);
+        } else {
+            this.additionalPaymentTypes = null;
+        }
+    }
+
+    public CheckoutParameters toCheckoutParameters(Money amountMoney) {
+        CheckoutParameters.Builder checkoutParamsBuilder = CheckoutParameters.newBuilder(amountMoney);
+        if (note != null) {
+            checkoutParamsBuilder.note(note);
+        }
+        if (skipReceipt != null) {
+            checkoutParamsBuilder.skipReceipt(skipReceipt);
+        }
+        if (collectSignature != null) {
+            checkoutParamsBuilder.collectSignature(collectSignature);
+        }
+        if (allowSplitTender != null) {
+            checkoutParamsBuilder.allowSplitTender(allowSplitTender);
+        }
+        if (delayCapture != null) {
+            checkoutParamsBuilder.delayCapture(delayCapture);
+        }
+        if (tipSettings != null) {
+            checkoutParamsBuilder.tipSettings(tipSettings);
+        }
+        if (additionalPaymentTypes != null) {
+            checkoutParamsBuilder.additionalPaymentTypes(additionalPaymentTypes);
+        }
+        return checkoutParamsBuilder.build();
+    }
+}
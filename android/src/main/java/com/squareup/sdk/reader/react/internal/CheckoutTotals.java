@@ -0,0 +1,328 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import android.content.Context;
+import android.util.AtomicFile;
+import android.util.Log;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+import com.squareup.sdk.reader.checkout.CheckoutResult;
+import com.squareup.sdk.reader.checkout.Money;
+import com.squareup.sdk.reader.checkout.Tender;
+import com.squareup.sdk.reader.checkout.TenderCardDetails;
+import com.squareup.sdk.reader.react.internal.converter.ConverterRegistry;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Process-wide running totals of checkout results, kept in 15 minute buckets by currency and
+ * broken down by tender type, card brand and entry method, so that end of day totals do not need
+ * every result.
+ *
+ * Adding a result updates one bucket. The totals are checkpointed to a small file after each
+ * result, by a disk thread that writes once for all the results added while it was writing.
+ * Buckets older than {@link #RETENTION_MS} are removed.
+ */
+public final class CheckoutTotals {
+    // Time zone offsets are multiples of 15 minutes, so any local day is made of whole buckets
+    public static final long BUCKET_MS = 15 * 60 * 1000;
+    public static final long RETENTION_MS = 35L * 24 * 60 * 60 * 1000;
+
+    private static final String TAG = "RNReaderSDK";
+    private static final String FILE_NAME = "rn_reader_sdk_checkout_totals.json";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static volatile CheckoutTotals instance;
+
+    private final AtomicFile file;
+    private final Executor diskExecutor;
+    private final AtomicBoolean isCheckpointScheduled;
+    // Bucket start time to totals by currency code, loaded from the file on first use
+    private TreeMap<Long, Map<String, Totals>> buckets;
+
+    public static CheckoutTotals getInstance(Context context) {
+        if (instance == null) {
+            synchronized (CheckoutTotals.class) {
+                if (instance == null) {
+                    instance = new CheckoutTotals(new File(context.getApplicationContext().getFilesDir(), FILE_NAME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    private CheckoutTotals(File file) {
+        this.file = new AtomicFile(file);
+        diskExecutor = Executors.newSingleThreadExecutor();
+        isCheckpointScheduled = new AtomicBoolean();
+    }
+
+    public void add(CheckoutResult result) {
+        ConverterRegistry converterRegistry = ConverterRegistry.getInstance();
+        long bucketStart = Math.floorDiv(result.getCreatedAt().getTime(), BUCKET_MS) * BUCKET_MS;
+        Money totalMoney = result.getTotalMoney();
+        synchronized (this) {
+            load();
+            Map<String, Totals> bucket = buckets.get(bucketStart);
+            if (bucket == null) {
+                bucket = new HashMap<>();
+                buckets.put(bucketStart, bucket);
+                buckets.headMap(System.currentTimeMillis() - RETENTION_MS).clear();
+            }
+            String currencyCode = totalMoney.getCurrencyCode().name();
+            Totals totals = bucket.get(currencyCode);
+            if (totals == null) {
+                totals = new Totals();
+                bucket.put(currencyCode, totals);
+            }
+            totals.total.add(1, totalMoney.getAmount(), result.getTotalTipMoney().getAmount());
+            for (Tender tender : result.getTenders()) {
+                long amount = tender.getTotalMoney().getAmount();
+                long tipAmount = tender.getTipMoney().getAmount();
+                Totals.add(totals.tenderTypes, converterRegistry.getTenderTypeValue(tender.getType()), amount, tipAmount);
+                if (tender.getType() == Tender.Type.CARD) {
+                    TenderCardDetails cardDetails = tender.getCardDetails();
+                    Totals.add(totals.cardBrands, converterRegistry.getCardBrandValue(cardDetails.getCard().getBrand()), amount, tipAmount);
+                    Totals.add(totals.entryMethods, converterRegistry.getEntryMethodValue(cardDetails.getEntryMethod()), amount, tipAmount);
+                }
+            }
+        }
+        if (isCheckpointScheduled.compareAndSet(false, true)) {
+            diskExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    isCheckpointScheduled.set(false);
+                    checkpoint();
+                }
+            });
+        }
+    }
+
+    /**
+     * Sums the buckets that start between fromMillis, inclusive, and toMillis, exclusive, so the
+     * range is effectively rounded out to whole buckets.
+     *
+     * @return the totals by currency code
+     */
+    public WritableMap getTotals(long fromMillis, long toMillis) {
+        Map<String, Totals> rangeTotals = new HashMap<>();
+        synchronized (this) {
+            load();
+            long fromBucketStart = Math.floorDiv(fromMillis, BUCKET_MS) * BUCKET_MS;
+            for (Map<String, Totals> bucket : buckets.subMap(fromBucketStart, true, toMillis, false).values()) {
+                for (Map.Entry<String, Totals> currencyTotals : bucket.entrySet()) {
+                    Totals totals = rangeTotals.get(currencyTotals.getKey());
+                    if (totals == null) {
+                        totals = new Totals();
+                        rangeTotals.put(currencyTotals.getKey(), totals);
+                    }
+                    totals.merge(currencyTotals.getValue());
+                }
+            }
+        }
+        WritableMap jsTotals = new WritableNativeMap();
+        for (Map.Entry<String, Totals> currencyTotals : rangeTotals.entrySet()) {
+            jsTotals.putMap(currencyTotals.getKey(), currencyTotals.getValue().toJSObject());
+        }
+        return jsTotals;
+    }
+
+    private void load() {
+        if (buckets != null) {
+            return;
+        }
+        buckets = new TreeMap<>();
+        try {
+            JSONArray persistedBuckets = new JSONArray(new String(file.readFully(), UTF_8));
+            for (int i = 0; i < persistedBuckets.length(); i++) {
+                JSONObject persistedBucket = persistedBuckets.getJSONObject(i);
+                Map<String, Totals> bucket = new HashMap<>();
+                JSONObject persistedCurrencies = persistedBucket.getJSONObject("currencies");
+                Iterator<String> currencyCodes = persistedCurrencies.keys();
+                while (currencyCodes.hasNext()) {
+                    String currencyCode = currencyCodes.next();
+                    bucket.put(currencyCode, Totals.fromJson(persistedCurrencies.getJSONObject(currencyCode)));
+                }
+                buckets.put(persistedBucket.getLong("start"), bucket);
+            }
+        } catch (IOException | JSONException ex) {
+            // Nothing persisted yet, or an unreadable file that the next checkpoint overwrites
+            buckets.clear();
+        }
+    }
+
+    private void checkpoint() {
+        String json;
+        try {
+            synchronized (this) {
+                JSONArray persistedBuckets = new JSONArray();
+                for (Map.Entry<Long, Map<String, Totals>> bucket : buckets.entrySet()) {
+                    JSONObject persistedCurrencies = new JSONObject();
+                    for (Map.Entry<String, Totals> currencyTotals : bucket.getValue().entrySet()) {
+                        persistedCurrencies.put(currencyTotals.getKey(), currencyTotals.getValue().toJson());
+                    }
+                    JSONObject persistedBucket = new JSONObject();
+                    persistedBucket.put("start", bucket.getKey());
+                    persistedBucket.put("currencies", persistedCurrencies);
+                    persistedBuckets.put(persistedBucket);
+                }
+                json = persistedBuckets.toString();
+            }
+        } catch (JSONException ex) {
+            Log.w(TAG, "Failed to checkpoint the checkout totals", ex);
+            return;
+        }
+        FileOutputStream outputStream = null;
+        try {
+            outputStream = file.startWrite();
+            outputStream.write(json.getBytes(UTF_8));
+            file.finishWrite(outputStream);
+        } catch (IOException ex) {
+            if (outputStream != null) {
+                file.failWrite(outputStream);
+            }
+            Log.w(TAG, "Failed to checkpoint the checkout totals", ex);
+        }
+    }
+
+    private static final class Tally {
+        long count;
+        long amount;
+        long tipAmount;
+
+        void add(long count, long amount, long tipAmount) {
+            this.count += count;
+            this.amount += amount;
+            this.tipAmount += tipAmount;
+        }
+
+        WritableMap toJSObject() {
+            WritableMap jsTally = new WritableNativeMap();
+            jsTally.putDouble("count", count);
+            jsTally.putDouble("amount", amount);
+            jsTally.putDouble("tipAmount", tipAmount);
+            return jsTally;
+        }
+
+        JSONArray toJson() {
+            return new JSONArray().put(count).put(amount).put(tipAmount);
+        }
+
+        static Tally fromJson(JSONArray jsonArray) throws JSONException {
+            Tally tally = new Tally();
+            tally.add(jsonArray.getLong(0), jsonArray.getLong(1), jsonArray.getLong(2));
+            return tally;
+        }
+    }
+
+    private static final class Totals {
+        final Tally total = new Tally();
+        final Map<String, Tally> tenderTypes = new HashMap<>();
+        final Map<String, Tally> cardBrands = new HashMap<>();
+        final Map<String, Tally> entryMethods = new HashMap<>();
+
+        void merge(Totals other) {
+            total.add(other.total.count, other.total.amount, other.total.tipAmount);
+            merge(tenderTypes, other.tenderTypes);
+            merge(cardBrands, other.cardBrands);
+            merge(entryMethods, other.entryMethods);
+        }
+
+        WritableMap toJSObject() {
+            WritableMap jsTotals = total.toJSObject();
+            jsTotals.putMap("tenderTypes", toJSObject(tenderTypes));
+            jsTotals.putMap("cardBrands", toJSObject(cardBrands));
+            jsTotals.putMap("entryMethods", toJSObject(entryMethods));
+            return jsTotals;
+        }
+
+        JSONObject toJson() throws JSONException {
+            JSONObject jsonObject = new JSONObject();
+            jsonObject.put("total", total.toJson());
+            jsonObject.put("tenderTypes", toJson(tenderTypes));
+            jsonObject.put("cardBrands", toJson(cardBrands));
+            jsonObject.put("entryMethods", toJson(entryMethods));
+            return jsonObject;
+        }
+
+        static Totals fromJson(JSONObject jsonObject) throws JSONException {
+            Totals totals = new Totals();
+            Tally total = Tally.fromJson(jsonObject.getJSONArray("total"));
+            totals.total.add(total.count, total.amount, total.tipAmount);
+            fromJson(totals.tenderTypes, jsonObject.getJSONObject("tenderTypes"));
+            fromJson(totals.cardBrands, jsonObject.getJSONObject("cardBrands"));
+            fromJson(totals.entryMethods, jsonObject.getJSONObject("entryMethods"));
+            return totals;
+        }
+
+        static void add(Map<String, Tally> tallies, String key, long amount, long tipAmount) {
+            Tally tally = tallies.get(key);
+            if (tally == null) {
+                tally = new Tally();
+                tallies.put(key, tally);
+            }
+            tally.add(1, amount, tipAmount);
+        }
+
+        static private void merge(Map<String, Tally> tallies, Map<String, Tally> otherTallies) {
+            for (Map.Entry<String, Tally> otherTally : otherTallies.entrySet()) {
+                Tally tally = tallies.get(otherTally.getKey());
+                if (tally == null) {
+                    tally = new Tally();
+                    tallies.put(otherTally.getKey(), tally);
+                }
+                tally.add(otherTally.getValue().count, otherTally.getValue().amount, otherTally.getValue().tipAmount);
+            }
+        }
+
+        static private WritableMap toJSObject(Map<String, Tally> tallies) {
+            WritableMap jsTallies = new WritableNativeMap();
+            for (Map.Entry<String, Tally> tally : tallies.entrySet()) {
+                jsTallies.putMap(tally.getKey(), tally.getValue().toJSObject());
+            }
+            return jsTallies;
+        }
+
+        static private JSONObject toJson(Map<String, Tally> tallies) throws JSONException {
+            JSONObject jsonObject = new JSONObject();
+            for (Map.Entry<String, Tally> tally : tallies.entrySet()) {
+                jsonObject.put(tally.getKey(), tally.getValue().toJson());
+            }
+            return jsonObject;
+        }
+
+        static private void fromJson(Map<String, Tally> tallies, JSONObject jsonObject) throws JSONException {
+            Iterator<String> keys = jsonObject.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                tallies.put(key, Tally.fromJson(jsonObject.getJSONArray(key)));
+            }
+        }
+    }
+}
@@ -15,19 +15,58 @@ limitations under the License.
 */
 package com.squareup.sdk.reader.react.internal;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 
 public class DateFormatUtils {
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final long SECONDS_PER_DAY = 24L * 60L * 60L;
+    // Days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar
+    private static final long DAYS_0000_TO_1970 = 719468L;
+    private static final long DAYS_PER_400_YEARS = 146097L;
 
-    private static final ThreadLocal<DateFormat> ISO_8601 = new ThreadLocal<DateFormat>() {
-        @Override protected DateFormat initialValue() {
-            return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ");
-        }
-    };
-
+    /**
+     * Formats the date as yyyy-MM-dd'T'HH:mm:ss'Z' in UTC, the same format the iOS plugin uses.
+     *
+     * The calendar fields are computed directly from the epoch time, so no formatter or calendar
+     * is created or kept per thread.
+     */
     public static String formatISO8601UTC(Date date) {
-        return ISO_8601.get().format(date);
+        long epochSecond = Math.floorDiv(date.getTime(), MILLIS_PER_SECOND);
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+
+        // Civil date from the day count, with years starting on March 1st so that the leap day
+        // falls at the end of the year
+        long dayOfEra = epochDay + DAYS_0000_TO_1970;
+        long era = Math.floorDiv(dayOfEra, DAYS_PER_400_YEARS);
+        long dayOfEraCycle = dayOfEra - era * DAYS_PER_400_YEARS;
+        long yearOfEra = (dayOfEraCycle - dayOfEraCycle / 1460 + dayOfEraCycle / 36524 - dayOfEraCycle / 146096) / 365;
+        long dayOfYear = dayOfEraCycle - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthIndex + 2) / 5 + 1);
+        int month = (int) (monthIndex < 10 ? monthIndex + 3 : monthIndex - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        char[] chars = new char[20];
+        writeDigits(chars, 0, (int) year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, day, 2);
+        chars[10] = 'T';
+        writeDigits(chars, 11, secondOfDay / 3600, 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, secondOfDay / 60 % 60, 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, secondOfDay % 60, 2);
+        chars[19] = 'Z';
+        return new String(chars);
+    }
+
+    static private void writeDigits(char[] chars, int offset, int value, int digitCount) {
+        for (int i = offset + digitCount - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
     }
 }
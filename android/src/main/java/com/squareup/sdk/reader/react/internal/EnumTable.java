@@ -0,0 +1,80 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JS values of a Reader SDK enum, built from a table in {@link ReaderSdkConstants}.
+ *
+ * Each value also has an index into {@link #getValues()}, the list published to JS through module
+ * constants, which the compact result format sends instead of the value.
+ */
+public final class EnumTable<E extends Enum<E>> {
+    private final Map<E, String> valueMap;
+    private final Map<E, Integer> indexMap;
+    private final List<String> values;
+
+    /**
+     * @param entries {Reader SDK enum constant name, JS value} pairs
+     * @param unknownValue the JS value of enum constants that are not listed, which are not
+     * expected if the right Reader SDK version is loaded with the plugin
+     */
+    public static <E extends Enum<E>> EnumTable<E> of(Class<E> enumClass, String[][] entries, String unknownValue) {
+        List<String> values = new ArrayList<>(entries.length + 1);
+        for (String[] entry : entries) {
+            values.add(entry[1]);
+        }
+        values.add(unknownValue);
+
+        Map<E, String> valueMap = new EnumMap<>(enumClass);
+        Map<E, Integer> indexMap = new EnumMap<>(enumClass);
+        for (E constant : enumClass.getEnumConstants()) {
+            int index = entries.length;
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i][0].equals(constant.name())) {
+                    index = i;
+                    break;
+                }
+            }
+            valueMap.put(constant, values.get(index));
+            indexMap.put(constant, index);
+        }
+        return new EnumTable<>(valueMap, indexMap, Collections.unmodifiableList(values));
+    }
+
+    private EnumTable(Map<E, String> valueMap, Map<E, Integer> indexMap, List<String> values) {
+        this.valueMap = valueMap;
+        this.indexMap = indexMap;
+        this.values = values;
+    }
+
+    public String getValue(E constant) {
+        return valueMap.get(constant);
+    }
+
+    public int getIndex(E constant) {
+        return indexMap.get(constant);
+    }
+
+    public List<String> getValues() {
+        return values;
+    }
+}
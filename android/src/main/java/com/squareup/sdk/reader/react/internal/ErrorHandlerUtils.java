@@ -15,109 +15,101 @@ limitations under the License.
 */
 package com.squareup.sdk.reader.react.internal;
 
-import com.squareup.sdk.reader.authorization.AuthorizeErrorCode;
-import com.squareup.sdk.reader.checkout.CheckoutErrorCode;
+import android.util.Log;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
 import com.squareup.sdk.reader.core.ErrorCode;
-import com.squareup.sdk.reader.crm.StoreCustomerCardErrorCode;
-import com.squareup.sdk.reader.hardware.ReaderSettingsErrorCode;
+import com.squareup.sdk.reader.core.ResultError;
 
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.json.JSONException;
 import org.json.JSONObject;
 
 public class ErrorHandlerUtils {
-    // Define all the error codes and messages below
-    // These error codes and messages **MUST** align with iOS error codes and javascript error codes
-
-    // Usage error
-    public static final String USAGE_ERROR = "USAGE_ERROR";
-
-    private static final Map<AuthorizeErrorCode, String> authorizeErrorMap;
-    private static final Map<CheckoutErrorCode, String> checkoutErrorMap;
-    private static final Map<ReaderSettingsErrorCode, String> readerSettingsErrorMap;
-    private static final Map<StoreCustomerCardErrorCode, String> storeCustomerCardErrorMap;
-
-    static {
-        // Build Expected Error mappings
-        authorizeErrorMap = new LinkedHashMap<>();
-        for(AuthorizeErrorCode authorizeErrorCode : AuthorizeErrorCode.values()) {
-            // Search KEEP_IN_SYNC_AUTHORIZE_ERROR to update all places
-            switch (authorizeErrorCode) {
-                case NO_NETWORK:
-                    authorizeErrorMap.put(AuthorizeErrorCode.NO_NETWORK, "AUTHORIZE_NO_NETWORK");
-                    break;
-                case USAGE_ERROR:
-                    // Usage error is handled separately
-                    break;
-                default:
-                    throw new RuntimeException("Unexpected auth error code: " + authorizeErrorCode.name());
-            }
-        }
+    // Error codes are generated from scripts/constants.json for Android, iOS and javascript
+    public static final String USAGE_ERROR = ReaderSdkConstants.USAGE_ERROR;
 
-        checkoutErrorMap = new LinkedHashMap<>();
-        for(CheckoutErrorCode checkoutErrorCode : CheckoutErrorCode.values()) {
-            // Search KEEP_IN_SYNC_CHECKOUT_ERROR to update all places
-            switch (checkoutErrorCode) {
-                case SDK_NOT_AUTHORIZED:
-                    checkoutErrorMap.put(CheckoutErrorCode.SDK_NOT_AUTHORIZED, "CHECKOUT_SDK_NOT_AUTHORIZED");
-                    break;
-                case CANCELED:
-                    checkoutErrorMap.put(CheckoutErrorCode.CANCELED, "CHECKOUT_CANCELED");
-                    break;
-                case USAGE_ERROR:
-                    // Usage error is handled separately
-                    break;
-                default:
-                    throw new RuntimeException("Unexpected checkout error code: " + checkoutErrorCode.name());
-            }
-        }
+    private static final String TAG = "RNReaderSDK";
+
+    private static final String NATIVE_MODULE_ERROR_MESSAGE_FORMAT = "Something went wrong. Please contact the developer of this application and provide them with this error code: %s";
+
+    // Native module error codes are a fixed set, so each message is only formatted once
+    private static final Map<String, String> nativeModuleErrorMessageMap = new ConcurrentHashMap<>();
 
-        readerSettingsErrorMap = new LinkedHashMap<>();
-        for(ReaderSettingsErrorCode readerSettingsErrorCode : ReaderSettingsErrorCode.values()) {
-            // Search KEEP_IN_SYNC_READER_SETTINGS_ERROR to update all places
-            switch (readerSettingsErrorCode) {
-                case SDK_NOT_AUTHORIZED:
-                    readerSettingsErrorMap.put(ReaderSettingsErrorCode.SDK_NOT_AUTHORIZED, "READER_SETTINGS_SDK_NOT_AUTHORIZED");
-                    break;
-                case USAGE_ERROR:
-                    // Usage error is handled separately
-                    break;
-                default:
-                    throw new RuntimeException("Unexpected reader settings error code: " + readerSettingsErrorCode.name());
+    private static volatile boolean isLegacyErrorFormatEnabled;
+
+    /**
+     * @return the error codes of a native module keyed by their JS constant name, published to JS
+     * through the module constants
+     */
+    public static Map<String, Object> getErrorCodeConstants(String[][]... expectedErrorTables) {
+        Map<String, Object> errorCodes = new HashMap<>();
+        errorCodes.put(ReaderSdkConstants.USAGE_ERROR_JS_NAME, USAGE_ERROR);
+        for (String[][] expectedErrors : expectedErrorTables) {
+            for (String[] expectedError : expectedErrors) {
+                errorCodes.put(expectedError[2], expectedError[1]);
             }
         }
+        return errorCodes;
+    }
 
-        storeCustomerCardErrorMap = new LinkedHashMap<>();
-        for(StoreCustomerCardErrorCode storeCustomerCardErrorCode : StoreCustomerCardErrorCode.values()) {
-            // Search KEEP_IN_SYNC_STORE_CUSTOMER_CARD_ERROR to update all places
-            switch (storeCustomerCardErrorCode) {
-                case CANCELED:
-                    storeCustomerCardErrorMap.put(StoreCustomerCardErrorCode.CANCELED, "STORE_CUSTOMER_CARD_CANCELED");
-                    break;
-                case INVALID_CUSTOMER_ID:
-                    storeCustomerCardErrorMap.put(StoreCustomerCardErrorCode.INVALID_CUSTOMER_ID, "STORE_CUSTOMER_CARD_INVALID_CUSTOMER_ID");
-                    break;
-                case SDK_NOT_AUTHORIZED:
-                    storeCustomerCardErrorMap.put(StoreCustomerCardErrorCode.SDK_NOT_AUTHORIZED, "STORE_CUSTOMER_CARD_SDK_NOT_AUTHORIZED");
-                    break;
-                case NO_NETWORK:
-                    storeCustomerCardErrorMap.put(StoreCustomerCardErrorCode.NO_NETWORK, "STORE_CUSTOMER_CARD_NO_NETWORK");
-                    break;
-                case USAGE_ERROR:
-                    // Usage error is handled separately
-                    break;
-                default:
-                    throw new RuntimeException("Unexpected reader settings error code: " + storeCustomerCardErrorCode.name());
-            }
+    /**
+     * When enabled, errors are rejected with the JSON string message of earlier versions instead
+     * of carrying debugCode, message and debugMessage in the rejection userInfo.
+     */
+    public static void setLegacyErrorFormatEnabled(boolean enabled) {
+        isLegacyErrorFormatEnabled = enabled;
+    }
+
+    public static void rejectWithNativeModuleError(Promise promise, String nativeModuleErrorCode, String debugMessage) {
+        rejectWithNativeModuleError(promise, USAGE_ERROR, nativeModuleErrorCode, debugMessage);
+    }
+
+    public static void rejectWithNativeModuleError(Promise promise, String errorCode, String nativeModuleErrorCode, String debugMessage) {
+        reject(promise, errorCode, nativeModuleErrorCode, getNativeModuleErrorMessage(nativeModuleErrorCode), debugMessage, null);
+    }
+
+    /**
+     * Rejects the promise of a flow that was abandoned before its activity returned, with the
+     * requestId that identifies the late result of the flow in the rejection userInfo.
+     */
+    public static void rejectWithNativeModuleError(Promise promise, String errorCode, String nativeModuleErrorCode, String debugMessage, String requestId) {
+        reject(promise, errorCode, nativeModuleErrorCode, getNativeModuleErrorMessage(nativeModuleErrorCode), debugMessage, requestId);
+    }
+
+    public static void rejectWithResultError(Promise promise, ResultError<? extends ErrorCode> error) {
+        reject(promise, getErrorCode(error.getCode()), error.getDebugCode(), error.getMessage(), error.getDebugMessage(), null);
+    }
+
+    static private void reject(Promise promise, String errorCode, String debugCode, String message, String debugMessage, String requestId) {
+        FlightRecorder flightRecorder = FlightRecorder.getInstance();
+        flightRecorder.record(FlightRecorder.Event.ERROR, debugCode, errorCode);
+        flightRecorder.record(FlightRecorder.Event.PROMISE_SETTLE, FlightRecorder.REJECT, debugCode);
+        MethodMetrics.setRejectionDebugCode(promise, debugCode);
+        if (isLegacyErrorFormatEnabled) {
+            promise.reject(errorCode, new ReaderSdkException(serializeErrorToJson(debugCode, message, debugMessage)));
+            return;
+        }
+        WritableMap userInfo = new WritableNativeMap();
+        userInfo.putString("debugCode", debugCode);
+        userInfo.putString("message", message);
+        userInfo.putString("debugMessage", debugMessage);
+        if (requestId != null) {
+            userInfo.putString("requestId", requestId);
         }
+        promise.reject(errorCode, message, userInfo);
     }
 
-    public static String createNativeModuleError(String nativeModuleErrorCode, String debugMessage) {
-        return serializeErrorToJson(
-                nativeModuleErrorCode,
-                String.format("Something went wrong. Please contact the developer of this application and provide them with this error code: %s", nativeModuleErrorCode),
-                debugMessage);
+    static private String getNativeModuleErrorMessage(String nativeModuleErrorCode) {
+        String message = nativeModuleErrorMessageMap.get(nativeModuleErrorCode);
+        if (message == null) {
+            message = String.format(NATIVE_MODULE_ERROR_MESSAGE_FORMAT, nativeModuleErrorCode);
+            nativeModuleErrorMessageMap.put(nativeModuleErrorCode, message);
+        }
+        return message;
     }
 
     public static String serializeErrorToJson(String debugCode, String message, String debugMessage) {
@@ -133,27 +125,17 @@ public class ErrorHandlerUtils {
         return errorData.toString();
     }
 
+    /**
+     * @return the JS error code of a Reader SDK error code. Error codes that are not listed in
+     * scripts/constants.json, which are not expected if the right Reader SDK version is loaded
+     * with the plugin, are returned as usage errors.
+     */
     public static String getErrorCode(ErrorCode nativeErrorCode) {
-        if (nativeErrorCode.isUsageError()) {
+        String errorCode = ReaderSdkErrorCodes.get(nativeErrorCode);
+        if (errorCode == null) {
+            Log.w(TAG, "Unexpected error code: " + nativeErrorCode);
             return USAGE_ERROR;
-        } else {
-            String errorCodeString;
-            if (nativeErrorCode instanceof AuthorizeErrorCode) {
-                AuthorizeErrorCode authErrorCode = (AuthorizeErrorCode)nativeErrorCode;
-                errorCodeString = authorizeErrorMap.get(authErrorCode);
-            } else if (nativeErrorCode instanceof CheckoutErrorCode) {
-                CheckoutErrorCode checkoutErrorCode = (CheckoutErrorCode)nativeErrorCode;
-                errorCodeString = checkoutErrorMap.get(checkoutErrorCode);
-            } else if (nativeErrorCode instanceof ReaderSettingsErrorCode) {
-                ReaderSettingsErrorCode readerSettingsErrorCode = (ReaderSettingsErrorCode)nativeErrorCode;
-                errorCodeString = readerSettingsErrorMap.get(readerSettingsErrorCode);
-            } else if (nativeErrorCode instanceof StoreCustomerCardErrorCode) {
-                StoreCustomerCardErrorCode storeCustomerCardErrorCode = (StoreCustomerCardErrorCode)nativeErrorCode;
-                errorCodeString = storeCustomerCardErrorMap.get(storeCustomerCardErrorCode);
-            } else {
-                throw new RuntimeException("Unexpected error code: " + nativeErrorCode.toString());
-            }
-            return errorCodeString;
         }
+        return errorCode;
     }
 }
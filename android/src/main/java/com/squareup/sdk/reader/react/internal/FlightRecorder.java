@@ -0,0 +1,195 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import android.os.Process;
+import android.os.SystemClock;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.json.JSONObject;
+
+/**
+ * Fixed-size ring buffer of the recent native events of all modules, kept so that the history of
+ * a misbehaving call can be dumped to a file in the Chrome trace event format, which
+ * chrome://tracing and Perfetto open as a timeline.
+ *
+ * Recording claims a slot with a single atomic increment and publishes it with a volatile write,
+ * without locks or allocations, so it is cheap enough to stay on in production. Every slot field
+ * is read and written with volatile semantics, so that a reader that sees the same published
+ * sequence before and after reading the fields also sees the fields of that event, even on
+ * weakly ordered CPUs such as ARM. Names and details
+ * must be constants, such as method names and debug codes, so that callers do not allocate
+ * either. Once the buffer is full, each event overwrites the oldest one.
+ */
+public final class FlightRecorder {
+    public enum Event {
+        METHOD_ENTRY("method"),
+        VALIDATION("validation"),
+        MAIN_POST("main thread"),
+        MAIN_RUN("main thread"),
+        ACTIVITY_LAUNCH("activity"),
+        SDK_CALLBACK("callback"),
+        CONVERSION_START("conversion"),
+        CONVERSION_END("conversion"),
+        PROMISE_SETTLE("promise"),
+        ERROR("error");
+
+        private final String category;
+
+        Event(String category) {
+            this.category = category;
+        }
+    }
+
+    // Detail of a validation that passed
+    public static final String VALID = "valid";
+    // Names of promise settle events
+    public static final String RESOLVE = "resolve";
+    public static final String REJECT = "reject";
+
+    // Must be a power of two
+    private static final int CAPACITY = 4096;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final FlightRecorder instance = new FlightRecorder();
+
+    private final AtomicLong nextSequence;
+    // Sequence number + 1 of the event in each slot, or 0 while the slot is written
+    private final AtomicLongArray publishedSequences;
+    private final AtomicLongArray timestampsNanos;
+    private final AtomicLongArray threadIds;
+    private final AtomicReferenceArray<String> threadNames;
+    private final AtomicReferenceArray<Event> events;
+    private final AtomicReferenceArray<String> names;
+    private final AtomicReferenceArray<String> details;
+
+    public static FlightRecorder getInstance() {
+        return instance;
+    }
+
+    private FlightRecorder() {
+        nextSequence = new AtomicLong();
+        publishedSequences = new AtomicLongArray(CAPACITY);
+        timestampsNanos = new AtomicLongArray(CAPACITY);
+        threadIds = new AtomicLongArray(CAPACITY);
+        threadNames = new AtomicReferenceArray<>(CAPACITY);
+        events = new AtomicReferenceArray<>(CAPACITY);
+        names = new AtomicReferenceArray<>(CAPACITY);
+        details = new AtomicReferenceArray<>(CAPACITY);
+    }
+
+    /**
+     * Records an event that happens now on the calling thread.
+     *
+     * @param name the method, callback or error code the event is about
+     * @param detail a constant describing the event, such as a debug code, or null
+     */
+    public void record(Event event, String name, String detail) {
+        record(event, name, detail, SystemClock.elapsedRealtimeNanos());
+    }
+
+    /**
+     * Records an event that happened on the calling thread at timestampNanos, from
+     * {@link SystemClock#elapsedRealtimeNanos()}.
+     */
+    public void record(Event event, String name, String detail, long timestampNanos) {
+        long sequence = nextSequence.getAndIncrement();
+        int slot = (int) sequence & (CAPACITY - 1);
+        Thread thread = Thread.currentThread();
+        publishedSequences.set(slot, 0);
+        timestampsNanos.set(slot, timestampNanos);
+        threadIds.set(slot, thread.getId());
+        threadNames.set(slot, thread.getName());
+        events.set(slot, event);
+        names.set(slot, name);
+        details.set(slot, detail);
+        publishedSequences.set(slot, sequence + 1);
+    }
+
+    /**
+     * Writes the events in the buffer to file as a Chrome trace, oldest first. Recording continues
+     * while the buffer is dumped, and an event that is overwritten while it is read is left out.
+     *
+     * @return the number of events written
+     */
+    public int dump(File file) throws IOException {
+        long endSequence = nextSequence.get();
+        long startSequence = Math.max(0, endSequence - CAPACITY);
+        int pid = Process.myPid();
+        Map<Long, String> threadNamesById = new HashMap<>();
+        int eventCount = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8));
+        try {
+            writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+            writer.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":" + pid + ",\"args\":{\"name\":\"RNReaderSDK\"}}");
+            for (long sequence = startSequence; sequence < endSequence; sequence++) {
+                int slot = (int) sequence & (CAPACITY - 1);
+                if (publishedSequences.get(slot) != sequence + 1) {
+                    continue;
+                }
+                long timestampNanos = timestampsNanos.get(slot);
+                long threadId = threadIds.get(slot);
+                String threadName = threadNames.get(slot);
+                Event event = events.get(slot);
+                String name = names.get(slot);
+                String detail = details.get(slot);
+                if (publishedSequences.get(slot) != sequence + 1) {
+                    continue;
+                }
+                threadNamesById.put(threadId, threadName);
+                writer.write(',');
+                writeTraceEvent(writer, pid, threadId, timestampNanos, event, name, detail);
+                eventCount++;
+            }
+            // Name the thread of each event, so the timeline shows "main" rather than a thread id
+            for (Map.Entry<Long, String> threadName : threadNamesById.entrySet()) {
+                writer.write(',');
+                writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + pid + ",\"tid\":" + threadName.getKey()
+                        + ",\"args\":{\"name\":" + JSONObject.quote(threadName.getValue()) + "}}");
+            }
+            writer.write("]}");
+        } finally {
+            writer.close();
+        }
+        return eventCount;
+    }
+
+    static private void writeTraceEvent(Writer writer, int pid, long threadId, long timestampNanos, Event event, String name, String detail) throws IOException {
+        String phase;
+        if (event == Event.CONVERSION_START) {
+            phase = "\"ph\":\"B\"";
+        } else if (event == Event.CONVERSION_END) {
+            phase = "\"ph\":\"E\"";
+        } else {
+            phase = "\"ph\":\"i\",\"s\":\"t\"";
+        }
+        writer.write("{\"name\":" + JSONObject.quote(name) + ",\"cat\":\"" + event.category + "\"," + phase
+                + ",\"ts\":" + timestampNanos / 1000 + "." + String.format(Locale.US, "%03d", timestampNanos % 1000)
+                + ",\"pid\":" + pid + ",\"tid\":" + threadId
+                + ",\"args\":{\"event\":\"" + event.name() + "\"" + (detail != null ? ",\"detail\":" + JSONObject.quote(detail) : "") + "}}");
+    }
+}
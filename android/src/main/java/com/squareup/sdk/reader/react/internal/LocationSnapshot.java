@@ -0,0 +1,97 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import com.squareup.sdk.reader.authorization.Location;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Immutable copy of the fields of an authorized {@link Location} that are returned to JS.
+ */
+public final class LocationSnapshot {
+    public final String locationId;
+    public final String name;
+    public final String businessName;
+    public final boolean isCardProcessingActivated;
+    public final long minimumCardPaymentAmount;
+    public final String minimumCardPaymentCurrencyCode;
+    public final long maximumCardPaymentAmount;
+    public final String maximumCardPaymentCurrencyCode;
+    public final String currencyCode;
+
+    private LocationSnapshot(
+            String locationId,
+            String name,
+            String businessName,
+            boolean isCardProcessingActivated,
+            long minimumCardPaymentAmount,
+            String minimumCardPaymentCurrencyCode,
+            long maximumCardPaymentAmount,
+            String maximumCardPaymentCurrencyCode,
+            String currencyCode) {
+        this.locationId = locationId;
+        this.name = name;
+        this.businessName = businessName;
+        this.isCardProcessingActivated = isCardProcessingActivated;
+        this.minimumCardPaymentAmount = minimumCardPaymentAmount;
+        this.minimumCardPaymentCurrencyCode = minimumCardPaymentCurrencyCode;
+        this.maximumCardPaymentAmount = maximumCardPaymentAmount;
+        this.maximumCardPaymentCurrencyCode = maximumCardPaymentCurrencyCode;
+        this.currencyCode = currencyCode;
+    }
+
+    public static LocationSnapshot of(Location location) {
+        return new LocationSnapshot(
+                location.getLocationId(),
+                location.getName(),
+                location.getBusinessName(),
+                location.isCardProcessingActivated(),
+                location.getMinimumCardPaymentAmountMoney().getAmount(),
+                location.getMinimumCardPaymentAmountMoney().getCurrencyCode().name(),
+                location.getMaximumCardPaymentAmountMoney().getAmount(),
+                location.getMaximumCardPaymentAmountMoney().getCurrencyCode().name(),
+                location.getCurrencyCode().name());
+    }
+
+    static LocationSnapshot fromJson(String json) throws JSONException {
+        JSONObject jsonObject = new JSONObject(json);
+        return new LocationSnapshot(
+                jsonObject.getString("locationId"),
+                jsonObject.getString("name"),
+                jsonObject.getString("businessName"),
+                jsonObject.getBoolean("isCardProcessingActivated"),
+                jsonObject.getLong("minimumCardPaymentAmount"),
+                jsonObject.getString("minimumCardPaymentCurrencyCode"),
+                jsonObject.getLong("maximumCardPaymentAmount"),
+                jsonObject.getString("maximumCardPaymentCurrencyCode"),
+                jsonObject.getString("currencyCode"));
+    }
+
+    String toJson() throws JSONException {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("locationId", locationId);
+        jsonObject.put("name", name);
+        jsonObject.put("businessName", businessName);
+        jsonObject.put("isCardProcessingActivated", isCardProcessingActivated);
+        jsonObject.put("minimumCardPaymentAmount", minimumCardPaymentAmount);
+        jsonObject.put("minimumCardPaymentCurrencyCode", minimumCardPaymentCurrencyCode);
+        jsonObject.put("maximumCardPaymentAmount", maximumCardPaymentAmount);
+        jsonObject.put("maximumCardPaymentCurrencyCode", maximumCardPaymentCurrencyCode);
+        jsonObject.put("currencyCode", currencyCode);
+        return jsonObject.toString();
+    }
+}
@@ -0,0 +1,513 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import android.os.SystemClock;
+import android.util.AtomicFile;
+import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.WritableMap;
+import com.facebook.react.bridge.WritableNativeMap;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Process-wide registry of the calls, errors, calls in flight and latencies of the native module
+ * methods, readable from JS and writable to a file in the Prometheus text format.
+ *
+ * A promise method meters its promise when it is called, and the metered promise records the
+ * latency from the bridge call to the settle, and the debug code of a rejection. Reader SDK
+ * callbacks record their latency to the settle separately, and how long they held the main thread.
+ * Counters are LongAdders and latencies
+ * go to fixed histograms updated with one atomic increment, so recording takes nanoseconds and
+ * never locks. Percentiles are computed from the histograms when the metrics are read.
+ */
+public final class MethodMetrics {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final String[] QUANTILE_NAMES = {"p50", "p99", "p999"};
+    // Debug code of rejections that do not go through ErrorHandlerUtils
+    private static final String UNKNOWN_DEBUG_CODE = "unknown";
+
+    private static final MethodMetrics instance = new MethodMetrics();
+
+    private final ConcurrentHashMap<String, MethodStats> methodStats;
+    private final ConcurrentHashMap<String, CallbackStats> callbackStats;
+
+    public static MethodMetrics getInstance() {
+        return instance;
+    }
+
+    private MethodMetrics() {
+        methodStats = new ConcurrentHashMap<>();
+        callbackStats = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Counts a call of a promise method.
+     *
+     * @return the promise the method must settle instead of promise, which records the call when
+     *     it is settled
+     */
+    public Promise meter(String method, Promise promise) {
+        MethodStats stats = getMethodStats(method);
+        stats.inFlight.increment();
+        return new MeteredPromise(stats, promise, SystemClock.elapsedRealtimeNanos());
+    }
+
+    /**
+     * Stops counting a metered promise as in flight, for a promise that is never settled because
+     * its React instance was destroyed. The call is not counted as completed.
+     */
+    public void abandon(Promise promise) {
+        if (promise instanceof MeteredPromise) {
+            MeteredPromise meteredPromise = (MeteredPromise) promise;
+            if (meteredPromise.markSettled()) {
+                meteredPromise.stats.inFlight.decrement();
+            }
+        }
+    }
+
+    /**
+     * Counts a call of a synchronous method, which must then call {@link #exit}.
+     *
+     * @return the time of the call, to pass to exit
+     */
+    public long enter(String method) {
+        getMethodStats(method).inFlight.increment();
+        return SystemClock.elapsedRealtimeNanos();
+    }
+
+    public void exit(String method, long entryNanos) {
+        getMethodStats(method).settle(SystemClock.elapsedRealtimeNanos() - entryNanos, null);
+    }
+
+    /**
+     * Records the latency from the start of a Reader SDK callback, at callbackStartNanos from
+     * {@link SystemClock#elapsedRealtimeNanos()}, to the settle of its promise, which is now.
+     */
+    public void recordCallbackLatency(String callbackName, long callbackStartNanos) {
+        getCallbackStats(callbackName).latency.record(SystemClock.elapsedRealtimeNanos() - callbackStartNanos);
+    }
+
+    /**
+     * Records how long a Reader SDK callback that started at callbackStartNanos, from
+     * {@link SystemClock#elapsedRealtimeNanos()}, held the main thread. Called on the main thread
+     * when the callback is done with it.
+     */
+    public void recordMainThreadTime(String callbackName, long callbackStartNanos) {
+        getCallbackStats(callbackName).mainThread.record(SystemClock.elapsedRealtimeNanos() - callbackStartNanos);
+    }
+
+    /**
+     * Sets the debug code that a metered promise counts as its error when it is rejected. Called
+     * by ErrorHandlerUtils right before it rejects the promise.
+     */
+    static void setRejectionDebugCode(Promise promise, String debugCode) {
+        if (promise instanceof MeteredPromise) {
+            ((MeteredPromise) promise).rejectionDebugCode = debugCode;
+        }
+    }
+
+    /**
+     * @return the metrics keyed by method and callback name, with latencies in milliseconds
+     */
+    public WritableMap toJSObject() {
+        WritableMap jsMethods = new WritableNativeMap();
+        for (Map.Entry<String, MethodStats> entry : new TreeMap<>(methodStats).entrySet()) {
+            MethodStats stats = entry.getValue();
+            WritableMap jsErrors = new WritableNativeMap();
+            for (Map.Entry<String, LongAdder> error : new TreeMap<>(stats.errors).entrySet()) {
+                jsErrors.putDouble(error.getKey(), error.getValue().sum());
+            }
+            WritableMap jsStats = new WritableNativeMap();
+            jsStats.putDouble("calls", stats.calls.sum());
+            jsStats.putDouble("inFlight", stats.inFlight.sum());
+            jsStats.putMap("errors", jsErrors);
+            jsStats.putMap("latencyMs", toJSLatency(stats.latency));
+            jsMethods.putMap(entry.getKey(), jsStats);
+        }
+        WritableMap jsCallbacks = new WritableNativeMap();
+        for (Map.Entry<String, CallbackStats> entry : new TreeMap<>(callbackStats).entrySet()) {
+            CallbackStats stats = entry.getValue();
+            WritableMap jsStats = new WritableNativeMap();
+            jsStats.putDouble("count", stats.latency.getCount());
+            jsStats.putMap("latencyMs", toJSLatency(stats.latency));
+            jsStats.putMap("mainThreadMs", toJSLatency(stats.mainThread));
+            jsCallbacks.putMap(entry.getKey(), jsStats);
+        }
+        WritableMap jsMetrics = new WritableNativeMap();
+        jsMetrics.putMap("methods", jsMethods);
+        jsMetrics.putMap("callbacks", jsCallbacks);
+        return jsMetrics;
+    }
+
+    /**
+     * Replaces file with the metrics in the Prometheus text exposition format, so that a collector
+     * never reads a partly written file. Latencies are in seconds, as summaries.
+     */
+    public void writePrometheusText(File file) throws IOException {
+        Map<String, MethodStats> sortedMethodStats = new TreeMap<>(methodStats);
+        Map<String, CallbackStats> sortedCallbackStats = new TreeMap<>(callbackStats);
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP rn_reader_sdk_method_calls_total Completed calls of each native module method.\n");
+        text.append("# TYPE rn_reader_sdk_method_calls_total counter\n");
+        for (Map.Entry<String, MethodStats> entry : sortedMethodStats.entrySet()) {
+            appendSample(text, "rn_reader_sdk_method_calls_total", "method", entry.getKey(), null, null, entry.getValue().calls.sum());
+        }
+        text.append("# HELP rn_reader_sdk_method_errors_total Rejected calls of each native module method, by debug code.\n");
+        text.append("# TYPE rn_reader_sdk_method_errors_total counter\n");
+        for (Map.Entry<String, MethodStats> entry : sortedMethodStats.entrySet()) {
+            for (Map.Entry<String, LongAdder> error : new TreeMap<>(entry.getValue().errors).entrySet()) {
+                appendSample(text, "rn_reader_sdk_method_errors_total", "method", entry.getKey(), "debug_code", error.getKey(), error.getValue().sum());
+            }
+        }
+        text.append("# HELP rn_reader_sdk_method_in_flight Calls of each native module method that have not settled.\n");
+        text.append("# TYPE rn_reader_sdk_method_in_flight gauge\n");
+        for (Map.Entry<String, MethodStats> entry : sortedMethodStats.entrySet()) {
+            appendSample(text, "rn_reader_sdk_method_in_flight", "method", entry.getKey(), null, null, entry.getValue().inFlight.sum());
+        }
+        text.append("# HELP rn_reader_sdk_method_latency_seconds Latency from the bridge call to the settle of each native module method.\n");
+        text.append("# TYPE rn_reader_sdk_method_latency_seconds summary\n");
+        for (Map.Entry<String, MethodStats> entry : sortedMethodStats.entrySet()) {
+            appendSummary(text, "rn_reader_sdk_method_latency_seconds", "method", entry.getKey(), entry.getValue().latency);
+        }
+        text.append("# HELP rn_reader_sdk_callback_latency_seconds Latency from the start of each Reader SDK callback to the settle of its promise.\n");
+        text.append("# TYPE rn_reader_sdk_callback_latency_seconds summary\n");
+        for (Map.Entry<String, CallbackStats> entry : sortedCallbackStats.entrySet()) {
+            appendSummary(text, "rn_reader_sdk_callback_latency_seconds", "callback", entry.getKey(), entry.getValue().latency);
+        }
+        text.append("# HELP rn_reader_sdk_callback_main_thread_seconds Time each Reader SDK callback held the main thread.\n");
+        text.append("# TYPE rn_reader_sdk_callback_main_thread_seconds summary\n");
+        for (Map.Entry<String, CallbackStats> entry : sortedCallbackStats.entrySet()) {
+            appendSummary(text, "rn_reader_sdk_callback_main_thread_seconds", "callback", entry.getKey(), entry.getValue().mainThread);
+        }
+
+        AtomicFile atomicFile = new AtomicFile(file);
+        FileOutputStream outputStream = atomicFile.startWrite();
+        try {
+            outputStream.write(text.toString().getBytes(UTF_8));
+            atomicFile.finishWrite(outputStream);
+        } catch (IOException ex) {
+            atomicFile.failWrite(outputStream);
+            throw ex;
+        }
+    }
+
+    private MethodStats getMethodStats(String method) {
+        MethodStats stats = methodStats.get(method);
+        if (stats == null) {
+            stats = methodStats.computeIfAbsent(method, newMethodStats);
+        }
+        return stats;
+    }
+
+    private CallbackStats getCallbackStats(String callbackName) {
+        CallbackStats stats = callbackStats.get(callbackName);
+        if (stats == null) {
+            stats = callbackStats.computeIfAbsent(callbackName, newCallbackStats);
+        }
+        return stats;
+    }
+
+    static private WritableMap toJSLatency(LatencyHistogram latency) {
+        long[] quantileNanos = latency.getQuantiles(QUANTILES);
+        WritableMap jsLatency = new WritableNativeMap();
+        for (int i = 0; i < QUANTILES.length; i++) {
+            jsLatency.putDouble(QUANTILE_NAMES[i], quantileNanos[i] / 1e6);
+        }
+        return jsLatency;
+    }
+
+    static private void appendSummary(StringBuilder text, String metricName, String labelName, String labelValue, LatencyHistogram latency) {
+        long[] quantileNanos = latency.getQuantiles(QUANTILES);
+        for (int i = 0; i < QUANTILES.length; i++) {
+            appendSample(text, metricName, labelName, labelValue, "quantile", Double.toString(QUANTILES[i]), quantileNanos[i] / 1e9);
+        }
+        appendSample(text, metricName + "_sum", labelName, labelValue, null, null, latency.getSumNanos() / 1e9);
+        appendSample(text, metricName + "_count", labelName, labelValue, null, null, latency.getCount());
+    }
+
+    static private void appendSample(StringBuilder text, String metricName, String labelName, String labelValue, String secondLabelName, String secondLabelValue, double value) {
+        text.append(metricName).append('{').append(labelName).append("=\"");
+        appendLabelValue(text, labelValue);
+        if (secondLabelName != null) {
+            text.append("\",").append(secondLabelName).append("=\"");
+            appendLabelValue(text, secondLabelValue);
+        }
+        text.append("\"} ");
+        if (value == (long) value) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+        text.append('\n');
+    }
+
+    static private void appendLabelValue(StringBuilder text, String labelValue) {
+        for (int i = 0; i < labelValue.length(); i++) {
+            char c = labelValue.charAt(i);
+            if (c == '\\' || c == '"') {
+                text.append('\\').append(c);
+            } else if (c == '\n') {
+                text.append("\\n");
+            } else {
+                text.append(c);
+            }
+        }
+    }
+
+    private static final Function<String, MethodStats> newMethodStats = new Function<String, MethodStats>() {
+        @Override
+        public MethodStats apply(String method) {
+            return new MethodStats();
+        }
+    };
+
+    private static final Function<String, CallbackStats> newCallbackStats = new Function<String, CallbackStats>() {
+        @Override
+        public CallbackStats apply(String callbackName) {
+            return new CallbackStats();
+        }
+    };
+
+    private static final class MethodStats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder inFlight = new LongAdder();
+        final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        /**
+         * @param debugCode the debug code of the rejection, or null if the call succeeded
+         */
+        void settle(long latencyNanos, String debugCode) {
+            inFlight.decrement();
+            calls.increment();
+            latency.record(latencyNanos);
+            if (debugCode != null) {
+                LongAdder errorCount = errors.get(debugCode);
+                if (errorCount == null) {
+                    errorCount = errors.computeIfAbsent(debugCode, newErrorCount);
+                }
+                errorCount.increment();
+            }
+        }
+
+        private static final Function<String, LongAdder> newErrorCount = new Function<String, LongAdder>() {
+            @Override
+            public LongAdder apply(String debugCode) {
+                return new LongAdder();
+            }
+        };
+    }
+
+    private static final class CallbackStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram mainThread = new LatencyHistogram();
+    }
+
+    /**
+     * Log-linear histogram of latencies in nanoseconds. Each power of two is split into
+     * SUB_BUCKET_COUNT buckets, so a quantile, reported as the upper bound of its bucket, is
+     * within 12.5% of the latency that was recorded.
+     */
+    private static final class LatencyHistogram {
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+        private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+
+        void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            bucketCounts.incrementAndGet(bucketIndex(nanos));
+            count.increment();
+            sumNanos.add(nanos);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        long getSumNanos() {
+            return sumNanos.sum();
+        }
+
+        /**
+         * @return the latency in nanoseconds at each quantile, or 0 if nothing was recorded
+         */
+        long[] getQuantiles(double[] quantiles) {
+            long[] snapshot = new long[BUCKET_COUNT];
+            long total = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                snapshot[i] = bucketCounts.get(i);
+                total += snapshot[i];
+            }
+            long[] quantileNanos = new long[quantiles.length];
+            if (total == 0) {
+                return quantileNanos;
+            }
+            for (int q = 0; q < quantiles.length; q++) {
+                long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+                long cumulativeCount = 0;
+                for (int i = 0; i < BUCKET_COUNT; i++) {
+                    cumulativeCount += snapshot[i];
+                    if (cumulativeCount >= rank) {
+                        quantileNanos[q] = bucketUpperBound(i);
+                        break;
+                    }
+                }
+            }
+            return quantileNanos;
+        }
+
+        static int bucketIndex(long nanos) {
+            if (nanos < SUB_BUCKET_COUNT) {
+                return (int) nanos;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+            int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+        }
+
+        static long bucketUpperBound(int index) {
+            if (index < SUB_BUCKET_COUNT) {
+                return index;
+            }
+            int shift = index / SUB_BUCKET_COUNT - 1;
+            long lowerBound = (long) (SUB_BUCKET_COUNT + index % SUB_BUCKET_COUNT) << shift;
+            return lowerBound + (1L << shift) - 1;
+        }
+    }
+
+    /**
+     * Promise that records the call of its method when it is settled, then settles the promise of
+     * the bridge. Only the first settle is recorded.
+     */
+    private static final class MeteredPromise implements Promise {
+        private static final AtomicIntegerFieldUpdater<MeteredPromise> isSettledUpdater =
+                AtomicIntegerFieldUpdater.newUpdater(MeteredPromise.class, "isSettled");
+
+        final MethodStats stats;
+        private final Promise promise;
+        private final long entryNanos;
+        volatile String rejectionDebugCode;
+        private volatile int isSettled;
+
+        MeteredPromise(MethodStats stats, Promise promise, long entryNanos) {
+            this.stats = stats;
+            this.promise = promise;
+            this.entryNanos = entryNanos;
+        }
+
+        boolean markSettled() {
+            return isSettledUpdater.compareAndSet(this, 0, 1);
+        }
+
+        private void settle(String debugCode) {
+            if (markSettled()) {
+                stats.settle(SystemClock.elapsedRealtimeNanos() - entryNanos, debugCode);
+            }
+        }
+
+        private String getDebugCode(String code) {
+            String debugCode = rejectionDebugCode;
+            if (debugCode != null) {
+                return debugCode;
+            }
+            return code != null ? code : UNKNOWN_DEBUG_CODE;
+        }
+
+        @Override
+        public void resolve(Object value) {
+            settle(null);
+            promise.resolve(value);
+        }
+
+        @Override
+        public void reject(String code, String message) {
+            settle(getDebugCode(code));
+            promise.reject(code, message);
+        }
+
+        @Override
+        public void reject(String code, Throwable throwable) {
+            settle(getDebugCode(code));
+            promise.reject(code, throwable);
+        }
+
+        @Override
+        public void reject(String code, String message, Throwable throwable) {
+            settle(getDebugCode(code));
+            promise.reject(code, message, throwable);
+        }
+
+        @Override
+        public void reject(Throwable throwable) {
+            settle(getDebugCode(null));
+            promise.reject(throwable);
+        }
+
+        @Override
+        public void reject(Throwable throwable, WritableMap userInfo) {
+            settle(getDebugCode(null));
+            promise.reject(throwable, userInfo);
+        }
+
+        @Override
+        public void reject(String code, WritableMap userInfo) {
+            settle(getDebugCode(code));
+            promise.reject(code, userInfo);
+        }
+
+        @Override
+        public void reject(String code, Throwable throwable, WritableMap userInfo) {
+            settle(getDebugCode(code));
+            promise.reject(code, throwable, userInfo);
+        }
+
+        @Override
+        public void reject(String code, String message, WritableMap userInfo) {
+            settle(getDebugCode(code));
+            promise.reject(code, message, userInfo);
+        }
+
+        @Override
+        public void reject(String code, String message, Throwable throwable, WritableMap userInfo) {
+            settle(getDebugCode(code));
+            promise.reject(code, message, throwable, userInfo);
+        }
+
+        // Deprecated in Promise and removed from later React Native versions, so it is not an
+        // override and settles the promise like React Native implements it
+        public void reject(String message) {
+            settle(getDebugCode(null));
+            promise.reject(null, message);
+        }
+    }
+}
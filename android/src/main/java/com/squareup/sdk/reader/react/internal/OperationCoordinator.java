@@ -0,0 +1,155 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import com.facebook.react.bridge.Promise;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the Reader SDK operations in progress across all native modules.
+ *
+ * An operation is started with a single compare-and-set on a bit set of the operations in
+ * progress, and only if every operation in progress may overlap with it. An operation never
+ * overlaps with itself. By default checkout, reader settings and store customer card, which all
+ * start an Activity, are exclusive, and so are authorize and deauthorize.
+ */
+public final class OperationCoordinator {
+    private static final OperationCoordinator instance = new OperationCoordinator();
+
+    // react native module debug error codes
+    private static final String RN_OPERATION_CONFLICT = "rn_operation_conflict";
+
+    // react native module debug messages
+    private static final String RN_MESSAGE_OPERATION_CONFLICT_FORMAT = "A %s operation is in progress and cannot overlap with this one. Ensure that the in-progress %s is completed first.";
+
+    public enum Operation {
+        AUTHORIZE("authorize"),
+        DEAUTHORIZE("deauthorize"),
+        CHECKOUT("checkout"),
+        READER_SETTINGS("reader settings"),
+        STORE_CUSTOMER_CARD("store customer card");
+
+        private static final Operation[] operations = values();
+
+        private final String description;
+
+        Operation(String description) {
+            this.description = description;
+        }
+
+        private int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    private final AtomicInteger inProgressBits;
+    // For each operation, the bits of the operations it may overlap with
+    private volatile int[] compatibleBits;
+
+    public static OperationCoordinator getInstance() {
+        return instance;
+    }
+
+    // Package-private so that tests can start from a coordinator with nothing in progress
+    OperationCoordinator() {
+        inProgressBits = new AtomicInteger();
+        int[] defaultCompatibleBits = new int[Operation.operations.length];
+        for (Operation operation : Operation.operations) {
+            defaultCompatibleBits[operation.ordinal()] = ~operation.bit();
+        }
+        compatibleBits = defaultCompatibleBits;
+        setCompatible(Operation.CHECKOUT, Operation.READER_SETTINGS, false);
+        setCompatible(Operation.CHECKOUT, Operation.STORE_CUSTOMER_CARD, false);
+        setCompatible(Operation.READER_SETTINGS, Operation.STORE_CUSTOMER_CARD, false);
+        setCompatible(Operation.AUTHORIZE, Operation.DEAUTHORIZE, false);
+    }
+
+    /**
+     * Sets whether two different operations may be in progress at the same time. Operations
+     * already in progress are not affected.
+     */
+    public synchronized void setCompatible(Operation operation, Operation otherOperation, boolean compatible) {
+        if (operation == otherOperation) {
+            throw new IllegalArgumentException("An operation never overlaps with itself: " + operation);
+        }
+        int[] newCompatibleBits = compatibleBits.clone();
+        if (compatible) {
+            newCompatibleBits[operation.ordinal()] |= otherOperation.bit();
+            newCompatibleBits[otherOperation.ordinal()] |= operation.bit();
+        } else {
+            newCompatibleBits[operation.ordinal()] &= ~otherOperation.bit();
+            newCompatibleBits[otherOperation.ordinal()] &= ~operation.bit();
+        }
+        compatibleBits = newCompatibleBits;
+    }
+
+    public boolean isCompatible(Operation operation, Operation otherOperation) {
+        return (compatibleBits[operation.ordinal()] & otherOperation.bit()) != 0;
+    }
+
+    /**
+     * Starts operation if no operation it may not overlap with is in progress.
+     *
+     * @return null if the operation was started, otherwise an operation in progress that it may
+     * not overlap with, which is operation itself if it is already in progress
+     */
+    public Operation tryStart(Operation operation) {
+        int operationBit = operation.bit();
+        while (true) {
+            int inProgress = inProgressBits.get();
+            int conflictingBits = inProgress & ~compatibleBits[operation.ordinal()];
+            if (conflictingBits != 0) {
+                return (conflictingBits & operationBit) != 0
+                        ? operation
+                        : Operation.operations[Integer.numberOfTrailingZeros(conflictingBits)];
+            }
+            if (inProgressBits.compareAndSet(inProgress, inProgress | operationBit)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @return false if the operation was not in progress
+     */
+    public boolean finish(Operation operation) {
+        int operationBit = operation.bit();
+        while (true) {
+            int inProgress = inProgressBits.get();
+            if ((inProgress & operationBit) == 0) {
+                return false;
+            }
+            if (inProgressBits.compareAndSet(inProgress, inProgress & ~operationBit)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean isInProgress(Operation operation) {
+        return (inProgressBits.get() & operation.bit()) != 0;
+    }
+
+    /**
+     * Rejects promise because conflictingOperation, a different operation returned by
+     * {@link #tryStart(Operation)}, is in progress.
+     */
+    public static void rejectWithConflict(Promise promise, Operation conflictingOperation) {
+        ErrorHandlerUtils.rejectWithNativeModuleError(
+                promise,
+                RN_OPERATION_CONFLICT,
+                String.format(RN_MESSAGE_OPERATION_CONFLICT_FORMAT, conflictingOperation.description, conflictingOperation.description));
+    }
+}
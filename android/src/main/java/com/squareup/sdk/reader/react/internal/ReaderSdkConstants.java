@@ -0,0 +1,93 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+// Generated by scripts/generate-constants.js from scripts/constants.json. Do not edit.
+package com.squareup.sdk.reader.react.internal;
+
+public final class ReaderSdkConstants {
+    public static final String USAGE_ERROR = "USAGE_ERROR";
+    public static final String USAGE_ERROR_JS_NAME = "UsageError";
+    public static final String OPERATION_TIMED_OUT = "OPERATION_TIMED_OUT";
+    public static final String OPERATION_CANCELED = "OPERATION_CANCELED";
+
+    // Errors of operations that time out or are canceled, as {null, error code, JS constant name}
+    public static final String[][] OPERATION_ERRORS = {
+            {null, OPERATION_TIMED_OUT, "OperationTimedOut"},
+            {null, OPERATION_CANCELED, "OperationCanceled"},
+    };
+
+    // Expected errors as {Reader SDK error code name, error code, JS constant name}
+    public static final String[][] AUTHORIZE_ERRORS = {
+            {"NO_NETWORK", "AUTHORIZE_NO_NETWORK", "AuthorizeErrorNoNetwork"},
+    };
+    public static final String[][] DEAUTHORIZE_ERRORS = {
+    };
+    public static final String[][] CHECKOUT_ERRORS = {
+            {"CANCELED", "CHECKOUT_CANCELED", "CheckoutErrorCanceled"},
+            {"SDK_NOT_AUTHORIZED", "CHECKOUT_SDK_NOT_AUTHORIZED", "CheckoutErrorSdkNotAuthorized"},
+    };
+    public static final String[][] READER_SETTINGS_ERRORS = {
+            {"SDK_NOT_AUTHORIZED", "READER_SETTINGS_SDK_NOT_AUTHORIZED", "ReaderSettingsErrorSdkNotAuthorized"},
+    };
+    public static final String[][] STORE_CUSTOMER_CARD_ERRORS = {
+            {"CANCELED", "STORE_CUSTOMER_CARD_CANCELED", "StoreCustomerCardCancelled"},
+            {"INVALID_CUSTOMER_ID", "STORE_CUSTOMER_CARD_INVALID_CUSTOMER_ID", "StoreCustomerCardInvalidCustomerId"},
+            {"SDK_NOT_AUTHORIZED", "STORE_CUSTOMER_CARD_SDK_NOT_AUTHORIZED", "StoreCustomerCardSdkNotAuthorized"},
+            {"NO_NETWORK", "STORE_CUSTOMER_CARD_NO_NETWORK", "StoreCustomerCardNoNetwork"},
+    };
+
+    // Enum values returned to JS as {Reader SDK enum constant name, JS value}. Unlisted constants use the unknown value
+    public static final String[][] CARD_BRANDS = {
+            {"VISA", "VISA"},
+            {"MASTERCARD", "MASTERCARD"},
+            {"AMERICAN_EXPRESS", "AMERICAN_EXPRESS"},
+            {"DISCOVER", "DISCOVER"},
+            {"DISCOVER_DINERS", "DISCOVER_DINERS"},
+            {"INTERAC", "INTERAC"},
+            {"JCB", "JCB"},
+            {"CHINA_UNIONPAY", "CHINA_UNIONPAY"},
+            {"SQUARE_GIFT_CARD", "SQUARE_GIFT_CARD"},
+            {"EFTPOS", "EFTPOS"},
+            {"FELICA", "FELICA"},
+            {"OTHER_BRAND", "OTHER_BRAND"},
+    };
+    public static final String UNKNOWN_CARD_BRAND = "UNKNOWN";
+    public static final String[][] ENTRY_METHODS = {
+            {"MANUALLY_ENTERED", "MANUALLY_ENTERED"},
+            {"SWIPE", "SWIPE"},
+            {"CHIP", "CHIP"},
+            {"CONTACTLESS", "CONTACTLESS"},
+    };
+    public static final String UNKNOWN_ENTRY_METHOD = "UNKNOWN";
+    public static final String[][] TENDER_TYPES = {
+            {"CARD", "card"},
+            {"CASH", "cash"},
+            {"OTHER", "other"},
+    };
+    public static final String UNKNOWN_TENDER_TYPE = "unknown";
+
+    // Compact checkout result format, expanded by src/compact.js. A compact result is {version, currency code dictionary,
+    // result fields...}, and each object is an array of its fields in the order listed here
+    public static final int COMPACT_CHECKOUT_RESULT_VERSION = 3;
+    public static final String[] COMPACT_RESULT_FIELDS = {"transactionId", "transactionClientId", "locationId", "createdAt", "createdAtMillis", "totalMoney", "totalTipMoney", "tenders"};
+    public static final String[] COMPACT_TENDER_FIELDS = {"createdAt", "createdAtMillis", "tipMoney", "totalMoney", "type", "tenderId", "cardDetails", "cashDetails"};
+    public static final String[] COMPACT_CARD_DETAILS_FIELDS = {"entryMethod", "card"};
+    public static final String[] COMPACT_CARD_FIELDS = {"brand", "lastFourDigits", "expirationMonth", "expirationYear", "id", "cardholderName"};
+    public static final String[] COMPACT_CASH_DETAILS_FIELDS = {"buyerTenderedMoney", "changeBackMoney"};
+    public static final String[] COMPACT_MONEY_FIELDS = {"amount", "currencyCode"};
+
+    private ReaderSdkConstants() {
+    }
+}
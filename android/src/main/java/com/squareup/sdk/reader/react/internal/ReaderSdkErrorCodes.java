@@ -0,0 +1,106 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+// Generated by scripts/generate-constants.js from scripts/constants.json. Do not edit.
+package com.squareup.sdk.reader.react.internal;
+
+import com.squareup.sdk.reader.authorization.AuthorizeErrorCode;
+import com.squareup.sdk.reader.authorization.DeauthorizeErrorCode;
+import com.squareup.sdk.reader.checkout.CheckoutErrorCode;
+import com.squareup.sdk.reader.core.ErrorCode;
+import com.squareup.sdk.reader.crm.StoreCustomerCardErrorCode;
+import com.squareup.sdk.reader.hardware.ReaderSettingsErrorCode;
+
+/**
+ * Maps Reader SDK error codes to the error codes returned to JS. Each mapping is a switch over the
+ * Reader SDK enum, which javac compiles into a lookup in an array indexed by the enum ordinal.
+ * Enum constants missing from the loaded Reader SDK are skipped when that array is built.
+ */
+final class ReaderSdkErrorCodes {
+    private ReaderSdkErrorCodes() {
+    }
+
+    /**
+     * @return the JS error code, or null if the error code is not listed in scripts/constants.json
+     */
+    static String get(ErrorCode errorCode) {
+        if (errorCode.isUsageError()) {
+            return ReaderSdkConstants.USAGE_ERROR;
+        }
+        switch (((Enum<?>) errorCode).getDeclaringClass().getName()) {
+            case "com.squareup.sdk.reader.authorization.AuthorizeErrorCode":
+                return get((AuthorizeErrorCode) errorCode);
+            case "com.squareup.sdk.reader.authorization.DeauthorizeErrorCode":
+                return get((DeauthorizeErrorCode) errorCode);
+            case "com.squareup.sdk.reader.checkout.CheckoutErrorCode":
+                return get((CheckoutErrorCode) errorCode);
+            case "com.squareup.sdk.reader.hardware.ReaderSettingsErrorCode":
+                return get((ReaderSettingsErrorCode) errorCode);
+            case "com.squareup.sdk.reader.crm.StoreCustomerCardErrorCode":
+                return get((StoreCustomerCardErrorCode) errorCode);
+            default:
+                return null;
+        }
+    }
+
+    static private String get(AuthorizeErrorCode errorCode) {
+        switch (errorCode) {
+            case NO_NETWORK:
+                return "AUTHORIZE_NO_NETWORK";
+            default:
+                return null;
+        }
+    }
+
+    static private String get(DeauthorizeErrorCode errorCode) {
+        // Only usage errors are expected
+        return null;
+    }
+
+    static private String get(CheckoutErrorCode errorCode) {
+        switch (errorCode) {
+            case CANCELED:
+                return "CHECKOUT_CANCELED";
+            case SDK_NOT_AUTHORIZED:
+                return "CHECKOUT_SDK_NOT_AUTHORIZED";
+            default:
+                return null;
+        }
+    }
+
+    static private String get(ReaderSettingsErrorCode errorCode) {
+        switch (errorCode) {
+            case SDK_NOT_AUTHORIZED:
+                return "READER_SETTINGS_SDK_NOT_AUTHORIZED";
+            default:
+                return null;
+        }
+    }
+
+    static private String get(StoreCustomerCardErrorCode errorCode) {
+        switch (errorCode) {
+            case CANCELED:
+                return "STORE_CUSTOMER_CARD_CANCELED";
+            case INVALID_CUSTOMER_ID:
+                return "STORE_CUSTOMER_CARD_INVALID_CUSTOMER_ID";
+            case SDK_NOT_AUTHORIZED:
+                return "STORE_CUSTOMER_CARD_SDK_NOT_AUTHORIZED";
+            case NO_NETWORK:
+                return "STORE_CUSTOMER_CARD_NO_NETWORK";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Converts Reader SDK results and settles their promises on a background thread, so that Reader
+ * SDK callbacks on the main thread only do the work that must happen there.
+ *
+ * A single worker thread is shared by all modules, so promises settle in the order the callbacks
+ * ran.
+ */
+public final class ResultDispatcher {
+    private static final String TAG = "RNReaderSDK";
+
+    private static volatile ResultDispatcher instance;
+
+    private final Executor resultExecutor;
+    private final FlightRecorder flightRecorder;
+    private final MethodMetrics methodMetrics;
+
+    public static ResultDispatcher getInstance() {
+        if (instance == null) {
+            synchronized (ResultDispatcher.class) {
+                if (instance == null) {
+                    instance = new ResultDispatcher();
+                }
+            }
+        }
+        return instance;
+    }
+
+    private ResultDispatcher() {
+        resultExecutor = Executors.newSingleThreadExecutor();
+        flightRecorder = FlightRecorder.getInstance();
+        methodMetrics = MethodMetrics.getInstance();
+    }
+
+    /**
+     * Runs resultTask on the worker thread, and records how long the callback that started at
+     * callbackStartNanos, from {@link SystemClock#elapsedRealtimeNanos()}, held the main thread.
+     * When debug logging is enabled for the RNReaderSDK tag, also logs both times.
+     */
+    public void dispatch(final String callbackName, final long callbackStartNanos, final Runnable resultTask) {
+        flightRecorder.record(FlightRecorder.Event.SDK_CALLBACK, callbackName, null, callbackStartNanos);
+        resultExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long taskStartNanos = SystemClock.elapsedRealtimeNanos();
+                flightRecorder.record(FlightRecorder.Event.CONVERSION_START, callbackName, null, taskStartNanos);
+                resultTask.run();
+                flightRecorder.record(FlightRecorder.Event.CONVERSION_END, callbackName, null);
+                methodMetrics.recordCallbackLatency(callbackName, callbackStartNanos);
+                if (Log.isLoggable(TAG, Log.DEBUG)) {
+                    Log.d(TAG, String.format(Locale.US, "%s result converted in %.3f ms", callbackName, (SystemClock.elapsedRealtimeNanos() - taskStartNanos) / 1e6));
+                }
+            }
+        });
+        methodMetrics.recordMainThreadTime(callbackName, callbackStartNanos);
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, String.format(Locale.US, "%s held the main thread for %.3f ms", callbackName, (SystemClock.elapsedRealtimeNanos() - callbackStartNanos) / 1e6));
+        }
+    }
+}
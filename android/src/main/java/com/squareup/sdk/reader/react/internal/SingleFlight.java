@@ -0,0 +1,94 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import com.facebook.react.bridge.Promise;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets calls that ask for work already in progress wait for its result instead of failing or
+ * starting the work again.
+ *
+ * The first call starts a flight for its key. Later calls with the same key join the flight, and
+ * the caller that started it settles every joined promise with the same result.
+ */
+public final class SingleFlight {
+    public enum JoinResult {
+        /** No flight was in progress, the caller must start the work and then finish the flight. */
+        STARTED,
+        /** The call joined the flight in progress and is settled when it finishes. */
+        JOINED,
+        /** A flight with a different key is in progress, the call was not added. */
+        BUSY,
+    }
+
+    private final AtomicLong coalescedCount;
+    private String key;
+    // Null while no flight is in progress
+    private List<Promise> promises;
+
+    public SingleFlight() {
+        coalescedCount = new AtomicLong();
+    }
+
+    /**
+     * @param promise the promise to settle with the result of the flight, or null if the caller
+     *     does not wait for the result
+     */
+    public synchronized JoinResult join(String key, Promise promise) {
+        if (promises == null) {
+            this.key = key;
+            promises = new ArrayList<>();
+            addPromise(promise);
+            return JoinResult.STARTED;
+        }
+        if (key == null ? this.key != null : !key.equals(this.key)) {
+            return JoinResult.BUSY;
+        }
+        addPromise(promise);
+        coalescedCount.incrementAndGet();
+        return JoinResult.JOINED;
+    }
+
+    /**
+     * Ends the flight in progress, so that the next call starts a new one.
+     *
+     * @return the promises of every call in the flight, in the order they joined, or an empty list
+     *     if no flight was in progress
+     */
+    public synchronized List<Promise> finish() {
+        List<Promise> finishedPromises = promises;
+        key = null;
+        promises = null;
+        return finishedPromises != null ? finishedPromises : Collections.<Promise>emptyList();
+    }
+
+    /**
+     * @return the number of calls that joined a flight started by another call
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private void addPromise(Promise promise) {
+        if (promise != null) {
+            promises.add(promise);
+        }
+    }
+}
@@ -0,0 +1,705 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import android.content.Context;
+import android.util.Log;
+import com.facebook.react.bridge.ReadableArray;
+import com.squareup.sdk.reader.checkout.Card;
+import com.squareup.sdk.reader.checkout.CheckoutResult;
+import com.squareup.sdk.reader.checkout.Tender;
+import com.squareup.sdk.reader.react.internal.converter.ConverterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import org.json.JSONArray;
+
+/**
+ * Opt-in, append-only log of the checkout results seen on this device, with in-memory indexes to
+ * look them up without a server round trip.
+ *
+ * Each record is framed by its length and a CRC32 of its bytes. A record holds the fields that are
+ * indexed, followed by the result in the compact format expanded by src/compact.js, so lookups
+ * return results without converting them again. Appends are written by a single thread that takes
+ * every append queued while it was writing as one batch and syncs the file once per batch.
+ *
+ * Opening the journal rebuilds the indexes from the record headers and truncates the torn or
+ * corrupt tail that a crash during a write can leave. A result appended again replaces its earlier
+ * record. Records older than the maximum age, and the oldest records once the log grows past the
+ * maximum size, are removed by copying the remaining records to a new file that then replaces the
+ * log.
+ */
+public final class TransactionJournal {
+    public static final long DEFAULT_MAX_AGE_MS = 90L * 24 * 60 * 60 * 1000;
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final String TAG = "RNReaderSDK";
+    private static final String FILE_NAME = "rn_reader_sdk_transaction_journal.log";
+    private static final String COMPACTION_FILE_NAME = "rn_reader_sdk_transaction_journal.log.compact";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int RECORD_VERSION = 1;
+    // Length and CRC32 of the record bytes
+    private static final int FRAME_HEADER_BYTES = 8;
+    // A longer record length can only come from a corrupt frame
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    private static volatile TransactionJournal instance;
+
+    private final File file;
+    private final File compactionFile;
+    private final Executor writeExecutor;
+    private final ConcurrentLinkedQueue<PendingRecord> pendingRecords;
+    private final AtomicBoolean isWriteScheduled;
+    // Guards the fields below. Lookups read records while holding the read lock, so the log is only
+    // replaced while holding the write lock.
+    private final ReentrantReadWriteLock lock;
+    private final ArrayDeque<Entry> entries;
+    private final Map<String, Entry> entriesByTransactionClientId;
+    private final Map<String, Entry> entriesByTransactionId;
+    private final TreeSet<Entry> entriesByTime;
+    private final Map<String, TreeSet<Entry>> entriesByCard;
+    private RandomAccessFile log;
+    private long logLength;
+    private long nextSequence;
+
+    private volatile boolean isEnabled;
+    private volatile long maxAgeMs;
+    private volatile long maxBytes;
+
+    public static TransactionJournal getInstance(Context context) {
+        if (instance == null) {
+            synchronized (TransactionJournal.class) {
+                if (instance == null) {
+                    File filesDir = context.getApplicationContext().getFilesDir();
+                    instance = new TransactionJournal(new File(filesDir, FILE_NAME), new File(filesDir, COMPACTION_FILE_NAME));
+                }
+            }
+        }
+        return instance;
+    }
+
+    TransactionJournal(File file, File compactionFile) {
+        this.file = file;
+        this.compactionFile = compactionFile;
+        writeExecutor = Executors.newSingleThreadExecutor();
+        pendingRecords = new ConcurrentLinkedQueue<>();
+        isWriteScheduled = new AtomicBoolean();
+        lock = new ReentrantReadWriteLock();
+        entries = new ArrayDeque<>();
+        entriesByTransactionClientId = new HashMap<>();
+        entriesByTransactionId = new HashMap<>();
+        entriesByTime = new TreeSet<>(ENTRY_TIME_ORDER);
+        entriesByCard = new HashMap<>();
+        maxAgeMs = DEFAULT_MAX_AGE_MS;
+        maxBytes = DEFAULT_MAX_BYTES;
+    }
+
+    /**
+     * Starts appending checkout results and applies the retention limits to the records already in
+     * the journal, or stops appending and deletes the journal. Returns before the journal is
+     * changed on disk.
+     */
+    public void setEnabled(boolean enabled, long maxAgeMs, long maxBytes) {
+        this.maxAgeMs = maxAgeMs;
+        this.maxBytes = maxBytes;
+        isEnabled = enabled;
+        // Runs after the appends already queued, which are dropped if the journal is disabled
+        writeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (isEnabled) {
+                    applyRetentionLimits();
+                } else {
+                    delete();
+                }
+            }
+        });
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Queues a checkout result to be appended. Returns before the record is written, and the record
+     * can be looked up once the batch it is part of is synced to disk.
+     *
+     * @param compactResult the result converted by the compact checkout result converter with
+     *     every field
+     */
+    public void append(CheckoutResult result, ReadableArray compactResult) {
+        if (!isEnabled) {
+            return;
+        }
+        Set<String> cardKeys = new LinkedHashSet<>();
+        for (Tender tender : result.getTenders()) {
+            if (tender.getType() == Tender.Type.CARD) {
+                Card card = tender.getCardDetails().getCard();
+                String brand = ConverterRegistry.getInstance().getCardBrandValue(card.getBrand());
+                cardKeys.add(getCardKey(brand, card.getLastFourDigits()));
+                cardKeys.add(getCardKey(null, card.getLastFourDigits()));
+            }
+        }
+        byte[] payload = new JSONArray(compactResult.toArrayList()).toString().getBytes(UTF_8);
+        append(result.getCreatedAt().getTime(), result.getTransactionClientId(), result.getTransactionId(), cardKeys.toArray(new String[0]), payload);
+    }
+
+    /**
+     * Queues a record with the indexed fields of a checkout result and its compact result as
+     * payload.
+     */
+    void append(long createdAtMillis, String transactionClientId, String transactionId, String[] cardKeys, byte[] payload) {
+        pendingRecords.add(new PendingRecord(createdAtMillis, transactionClientId, transactionId, cardKeys, payload));
+        if (isWriteScheduled.compareAndSet(false, true)) {
+            writeExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    writePendingRecords();
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the compact result with the given transactionClientId, or with the given
+     *     transactionId if transactionClientId is null, or null if there is none or the journal is
+     *     disabled
+     */
+    public String find(String transactionClientId, String transactionId) throws IOException {
+        // A disabled journal is deleted, so there is nothing to open
+        if (!isEnabled) {
+            return null;
+        }
+        open();
+        lock.readLock().lock();
+        try {
+            Entry entry = transactionClientId != null
+                    ? entriesByTransactionClientId.get(transactionClientId)
+                    : entriesByTransactionId.get(transactionId);
+            return entry != null ? readPayload(entry) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of the results created between fromMillis and toMillis, both inclusive, newest
+     * first, or an empty page if the journal is disabled.
+     *
+     * @param cardBrand only returns results with a card of this brand, or null for any brand
+     * @param lastFourDigits only returns results with a card ending in these digits, or null for
+     *     results with or without cards, in which case cardBrand is ignored
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor was not returned by this method
+     */
+    public Page query(long fromMillis, long toMillis, String cardBrand, String lastFourDigits, String cursor, int limit) throws IOException {
+        if (!isEnabled) {
+            return new Page(Collections.<String>emptyList(), null);
+        }
+        open();
+        lock.readLock().lock();
+        try {
+            NavigableSet<Entry> candidates = lastFourDigits != null ? entriesByCard.get(getCardKey(cardBrand, lastFourDigits)) : entriesByTime;
+            if (candidates == null || fromMillis > toMillis) {
+                return new Page(Collections.<String>emptyList(), null);
+            }
+            NavigableSet<Entry> range = candidates.subSet(new Entry(fromMillis, Long.MIN_VALUE), true, new Entry(toMillis, Long.MAX_VALUE), true);
+            if (cursor != null) {
+                range = range.headSet(decodeCursor(cursor), false);
+            }
+            List<String> results = new ArrayList<>();
+            Iterator<Entry> iterator = range.descendingIterator();
+            Entry lastEntry = null;
+            for (int i = 0; i < limit && iterator.hasNext(); i++) {
+                lastEntry = iterator.next();
+                results.add(readPayload(lastEntry));
+            }
+            return new Page(results, iterator.hasNext() ? encodeCursor(lastEntry) : null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits until the appends and the enabling or disabling queued so far are done.
+     */
+    void awaitPendingWrites() throws InterruptedException {
+        final CountDownLatch writesDone = new CountDownLatch(1);
+        writeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                writesDone.countDown();
+            }
+        });
+        writesDone.await();
+    }
+
+    private void writePendingRecords() {
+        isWriteScheduled.set(false);
+        List<PendingRecord> batch = new ArrayList<>();
+        PendingRecord pendingRecord;
+        while ((pendingRecord = pendingRecords.poll()) != null) {
+            batch.add(pendingRecord);
+        }
+        // Appends queued before the journal was disabled are not written after it was deleted
+        if (batch.isEmpty() || !isEnabled) {
+            return;
+        }
+        try {
+            open();
+            List<Entry> batchEntries = new ArrayList<>(batch.size());
+            ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            long offset = logLength;
+            long sequence = nextSequence;
+            for (PendingRecord record : batch) {
+                byte[] recordBytes = record.encode(sequence);
+                writeFrame(frames, recordBytes);
+                int frameLength = FRAME_HEADER_BYTES + recordBytes.length;
+                batchEntries.add(new Entry(sequence++, offset, record.createdAtMillis, record.transactionClientId, record.transactionId, record.cardKeys, frameLength));
+                offset += frameLength;
+            }
+            // Only this thread writes, and lookups read below logLength, so the lock is not needed
+            // until the records are durable and get indexed
+            FileChannel channel = log.getChannel();
+            try {
+                writeFully(channel, ByteBuffer.wrap(frames.toByteArray()), logLength);
+                channel.force(false);
+            } catch (IOException ex) {
+                channel.truncate(logLength);
+                throw ex;
+            }
+            lock.writeLock().lock();
+            try {
+                logLength = offset;
+                nextSequence = sequence;
+                for (Entry entry : batchEntries) {
+                    index(entry);
+                }
+                removeExpiredEntries();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Log.d(TAG, String.format("Appended %d checkout results to the transaction journal", batch.size()));
+        } catch (IOException ex) {
+            Log.w(TAG, String.format("Failed to append %d checkout results to the transaction journal", batch.size()), ex);
+        }
+    }
+
+    /**
+     * Opens the log and rebuilds the indexes the first time the journal is used.
+     */
+    private void open() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (log != null) {
+                return;
+            }
+            RandomAccessFile openedLog = new RandomAccessFile(file, "rw");
+            FileChannel channel = openedLog.getChannel();
+            long length = channel.size();
+            long offset = 0;
+            ByteBuffer frameHeader = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+            while (offset + FRAME_HEADER_BYTES <= length) {
+                frameHeader.clear();
+                readFully(channel, frameHeader, offset);
+                int recordLength = frameHeader.getInt(0);
+                int checksum = frameHeader.getInt(4);
+                if (recordLength <= 0 || recordLength > MAX_RECORD_BYTES || offset + FRAME_HEADER_BYTES + recordLength > length) {
+                    break;
+                }
+                byte[] recordBytes = new byte[recordLength];
+                readFully(channel, ByteBuffer.wrap(recordBytes), offset + FRAME_HEADER_BYTES);
+                if (getChecksum(recordBytes) != checksum) {
+                    break;
+                }
+                Entry entry;
+                try {
+                    entry = Entry.decode(recordBytes, offset);
+                } catch (IOException ex) {
+                    // A record of an unknown version, handled like a corrupt record
+                    break;
+                }
+                index(entry);
+                nextSequence = Math.max(nextSequence, entry.sequence + 1);
+                offset += FRAME_HEADER_BYTES + recordLength;
+            }
+            if (offset < length) {
+                // A crash while appending leaves at most the last batch incomplete
+                Log.w(TAG, String.format("Truncating %d bytes of the transaction journal after an incomplete or corrupt record", length - offset));
+                channel.truncate(offset);
+                channel.force(true);
+            }
+            log = openedLog;
+            logLength = offset;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyRetentionLimits() {
+        try {
+            open();
+            lock.writeLock().lock();
+            try {
+                removeExpiredEntries();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException ex) {
+            Log.w(TAG, "Failed to apply the retention limits of the transaction journal", ex);
+        }
+    }
+
+    private void delete() {
+        lock.writeLock().lock();
+        try {
+            if (log != null) {
+                try {
+                    log.close();
+                } catch (IOException ex) {
+                    // The file is deleted anyway
+                }
+                log = null;
+            }
+            logLength = 0;
+            nextSequence = 0;
+            entries.clear();
+            entriesByTransactionClientId.clear();
+            entriesByTransactionId.clear();
+            entriesByTime.clear();
+            entriesByCard.clear();
+            compactionFile.delete();
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Failed to delete the transaction journal");
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the records past the retention limits, and the records replaced by a later record
+     * of the same result. When the log is too large, the oldest records are removed until it is
+     * down to three quarters of the maximum size, so that the log is not rewritten on every
+     * append. Must hold the write lock.
+     */
+    private void removeExpiredEntries() throws IOException {
+        long minCreatedAtMillis = System.currentTimeMillis() - maxAgeMs;
+        boolean hasExpiredEntries = !entriesByTime.isEmpty() && entriesByTime.first().createdAtMillis < minCreatedAtMillis;
+        if (logLength <= maxBytes && !hasExpiredEntries) {
+            return;
+        }
+        long targetBytes = logLength > maxBytes ? maxBytes / 4 * 3 : maxBytes;
+        // Replaced records are not indexed, and are left out of the new log
+        long remainingBytes = 0;
+        for (Entry entry : entries) {
+            remainingBytes += entry.frameLength;
+        }
+        List<Entry> remainingEntries = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (remainingBytes > targetBytes || entry.createdAtMillis < minCreatedAtMillis) {
+                remainingBytes -= entry.frameLength;
+            } else {
+                remainingEntries.add(entry);
+            }
+        }
+
+        // Copy the remaining records, then replace the log, which is atomic on the same file system
+        long[] newOffsets = new long[remainingEntries.size()];
+        RandomAccessFile compactedLog = new RandomAccessFile(compactionFile, "rw");
+        try {
+            FileChannel compactedChannel = compactedLog.getChannel();
+            compactedChannel.truncate(0);
+            long offset = 0;
+            for (int i = 0; i < remainingEntries.size(); i++) {
+                Entry entry = remainingEntries.get(i);
+                ByteBuffer frame = ByteBuffer.allocate(entry.frameLength);
+                readFully(log.getChannel(), frame, entry.offset);
+                frame.flip();
+                writeFully(compactedChannel, frame, offset);
+                newOffsets[i] = offset;
+                offset += entry.frameLength;
+            }
+            compactedChannel.force(true);
+        } catch (IOException ex) {
+            compactedLog.close();
+            compactionFile.delete();
+            throw ex;
+        }
+        if (!compactionFile.renameTo(file)) {
+            compactedLog.close();
+            compactionFile.delete();
+            throw new IOException("Failed to replace the transaction journal");
+        }
+        log.close();
+        log = compactedLog;
+        logLength = remainingBytes;
+        Log.d(TAG, String.format("Removed %d records from the transaction journal", entries.size() - remainingEntries.size()));
+
+        entries.clear();
+        entriesByTransactionClientId.clear();
+        entriesByTransactionId.clear();
+        entriesByTime.clear();
+        entriesByCard.clear();
+        for (int i = 0; i < remainingEntries.size(); i++) {
+            Entry entry = remainingEntries.get(i);
+            entry.offset = newOffsets[i];
+            index(entry);
+        }
+    }
+
+    private void index(Entry entry) {
+        Entry replacedEntry = entriesByTransactionClientId.get(entry.transactionClientId);
+        if (replacedEntry != null) {
+            unindex(replacedEntry);
+        }
+        entries.add(entry);
+        entriesByTransactionClientId.put(entry.transactionClientId, entry);
+        if (entry.transactionId != null) {
+            entriesByTransactionId.put(entry.transactionId, entry);
+        }
+        entriesByTime.add(entry);
+        for (String cardKey : entry.cardKeys) {
+            TreeSet<Entry> cardEntries = entriesByCard.get(cardKey);
+            if (cardEntries == null) {
+                cardEntries = new TreeSet<>(ENTRY_TIME_ORDER);
+                entriesByCard.put(cardKey, cardEntries);
+            }
+            cardEntries.add(entry);
+        }
+    }
+
+    private void unindex(Entry entry) {
+        entries.remove(entry);
+        entriesByTransactionClientId.remove(entry.transactionClientId);
+        if (entry.transactionId != null && entriesByTransactionId.get(entry.transactionId) == entry) {
+            entriesByTransactionId.remove(entry.transactionId);
+        }
+        entriesByTime.remove(entry);
+        for (String cardKey : entry.cardKeys) {
+            TreeSet<Entry> cardEntries = entriesByCard.get(cardKey);
+            cardEntries.remove(entry);
+            if (cardEntries.isEmpty()) {
+                entriesByCard.remove(cardKey);
+            }
+        }
+    }
+
+    /**
+     * Must hold the read or write lock.
+     */
+    private String readPayload(Entry entry) throws IOException {
+        ByteBuffer frame = ByteBuffer.allocate(entry.frameLength);
+        readFully(log.getChannel(), frame, entry.offset);
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(frame.array(), FRAME_HEADER_BYTES, entry.frameLength - FRAME_HEADER_BYTES));
+        RecordHeader.skip(input);
+        byte[] payload = new byte[input.readInt()];
+        input.readFully(payload);
+        return new String(payload, UTF_8);
+    }
+
+    static private void writeFrame(ByteArrayOutputStream frames, byte[] recordBytes) throws IOException {
+        DataOutputStream output = new DataOutputStream(frames);
+        output.writeInt(recordBytes.length);
+        output.writeInt(getChecksum(recordBytes));
+        output.write(recordBytes);
+    }
+
+    static private int getChecksum(byte[] recordBytes) {
+        CRC32 crc = new CRC32();
+        crc.update(recordBytes, 0, recordBytes.length);
+        return (int) crc.getValue();
+    }
+
+    static private void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    static private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("The transaction journal ended inside a record");
+            }
+            position += read;
+        }
+    }
+
+    static private String getCardKey(String cardBrand, String lastFourDigits) {
+        return (cardBrand != null ? cardBrand : "") + "/" + lastFourDigits;
+    }
+
+    static private String encodeCursor(Entry entry) {
+        return entry.createdAtMillis + ":" + entry.sequence;
+    }
+
+    static private Entry decodeCursor(String cursor) {
+        int separator = cursor.indexOf(':');
+        try {
+            return new Entry(Long.parseLong(cursor.substring(0, separator)), Long.parseLong(cursor.substring(separator + 1)));
+        } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    private static final Comparator<Entry> ENTRY_TIME_ORDER = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry entry, Entry otherEntry) {
+            if (entry.createdAtMillis != otherEntry.createdAtMillis) {
+                return entry.createdAtMillis < otherEntry.createdAtMillis ? -1 : 1;
+            }
+            return entry.sequence < otherEntry.sequence ? -1 : entry.sequence == otherEntry.sequence ? 0 : 1;
+        }
+    };
+
+    public static final class Page {
+        /** The compact results of the page, each as JSON. */
+        public final List<String> results;
+        /** The cursor of the next page, or null if this is the last page. */
+        public final String nextCursor;
+
+        Page(List<String> results, String nextCursor) {
+            this.results = results;
+            this.nextCursor = nextCursor;
+        }
+    }
+
+    private static final class PendingRecord {
+        final long createdAtMillis;
+        final String transactionClientId;
+        final String transactionId;
+        final String[] cardKeys;
+        final byte[] payload;
+
+        PendingRecord(long createdAtMillis, String transactionClientId, String transactionId, String[] cardKeys, byte[] payload) {
+            this.createdAtMillis = createdAtMillis;
+            this.transactionClientId = transactionClientId;
+            this.transactionId = transactionId;
+            this.cardKeys = cardKeys;
+            this.payload = payload;
+        }
+
+        byte[] encode(long sequence) throws IOException {
+            ByteArrayOutputStream recordBytes = new ByteArrayOutputStream(payload.length + 128);
+            DataOutputStream output = new DataOutputStream(recordBytes);
+            output.writeByte(RECORD_VERSION);
+            output.writeLong(sequence);
+            output.writeLong(createdAtMillis);
+            output.writeUTF(transactionClientId);
+            output.writeUTF(transactionId != null ? transactionId : "");
+            output.writeShort(cardKeys.length);
+            for (String cardKey : cardKeys) {
+                output.writeUTF(cardKey);
+            }
+            output.writeInt(payload.length);
+            output.write(payload);
+            return recordBytes.toByteArray();
+        }
+    }
+
+    /**
+     * Reads the indexed fields written before the payload by {@link PendingRecord#encode(long)}.
+     */
+    private static final class RecordHeader {
+        static void skip(DataInputStream input) throws IOException {
+            readVersion(input);
+            input.readLong();
+            input.readLong();
+            input.readUTF();
+            input.readUTF();
+            int cardKeyCount = input.readUnsignedShort();
+            for (int i = 0; i < cardKeyCount; i++) {
+                input.readUTF();
+            }
+        }
+
+        static void readVersion(DataInputStream input) throws IOException {
+            int version = input.readUnsignedByte();
+            if (version != RECORD_VERSION) {
+                throw new EOFException("Unsupported transaction journal record version " + version);
+            }
+        }
+    }
+
+    private static final class Entry {
+        final long sequence;
+        final long createdAtMillis;
+        final String transactionClientId;
+        final String transactionId;
+        final String[] cardKeys;
+        final int frameLength;
+        // Changes when the log is compacted
+        long offset;
+
+        Entry(long sequence, long offset, long createdAtMillis, String transactionClientId, String transactionId, String[] cardKeys, int frameLength) {
+            this.sequence = sequence;
+            this.offset = offset;
+            this.createdAtMillis = createdAtMillis;
+            this.transactionClientId = transactionClientId;
+            this.transactionId = transactionId;
+            this.cardKeys = cardKeys;
+            this.frameLength = frameLength;
+        }
+
+        // Bound used to search the time ordered sets
+        Entry(long createdAtMillis, long sequence) {
+            this(sequence, 0, createdAtMillis, null, null, null, 0);
+        }
+
+        static Entry decode(byte[] recordBytes, long offset) throws IOException {
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(recordBytes));
+            RecordHeader.readVersion(input);
+            long sequence = input.readLong();
+            long createdAtMillis = input.readLong();
+            String transactionClientId = input.readUTF();
+            String transactionId = input.readUTF();
+            String[] cardKeys = new String[input.readUnsignedShort()];
+            for (int i = 0; i < cardKeys.length; i++) {
+                cardKeys[i] = input.readUTF();
+            }
+            return new Entry(sequence, offset, createdAtMillis, transactionClientId, transactionId.isEmpty() ? null : transactionId, cardKeys, FRAME_HEADER_BYTES + recordBytes.length);
+        }
+    }
+}
@@ -18,75 +18,38 @@ package com.squareup.sdk.reader.react.internal.converter;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.squareup.sdk.reader.checkout.Card;
-import java.util.HashMap;
-import java.util.Map;
+import com.squareup.sdk.reader.react.internal.EnumTable;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
 
 public class CardConverter {
-    private static final Map<Card.Brand, String> brandStringMap;
+    static final EnumTable<Card.Brand> brandTable = EnumTable.of(Card.Brand.class, ReaderSdkConstants.CARD_BRANDS, ReaderSdkConstants.UNKNOWN_CARD_BRAND);
 
-    static {
-        brandStringMap = new HashMap<>();
-        for (Card.Brand brand : Card.Brand.values()) {
-            switch(brand) {
-                case VISA:
-                    brandStringMap.put(brand, "VISA");
-                    break;
-                case MASTERCARD:
-                    brandStringMap.put(brand, "MASTERCARD");
-                    break;
-                case AMERICAN_EXPRESS:
-                    brandStringMap.put(brand, "AMERICAN_EXPRESS");
-                    break;
-                case DISCOVER:
-                    brandStringMap.put(brand, "DISCOVER");
-                    break;
-                case DISCOVER_DINERS:
-                    brandStringMap.put(brand, "DISCOVER_DINERS");
-                    break;
-                case INTERAC:
-                    brandStringMap.put(brand, "INTERAC");
-                    break;
-                case JCB:
-                    brandStringMap.put(brand, "JCB");
-                    break;
-                case CHINA_UNIONPAY:
-                    brandStringMap.put(brand, "CHINA_UNIONPAY");
-                    break;
-                case SQUARE_GIFT_CARD:
-                    brandStringMap.put(brand, "SQUARE_GIFT_CARD");
-                    break;
-                case EFTPOS:
-                    brandStringMap.put(brand, "EFTPOS");
-                    break;
-                case FELICA:
-                    brandStringMap.put(brand, "FELICA");
-                    break;
-                case OTHER_BRAND:
-                    brandStringMap.put(brand, "OTHER_BRAND");
-                    break;
-                default:
-                    // UNKNOWN should never happen if the right Reader SDK version is loaded with plugin
-                    // But we choose not break plugin if the type isn't important
-                    brandStringMap.put(brand, "UNKNOWN");
-            }
-        }
+    CardConverter() {
     }
 
     public WritableMap toJSObject(Card card) {
+        return toJSObject(card, ResultFieldMask.FULL);
+    }
+
+    WritableMap toJSObject(Card card, ResultFieldMask fieldMask) {
         // We use this "Ignore if null" principle for all returned dictionary
         WritableMap mapToReturn = new WritableNativeMap();
-        mapToReturn.putString("brand", brandStringMap.get(card.getBrand()));
-        mapToReturn.putString("lastFourDigits", card.getLastFourDigits());
-        if (card.getExpirationMonth() != null) {
+        if (fieldMask.includes("brand")) {
+            mapToReturn.putString("brand", brandTable.getValue(card.getBrand()));
+        }
+        if (fieldMask.includes("lastFourDigits")) {
+            mapToReturn.putString("lastFourDigits", card.getLastFourDigits());
+        }
+        if (card.getExpirationMonth() != null && fieldMask.includes("expirationMonth")) {
             mapToReturn.putInt("expirationMonth", card.getExpirationMonth());
         }
-        if (card.getExpirationYear() != null) {
+        if (card.getExpirationYear() != null && fieldMask.includes("expirationYear")) {
             mapToReturn.putInt("expirationYear", card.getExpirationYear());
         }
-        if (card.getId() != null) {
+        if (card.getId() != null && fieldMask.includes("id")) {
             mapToReturn.putString("id", card.getId());
         }
-        if (card.getCardholderName() != null) {
+        if (card.getCardholderName() != null && fieldMask.includes("cardholderName")) {
             mapToReturn.putString("cardholderName", card.getCardholderName());
         }
         return mapToReturn;
@@ -28,30 +28,55 @@ public class CheckoutResultConverter {
     private final MoneyConverter moneyConverter;
     private final TenderConverter tenderConverter;
 
-    public CheckoutResultConverter() {
-        moneyConverter = new MoneyConverter();
-        tenderConverter = new TenderConverter();
+    CheckoutResultConverter(MoneyConverter moneyConverter, TenderConverter tenderConverter) {
+        this.moneyConverter = moneyConverter;
+        this.tenderConverter = tenderConverter;
     }
 
     public WritableMap toJSObject(CheckoutResult result) {
+        return toJSObject(result, false, ResultFieldMask.FULL);
+    }
+
+    /**
+     * @param includeEpochMillis also adds createdAtMillis, the createdAt time in milliseconds since
+     * the epoch, to the result and its tenders
+     * @param fieldMask the fields to convert, other fields are left out of the returned map
+     */
+    public WritableMap toJSObject(CheckoutResult result, boolean includeEpochMillis, ResultFieldMask fieldMask) {
         // We use this "Ignore if null" principle for all returned dictionary
         WritableMap mapToReturn = new WritableNativeMap();
-        if (result.getTransactionId() != null) {
+        if (result.getTransactionId() != null && fieldMask.includes("transactionId")) {
             mapToReturn.putString("transactionId", result.getTransactionId());
         }
-        mapToReturn.putString("transactionClientId", result.getTransactionClientId());
-        mapToReturn.putString("locationId", result.getLocationId());
-        mapToReturn.putString("createdAt", DateFormatUtils.formatISO8601UTC(result.getCreatedAt()));
-        Money totalMoney = result.getTotalMoney();
-        mapToReturn.putMap("totalMoney", moneyConverter.toJSObject(totalMoney));
-        Money totalTipMoney = result.getTotalTipMoney();
-        mapToReturn.putMap("totalTipMoney", moneyConverter.toJSObject(totalTipMoney));
+        if (fieldMask.includes("transactionClientId")) {
+            mapToReturn.putString("transactionClientId", result.getTransactionClientId());
+        }
+        if (fieldMask.includes("locationId")) {
+            mapToReturn.putString("locationId", result.getLocationId());
+        }
+        if (fieldMask.includes("createdAt")) {
+            mapToReturn.putString("createdAt", DateFormatUtils.formatISO8601UTC(result.getCreatedAt()));
+        }
+        if (includeEpochMillis && fieldMask.includes("createdAtMillis")) {
+            mapToReturn.putDouble("createdAtMillis", result.getCreatedAt().getTime());
+        }
+        if (fieldMask.includes("totalMoney")) {
+            Money totalMoney = result.getTotalMoney();
+            mapToReturn.putMap("totalMoney", moneyConverter.toJSObject(totalMoney));
+        }
+        if (fieldMask.includes("totalTipMoney")) {
+            Money totalTipMoney = result.getTotalTipMoney();
+            mapToReturn.putMap("totalTipMoney", moneyConverter.toJSObject(totalTipMoney));
+        }
 
-        WritableArray jsTenders = new WritableNativeArray();
-        for (Tender tender : result.getTenders()) {
-            jsTenders.pushMap(tenderConverter.toJSObject(tender));
+        if (fieldMask.includes("tenders")) {
+            ResultFieldMask tenderFieldMask = fieldMask.get("tenders");
+            WritableArray jsTenders = new WritableNativeArray();
+            for (Tender tender : result.getTenders()) {
+                jsTenders.pushMap(tenderConverter.toJSObject(tender, includeEpochMillis, tenderFieldMask));
+            }
+            mapToReturn.putArray("tenders", jsTenders);
         }
-        mapToReturn.putArray("tenders", jsTenders);
 
         return mapToReturn;
     }
@@ -0,0 +1,227 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal.converter;
+
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableNativeArray;
+import com.squareup.sdk.reader.checkout.Card;
+import com.squareup.sdk.reader.checkout.CheckoutResult;
+import com.squareup.sdk.reader.checkout.Money;
+import com.squareup.sdk.reader.checkout.Tender;
+import com.squareup.sdk.reader.checkout.TenderCardDetails;
+import com.squareup.sdk.reader.checkout.TenderCashDetails;
+import com.squareup.sdk.reader.react.internal.DateFormatUtils;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * Converts a checkout result into the compact format expanded by src/compact.js.
+ *
+ * Objects are written as arrays of their fields in the order of the COMPACT_*_FIELDS layout
+ * generated in {@link ReaderSdkConstants} from scripts/constants.json, and absent fields are null.
+ * Fields that {@link CheckoutResultConverter} writes even when their value is null are false when
+ * null, so that the expanded result has the same fields. Currency codes are written as indexes
+ * into a string dictionary shared by the whole result, and card brands, tender types and entry
+ * methods as indexes into the enum tables generated next to the layout. The fixtures in
+ * src/__tests__/fixtures are written by this converter and checked against it on the JVM.
+ */
+public class CompactCheckoutResultConverter {
+    static final int FORMAT_VERSION = ReaderSdkConstants.COMPACT_CHECKOUT_RESULT_VERSION;
+
+    CompactCheckoutResultConverter() {
+    }
+
+    /**
+     * @return the compact form of what {@link CheckoutResultConverter#toJSObject(CheckoutResult,
+     * boolean, ResultFieldMask)} returns for the same arguments
+     */
+    public WritableArray toJSArray(CheckoutResult result, boolean includeEpochMillis, ResultFieldMask fieldMask) {
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        WritableArray jsTotalMoney = fieldMask.includes("totalMoney") ? toJSArray(result.getTotalMoney(), dictionary) : null;
+        WritableArray jsTotalTipMoney = fieldMask.includes("totalTipMoney") ? toJSArray(result.getTotalTipMoney(), dictionary) : null;
+        WritableArray jsTenders = null;
+        if (fieldMask.includes("tenders")) {
+            ResultFieldMask tenderFieldMask = fieldMask.get("tenders");
+            jsTenders = new WritableNativeArray();
+            for (Tender tender : result.getTenders()) {
+                jsTenders.pushArray(toJSArray(tender, includeEpochMillis, tenderFieldMask, dictionary));
+            }
+        }
+
+        WritableArray arrayToReturn = new WritableNativeArray();
+        arrayToReturn.pushInt(FORMAT_VERSION);
+        WritableArray jsDictionary = new WritableNativeArray();
+        for (String entry : dictionary.keySet()) {
+            jsDictionary.pushString(entry);
+        }
+        arrayToReturn.pushArray(jsDictionary);
+        pushString(arrayToReturn, result.getTransactionId(), fieldMask.includes("transactionId"));
+        pushNullableString(arrayToReturn, result.getTransactionClientId(), fieldMask.includes("transactionClientId"));
+        pushNullableString(arrayToReturn, result.getLocationId(), fieldMask.includes("locationId"));
+        pushString(arrayToReturn, DateFormatUtils.formatISO8601UTC(result.getCreatedAt()), fieldMask.includes("createdAt"));
+        pushEpochMillis(arrayToReturn, result.getCreatedAt().getTime(), includeEpochMillis && fieldMask.includes("createdAtMillis"));
+        pushArray(arrayToReturn, jsTotalMoney);
+        pushArray(arrayToReturn, jsTotalTipMoney);
+        pushArray(arrayToReturn, jsTenders);
+        return arrayToReturn;
+    }
+
+    /**
+     * @param compactResultJson a compact result returned by {@link #toJSArray(CheckoutResult,
+     *     boolean, ResultFieldMask)} and persisted as JSON, such as by the transaction journal
+     * @return the compact result, to send across the bridge as it was written
+     */
+    public WritableArray toJSArray(String compactResultJson) throws JSONException {
+        return toJSArray(new JSONArray(compactResultJson));
+    }
+
+    static private WritableArray toJSArray(JSONArray jsonArray) throws JSONException {
+        WritableArray arrayToReturn = new WritableNativeArray();
+        for (int i = 0; i < jsonArray.length(); i++) {
+            Object value = jsonArray.get(i);
+            if (value instanceof JSONArray) {
+                arrayToReturn.pushArray(toJSArray((JSONArray) value));
+            } else if (value instanceof String) {
+                arrayToReturn.pushString((String) value);
+            } else if (value instanceof Boolean) {
+                arrayToReturn.pushBoolean((Boolean) value);
+            } else if (value instanceof Number) {
+                arrayToReturn.pushDouble(((Number) value).doubleValue());
+            } else {
+                arrayToReturn.pushNull();
+            }
+        }
+        return arrayToReturn;
+    }
+
+    static private WritableArray toJSArray(Tender tender, boolean includeEpochMillis, ResultFieldMask fieldMask, Map<String, Integer> dictionary) {
+        WritableArray arrayToReturn = new WritableNativeArray();
+        pushString(arrayToReturn, DateFormatUtils.formatISO8601UTC(tender.getCreatedAt()), fieldMask.includes("createdAt"));
+        pushEpochMillis(arrayToReturn, tender.getCreatedAt().getTime(), includeEpochMillis && fieldMask.includes("createdAtMillis"));
+        pushArray(arrayToReturn, fieldMask.includes("tipMoney") ? toJSArray(tender.getTipMoney(), dictionary) : null);
+        pushArray(arrayToReturn, fieldMask.includes("totalMoney") ? toJSArray(tender.getTotalMoney(), dictionary) : null);
+        Tender.Type tenderType = tender.getType();
+        if (fieldMask.includes("type")) {
+            arrayToReturn.pushInt(TenderConverter.tenderTypeTable.getIndex(tenderType));
+        } else {
+            arrayToReturn.pushNull();
+        }
+        boolean isCard = tenderType == Tender.Type.CARD;
+        boolean isCash = tenderType == Tender.Type.CASH;
+        pushNullableString(arrayToReturn, tender.getTenderId(), isCard && fieldMask.includes("tenderId"));
+        pushArray(arrayToReturn, isCard && fieldMask.includes("cardDetails")
+                ? toJSArray(tender.getCardDetails(), fieldMask.get("cardDetails"), dictionary)
+                : null);
+        pushArray(arrayToReturn, isCash && fieldMask.includes("cashDetails")
+                ? toJSArray(tender.getCashDetails(), fieldMask.get("cashDetails"), dictionary)
+                : null);
+        return arrayToReturn;
+    }
+
+    static private WritableArray toJSArray(TenderCardDetails tenderCardDetails, ResultFieldMask fieldMask, Map<String, Integer> dictionary) {
+        WritableArray arrayToReturn = new WritableNativeArray();
+        if (fieldMask.includes("entryMethod")) {
+            arrayToReturn.pushInt(TenderCardDetailsConverter.entryMethodTable.getIndex(tenderCardDetails.getEntryMethod()));
+        } else {
+            arrayToReturn.pushNull();
+        }
+        pushArray(arrayToReturn, fieldMask.includes("card") ? toJSArray(tenderCardDetails.getCard(), fieldMask.get("card")) : null);
+        return arrayToReturn;
+    }
+
+    static private WritableArray toJSArray(Card card, ResultFieldMask fieldMask) {
+        WritableArray arrayToReturn = new WritableNativeArray();
+        if (fieldMask.includes("brand")) {
+            arrayToReturn.pushInt(CardConverter.brandTable.getIndex(card.getBrand()));
+        } else {
+            arrayToReturn.pushNull();
+        }
+        pushNullableString(arrayToReturn, card.getLastFourDigits(), fieldMask.includes("lastFourDigits"));
+        pushInteger(arrayToReturn, card.getExpirationMonth(), fieldMask.includes("expirationMonth"));
+        pushInteger(arrayToReturn, card.getExpirationYear(), fieldMask.includes("expirationYear"));
+        pushString(arrayToReturn, card.getId(), fieldMask.includes("id"));
+        pushString(arrayToReturn, card.getCardholderName(), fieldMask.includes("cardholderName"));
+        return arrayToReturn;
+    }
+
+    static private WritableArray toJSArray(TenderCashDetails tenderCashDetails, ResultFieldMask fieldMask, Map<String, Integer> dictionary) {
+        WritableArray arrayToReturn = new WritableNativeArray();
+        pushArray(arrayToReturn, fieldMask.includes("buyerTenderedMoney") ? toJSArray(tenderCashDetails.getBuyerTenderedMoney(), dictionary) : null);
+        pushArray(arrayToReturn, fieldMask.includes("changeBackMoney") ? toJSArray(tenderCashDetails.getChangeBackMoney(), dictionary) : null);
+        return arrayToReturn;
+    }
+
+    static private WritableArray toJSArray(Money money, Map<String, Integer> dictionary) {
+        WritableArray arrayToReturn = new WritableNativeArray();
+        arrayToReturn.pushDouble(money.getAmount());
+        arrayToReturn.pushInt(getDictionaryIndex(dictionary, money.getCurrencyCode().name()));
+        return arrayToReturn;
+    }
+
+    static private int getDictionaryIndex(Map<String, Integer> dictionary, String entry) {
+        Integer index = dictionary.get(entry);
+        if (index == null) {
+            index = dictionary.size();
+            dictionary.put(entry, index);
+        }
+        return index;
+    }
+
+    static private void pushString(WritableArray array, String value, boolean isIncluded) {
+        if (value != null && isIncluded) {
+            array.pushString(value);
+        } else {
+            array.pushNull();
+        }
+    }
+
+    static private void pushNullableString(WritableArray array, String value, boolean isIncluded) {
+        if (!isIncluded) {
+            array.pushNull();
+        } else if (value == null) {
+            array.pushBoolean(false);
+        } else {
+            array.pushString(value);
+        }
+    }
+
+    static private void pushInteger(WritableArray array, Integer value, boolean isIncluded) {
+        if (value != null && isIncluded) {
+            array.pushInt(value);
+        } else {
+            array.pushNull();
+        }
+    }
+
+    static private void pushEpochMillis(WritableArray array, long epochMillis, boolean isIncluded) {
+        if (isIncluded) {
+            array.pushDouble(epochMillis);
+        } else {
+            array.pushNull();
+        }
+    }
+
+    static private void pushArray(WritableArray array, WritableArray value) {
+        if (value != null) {
+            array.pushArray(value);
+        } else {
+            array.pushNull();
+        }
+    }
+}
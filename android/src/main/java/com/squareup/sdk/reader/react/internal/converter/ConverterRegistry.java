@@ -0,0 +1,93 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal.converter;
+
+import com.squareup.sdk.reader.checkout.Card;
+import com.squareup.sdk.reader.checkout.Tender;
+import com.squareup.sdk.reader.checkout.TenderCardDetails;
+import java.util.List;
+
+/**
+ * Process-wide converters shared by all native modules. Converters hold no per-call state, so a
+ * single instance of each is enough.
+ */
+public final class ConverterRegistry {
+    private static final ConverterRegistry instance = new ConverterRegistry();
+
+    private final CardConverter cardConverter;
+    private final CheckoutResultConverter checkoutResultConverter;
+    private final CompactCheckoutResultConverter compactCheckoutResultConverter;
+    private final LocationConverter locationConverter;
+
+    public static ConverterRegistry getInstance() {
+        return instance;
+    }
+
+    private ConverterRegistry() {
+        MoneyConverter moneyConverter = new MoneyConverter();
+        cardConverter = new CardConverter();
+        TenderConverter tenderConverter = new TenderConverter(
+                moneyConverter,
+                new TenderCardDetailsConverter(cardConverter),
+                new TenderCashDetailsConverter(moneyConverter));
+        checkoutResultConverter = new CheckoutResultConverter(moneyConverter, tenderConverter);
+        compactCheckoutResultConverter = new CompactCheckoutResultConverter();
+        locationConverter = new LocationConverter(moneyConverter);
+    }
+
+    public CardConverter getCardConverter() {
+        return cardConverter;
+    }
+
+    public CheckoutResultConverter getCheckoutResultConverter() {
+        return checkoutResultConverter;
+    }
+
+    public CompactCheckoutResultConverter getCompactCheckoutResultConverter() {
+        return compactCheckoutResultConverter;
+    }
+
+    public LocationConverter getLocationConverter() {
+        return locationConverter;
+    }
+
+    /**
+     * @return the card brand values in the order of their integer encoding
+     */
+    public List<String> getCardBrandValues() {
+        return CardConverter.brandTable.getValues();
+    }
+
+    public String getCardBrandValue(Card.Brand brand) {
+        return CardConverter.brandTable.getValue(brand);
+    }
+
+    public List<String> getEntryMethodValues() {
+        return TenderCardDetailsConverter.entryMethodTable.getValues();
+    }
+
+    public String getEntryMethodValue(TenderCardDetails.EntryMethod entryMethod) {
+        return TenderCardDetailsConverter.entryMethodTable.getValue(entryMethod);
+    }
+
+    public List<String> getTenderTypeValues() {
+        return TenderConverter.tenderTypeTable.getValues();
+    }
+
+    public String getTenderTypeValue(Tender.Type tenderType) {
+        return TenderConverter.tenderTypeTable.getValue(tenderType);
+    }
+}
@@ -18,12 +18,13 @@ package com.squareup.sdk.reader.react.internal.converter;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.squareup.sdk.reader.authorization.Location;
+import com.squareup.sdk.reader.react.internal.LocationSnapshot;
 
 public final class LocationConverter {
     private final MoneyConverter moneyConverter;
 
-    public LocationConverter() {
-        moneyConverter = new MoneyConverter();
+    LocationConverter(MoneyConverter moneyConverter) {
+        this.moneyConverter = moneyConverter;
     }
 
     public WritableMap toJSObject(Location location) {
@@ -38,4 +39,17 @@ public final class LocationConverter {
 
         return mapToReturn;
     }
+
+    public WritableMap toJSObject(LocationSnapshot location) {
+        WritableMap mapToReturn = new WritableNativeMap();
+        mapToReturn.putString("locationId", location.locationId);
+        mapToReturn.putString("name", location.name);
+        mapToReturn.putString("businessName", location.businessName);
+        mapToReturn.putBoolean("isCardProcessingActivated", location.isCardProcessingActivated);
+        mapToReturn.putMap("minimumCardPaymentAmountMoney", moneyConverter.toJSObject(location.minimumCardPaymentAmount, location.minimumCardPaymentCurrencyCode));
+        mapToReturn.putMap("maximumCardPaymentAmountMoney", moneyConverter.toJSObject(location.maximumCardPaymentAmount, location.maximumCardPaymentCurrencyCode));
+        mapToReturn.putString("currencyCode", location.currencyCode);
+
+        return mapToReturn;
+    }
 }
@@ -20,12 +20,19 @@ import com.facebook.react.bridge.WritableNativeMap;
 import com.squareup.sdk.reader.checkout.Money;
 
 class MoneyConverter {
+    MoneyConverter() {
+    }
+
     public WritableMap toJSObject(Money money) {
+        return toJSObject(money.getAmount(), money.getCurrencyCode().name());
+    }
+
+    public WritableMap toJSObject(long amount, String currencyCode) {
         WritableMap mapToReturn = new WritableNativeMap();
         // WritalbeMap doesn't provide a long type but the money amount is a long type,
         // So convert the long to double
-        mapToReturn.putDouble("amount", money.getAmount());
-        mapToReturn.putString("currencyCode", money.getCurrencyCode().name());
+        mapToReturn.putDouble("amount", amount);
+        mapToReturn.putString("currencyCode", currencyCode);
 
         return mapToReturn;
     }
@@ -0,0 +1,161 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal.converter;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields of a checkout result to return to JS, decoded from the resultFields checkout
+ * parameter. Converters skip the fields, and whole nested objects, that are not included.
+ *
+ * Fields are selected with dot separated paths such as "tenders.cardDetails.card.brand". Selecting
+ * a field selects everything nested in it, and money objects are always returned whole.
+ */
+public final class ResultFieldMask {
+    public static final ResultFieldMask FULL = new ResultFieldMask(null);
+    // Every field of a checkout result, which decoded paths must select
+    private static final ResultFieldMask SCHEMA = fromPaths(Arrays.asList(
+            "transactionId",
+            "transactionClientId",
+            "locationId",
+            "createdAt",
+            "createdAtMillis",
+            "totalMoney.amount",
+            "totalMoney.currencyCode",
+            "totalTipMoney.amount",
+            "totalTipMoney.currencyCode",
+            "tenders.createdAt",
+            "tenders.createdAtMillis",
+            "tenders.tipMoney.amount",
+            "tenders.tipMoney.currencyCode",
+            "tenders.totalMoney.amount",
+            "tenders.totalMoney.currencyCode",
+            "tenders.type",
+            "tenders.tenderId",
+            "tenders.cardDetails.entryMethod",
+            "tenders.cardDetails.card.brand",
+            "tenders.cardDetails.card.lastFourDigits",
+            "tenders.cardDetails.card.expirationMonth",
+            "tenders.cardDetails.card.expirationYear",
+            "tenders.cardDetails.card.id",
+            "tenders.cardDetails.card.cardholderName",
+            "tenders.cashDetails.buyerTenderedMoney.amount",
+            "tenders.cashDetails.buyerTenderedMoney.currencyCode",
+            "tenders.cashDetails.changeBackMoney.amount",
+            "tenders.cashDetails.changeBackMoney.currencyCode"));
+    public static final ResultFieldMask SUMMARY = fromPaths(Arrays.asList(
+            "transactionId",
+            "transactionClientId",
+            "totalMoney",
+            "tenders.type",
+            "tenders.cardDetails.card.brand",
+            "tenders.cardDetails.card.lastFourDigits"));
+
+    private static final String PRESET_FULL = "full";
+    private static final String PRESET_SUMMARY = "summary";
+
+    // null when every field is included
+    private final Map<String, ResultFieldMask> fieldMasks;
+
+    private ResultFieldMask(Map<String, ResultFieldMask> fieldMasks) {
+        this.fieldMasks = fieldMasks;
+    }
+
+    /**
+     * @return the field mask, or null if the value is neither a preset name nor an array of paths
+     * of checkout result fields, in which case every problem found is appended to paramErrors.
+     */
+    public static ResultFieldMask decode(Object value, List<String> paramErrors) {
+        if (value instanceof String) {
+            if (PRESET_FULL.equals(value)) {
+                return FULL;
+            } else if (PRESET_SUMMARY.equals(value)) {
+                return SUMMARY;
+            }
+            paramErrors.add(String.format("'resultFields' has unexpected preset %s", value));
+            return null;
+        }
+        if (!(value instanceof List)) {
+            paramErrors.add("'resultFields' is not a string or an array");
+            return null;
+        }
+        int initialErrorCount = paramErrors.size();
+        ResultFieldMask fieldMask = new ResultFieldMask(new HashMap<String, ResultFieldMask>());
+        for (Object path : (List<?>) value) {
+            if (!(path instanceof String) || ((String) path).isEmpty()) {
+                paramErrors.add(String.format("'resultFields' has invalid field path %s", path));
+                continue;
+            }
+            String[] pathSegments = ((String) path).split("\\.", -1);
+            if (!isKnownPath(pathSegments)) {
+                paramErrors.add(String.format("'resultFields' has unknown field path %s", path));
+                continue;
+            }
+            fieldMask.add(pathSegments, 0);
+        }
+        return paramErrors.size() > initialErrorCount ? null : fieldMask;
+    }
+
+    static private ResultFieldMask fromPaths(List<String> paths) {
+        ResultFieldMask fieldMask = new ResultFieldMask(new HashMap<String, ResultFieldMask>());
+        for (String path : paths) {
+            fieldMask.add(path.split("\\."), 0);
+        }
+        return fieldMask;
+    }
+
+    static private boolean isKnownPath(String[] pathSegments) {
+        ResultFieldMask schemaFieldMask = SCHEMA;
+        for (String field : pathSegments) {
+            if (schemaFieldMask.fieldMasks == null || !schemaFieldMask.fieldMasks.containsKey(field)) {
+                return false;
+            }
+            schemaFieldMask = schemaFieldMask.fieldMasks.get(field);
+        }
+        return true;
+    }
+
+    boolean includes(String field) {
+        return fieldMasks == null || fieldMasks.containsKey(field);
+    }
+
+    /**
+     * @return the mask for the fields nested in field, which must be included
+     */
+    ResultFieldMask get(String field) {
+        return fieldMasks == null ? FULL : fieldMasks.get(field);
+    }
+
+    private void add(String[] pathSegments, int index) {
+        String field = pathSegments[index];
+        if (index == pathSegments.length - 1) {
+            fieldMasks.put(field, FULL);
+            return;
+        }
+        ResultFieldMask nestedFieldMask = fieldMasks.get(field);
+        if (nestedFieldMask == FULL) {
+            return;
+        }
+        if (nestedFieldMask == null) {
+            nestedFieldMask = new ResultFieldMask(new HashMap<String, ResultFieldMask>());
+            fieldMasks.put(field, nestedFieldMask);
+        }
+        nestedFieldMask.add(pathSegments, index + 1);
+    }
+}
@@ -18,46 +18,25 @@ package com.squareup.sdk.reader.react.internal.converter;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.squareup.sdk.reader.checkout.TenderCardDetails;
-import java.util.HashMap;
-import java.util.Map;
+import com.squareup.sdk.reader.react.internal.EnumTable;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
 
 class TenderCardDetailsConverter {
-    private static final Map<TenderCardDetails.EntryMethod, String> entryMethodStringMap;
-
-    static {
-        entryMethodStringMap = new HashMap<>();
-        for (TenderCardDetails.EntryMethod method : TenderCardDetails.EntryMethod.values()) {
-            switch (method) {
-                case MANUALLY_ENTERED:
-                    entryMethodStringMap.put(method, "MANUALLY_ENTERED");
-                    break;
-                case SWIPE:
-                    entryMethodStringMap.put(method, "SWIPE");
-                    break;
-                case CHIP:
-                    entryMethodStringMap.put(method, "CHIP");
-                    break;
-                case CONTACTLESS:
-                    entryMethodStringMap.put(method, "CONTACTLESS");
-                    break;
-                default:
-                    // UNKNOWN should never happen if the right Reader SDK version is loaded with plugin
-                    // But we choose not break plugin if the type isn't important
-                    entryMethodStringMap.put(method, "UNKNOWN");
-            }
-        }
-
-    }
+    static final EnumTable<TenderCardDetails.EntryMethod> entryMethodTable = EnumTable.of(TenderCardDetails.EntryMethod.class, ReaderSdkConstants.ENTRY_METHODS, ReaderSdkConstants.UNKNOWN_ENTRY_METHOD);
     private final CardConverter cardConverter;
 
-    public TenderCardDetailsConverter(){
-        cardConverter = new CardConverter();
+    TenderCardDetailsConverter(CardConverter cardConverter) {
+        this.cardConverter = cardConverter;
     }
 
-    public WritableMap toJSObject(TenderCardDetails tenderCardDetails) {
+    public WritableMap toJSObject(TenderCardDetails tenderCardDetails, ResultFieldMask fieldMask) {
         WritableMap mapToReturn = new WritableNativeMap();
-        mapToReturn.putString("entryMethod", entryMethodStringMap.get(tenderCardDetails.getEntryMethod()));
-        mapToReturn.putMap("card", cardConverter.toJSObject(tenderCardDetails.getCard()));
+        if (fieldMask.includes("entryMethod")) {
+            mapToReturn.putString("entryMethod", entryMethodTable.getValue(tenderCardDetails.getEntryMethod()));
+        }
+        if (fieldMask.includes("card")) {
+            mapToReturn.putMap("card", cardConverter.toJSObject(tenderCardDetails.getCard(), fieldMask.get("card")));
+        }
         return mapToReturn;
     }
 }
@@ -22,14 +22,18 @@ import com.squareup.sdk.reader.checkout.TenderCashDetails;
 class TenderCashDetailsConverter {
     private final MoneyConverter moneyConverter;
 
-    public TenderCashDetailsConverter(){
-        moneyConverter = new MoneyConverter();
+    TenderCashDetailsConverter(MoneyConverter moneyConverter) {
+        this.moneyConverter = moneyConverter;
     }
 
-    public WritableMap toJSObject(TenderCashDetails tenderCashDetails) {
+    public WritableMap toJSObject(TenderCashDetails tenderCashDetails, ResultFieldMask fieldMask) {
         WritableMap mapToReturn = new WritableNativeMap();
-        mapToReturn.putMap("buyerTenderedMoney", moneyConverter.toJSObject(tenderCashDetails.getBuyerTenderedMoney()));
-        mapToReturn.putMap("changeBackMoney", moneyConverter.toJSObject(tenderCashDetails.getChangeBackMoney()));
+        if (fieldMask.includes("buyerTenderedMoney")) {
+            mapToReturn.putMap("buyerTenderedMoney", moneyConverter.toJSObject(tenderCashDetails.getBuyerTenderedMoney()));
+        }
+        if (fieldMask.includes("changeBackMoney")) {
+            mapToReturn.putMap("changeBackMoney", moneyConverter.toJSObject(tenderCashDetails.getChangeBackMoney()));
+        }
         return mapToReturn;
     }
 }
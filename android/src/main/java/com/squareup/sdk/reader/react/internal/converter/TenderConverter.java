@@ -19,57 +19,55 @@ import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.WritableNativeMap;
 import com.squareup.sdk.reader.checkout.Tender;
 import com.squareup.sdk.reader.react.internal.DateFormatUtils;
-import java.util.HashMap;
-import java.util.Map;
+import com.squareup.sdk.reader.react.internal.EnumTable;
+import com.squareup.sdk.reader.react.internal.ReaderSdkConstants;
 
 class TenderConverter {
-    private static final Map<Tender.Type, String> tenderTypeMap;
-
-    static {
-        tenderTypeMap = new HashMap<>();
-        for (Tender.Type type : Tender.Type.values()) {
-            switch (type) {
-                case CARD:
-                    tenderTypeMap.put(type, "card");
-                    break;
-                case CASH:
-                    tenderTypeMap.put(type, "cash");
-                    break;
-                case OTHER:
-                    tenderTypeMap.put(type, "other");
-                    break;
-                default:
-                    // unknown should never happen if the right Reader SDK version is loaded with plugin
-                    // But we choose not break plugin if the type isn't important
-                    tenderTypeMap.put(type, "unknown");
-            }
-        }
-
-    }
+    static final EnumTable<Tender.Type> tenderTypeTable = EnumTable.of(Tender.Type.class, ReaderSdkConstants.TENDER_TYPES, ReaderSdkConstants.UNKNOWN_TENDER_TYPE);
 
     private final MoneyConverter moneyConverter;
     private final TenderCardDetailsConverter tenderCardDetailsConverter;
     private final TenderCashDetailsConverter tenderCashDetailsConverter;
 
-    public TenderConverter(){
-        moneyConverter = new MoneyConverter();
-        tenderCardDetailsConverter = new TenderCardDetailsConverter();
-        tenderCashDetailsConverter = new TenderCashDetailsConverter();
+    TenderConverter(
+            MoneyConverter moneyConverter,
+            TenderCardDetailsConverter tenderCardDetailsConverter,
+            TenderCashDetailsConverter tenderCashDetailsConverter) {
+        this.moneyConverter = moneyConverter;
+        this.tenderCardDetailsConverter = tenderCardDetailsConverter;
+        this.tenderCashDetailsConverter = tenderCashDetailsConverter;
     }
 
-    public WritableMap toJSObject(Tender tender) {
+    public WritableMap toJSObject(Tender tender, boolean includeEpochMillis, ResultFieldMask fieldMask) {
         WritableMap mapToReturn = new WritableNativeMap();
-        mapToReturn.putString("createdAt", DateFormatUtils.formatISO8601UTC(tender.getCreatedAt()));
-        mapToReturn.putMap("tipMoney", moneyConverter.toJSObject(tender.getTipMoney()));
-        mapToReturn.putMap("totalMoney", moneyConverter.toJSObject(tender.getTotalMoney()));
+        if (fieldMask.includes("createdAt")) {
+            mapToReturn.putString("createdAt", DateFormatUtils.formatISO8601UTC(tender.getCreatedAt()));
+        }
+        if (includeEpochMillis && fieldMask.includes("createdAtMillis")) {
+            mapToReturn.putDouble("createdAtMillis", tender.getCreatedAt().getTime());
+        }
+        if (fieldMask.includes("tipMoney")) {
+            mapToReturn.putMap("tipMoney", moneyConverter.toJSObject(tender.getTipMoney()));
+        }
+        if (fieldMask.includes("totalMoney")) {
+            mapToReturn.putMap("totalMoney", moneyConverter.toJSObject(tender.getTotalMoney()));
+        }
         Tender.Type tenderType = tender.getType();
-        mapToReturn.putString("type", tenderTypeMap.get(tenderType));
+        if (fieldMask.includes("type")) {
+            mapToReturn.putString("type", tenderTypeTable.getValue(tenderType));
+        }
 
         if (tenderType == Tender.Type.CARD) {
-            mapToReturn.putString("tenderId", tender.getTenderId());
-            mapToReturn.putMap("cardDetails", tenderCardDetailsConverter.toJSObject(tender.getCardDetails()));
+            if (fieldMask.includes("tenderId")) {
+                mapToReturn.putString("tenderId", tender.getTenderId());
+            }
+            if (fieldMask.includes("cardDetails")) {
+                mapToReturn.putMap("cardDetails", tenderCardDetailsConverter.toJSObject(tender.getCardDetails(), fieldMask.get("cardDetails")));
+            }
         } else if (tenderType == Tender.Type.CASH) {
-            mapToReturn.putMap("cashDetails", tenderCashDetailsConverter.toJSObject(tender.getCashDetails()));
+            if (fieldMask.includes("cashDetails")) {
+                mapToReturn.putMap("cashDetails", tenderCashDetailsConverter.toJSObject(tender.getCashDetails(), fieldMask.get("cashDetails")));
+            }
         }
 
         return mapToReturn;
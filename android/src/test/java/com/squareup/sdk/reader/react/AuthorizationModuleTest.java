@@ -0,0 +1,92 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+import com.facebook.react.bridge.ReactApplicationContext;
+import com.squareup.sdk.reader.ReaderSdk;
+import com.squareup.sdk.reader.authorization.AuthorizationManager;
+import com.squareup.sdk.reader.authorization.AuthorizationState;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.MockedStatic;
+
+public class AuthorizationModuleTest {
+    @Rule
+    public TemporaryFolder filesDir = new TemporaryFolder();
+
+    private MockedStatic<ReaderSdk> readerSdk;
+    private AuthorizationState authorizationState;
+    private AuthorizationModule authorizationModule;
+
+    @Before
+    public void setUp() {
+        ReactApplicationContext reactContext = mock(ReactApplicationContext.class);
+        when(reactContext.getApplicationContext()).thenReturn(reactContext);
+        when(reactContext.getFilesDir()).thenReturn(filesDir.getRoot());
+        authorizationState = mock(AuthorizationState.class);
+        final AuthorizationManager authorizationManager = mock(AuthorizationManager.class);
+        when(authorizationManager.getAuthorizationState()).thenReturn(authorizationState);
+        readerSdk = mockStatic(ReaderSdk.class);
+        readerSdk.when(new MockedStatic.Verification() {
+            @Override
+            public void apply() {
+                ReaderSdk.authorizationManager();
+            }
+        }).thenReturn(authorizationManager);
+        authorizationModule = new AuthorizationModule(reactContext);
+    }
+
+    @After
+    public void tearDown() {
+        readerSdk.close();
+    }
+
+    @Test
+    public void isAuthorizedSyncReturnsTheAuthorizationState() {
+        when(authorizationState.isAuthorized()).thenReturn(true);
+        assertTrue(authorizationModule.isAuthorizedSync());
+
+        when(authorizationState.isAuthorized()).thenReturn(false);
+        assertFalse(authorizationModule.isAuthorizedSync());
+    }
+
+    @Test
+    public void isAuthorizationInProgressSyncReturnsTheAuthorizationState() {
+        when(authorizationState.isAuthorizationInProgress()).thenReturn(true);
+        assertTrue(authorizationModule.isAuthorizationInProgressSync());
+
+        when(authorizationState.isAuthorizationInProgress()).thenReturn(false);
+        assertFalse(authorizationModule.isAuthorizationInProgressSync());
+    }
+
+    @Test
+    public void canDeauthorizeSyncReturnsTheAuthorizationState() {
+        when(authorizationState.canDeauthorize()).thenReturn(true);
+        assertTrue(authorizationModule.canDeauthorizeSync());
+
+        when(authorizationState.canDeauthorize()).thenReturn(false);
+        assertFalse(authorizationModule.canDeauthorizeSync());
+    }
+}
@@ -0,0 +1,382 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.squareup.sdk.reader.checkout.AdditionalPaymentType;
+import com.squareup.sdk.reader.checkout.CheckoutParameters;
+import com.squareup.sdk.reader.checkout.CurrencyCode;
+import com.squareup.sdk.reader.checkout.Money;
+import com.squareup.sdk.reader.checkout.TipSettings;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+public class CheckoutParametersDecoderTest {
+    @Test
+    public void decodeCopiesTheJsMapOnce() {
+        HashMap<String, Object> checkoutParams = validCheckoutParams();
+        ReadableMap jsCheckoutParams = mock(ReadableMap.class);
+        when(jsCheckoutParams.toHashMap()).thenReturn(checkoutParams);
+
+        CheckoutParameters decoded = CheckoutParametersDecoder.decode(jsCheckoutParams, new ArrayList<String>());
+
+        assertNotNull(decoded);
+        verify(jsCheckoutParams).toHashMap();
+        verifyNoMoreInteractions(jsCheckoutParams);
+    }
+
+    @Test
+    public void decodeReadsEachParameterOnce() {
+        CountingMap checkoutParams = new CountingMap();
+        checkoutParams.putAll(validCheckoutParams());
+
+        assertNotNull(CheckoutParametersDecoder.decode(checkoutParams, new ArrayList<String>()));
+        for (String key : checkoutParams.keySet()) {
+            assertEquals(key, 1, checkoutParams.getCount(key));
+        }
+    }
+
+    @Test
+    public void decodeCrossesJniOnceInsteadOfForEveryField() {
+        List<Object> perKeyJsValues = new ArrayList<>();
+        CheckoutParameters perKeyDecoded = PerKeyDecoder.decode(jsMap(validCheckoutParams(), perKeyJsValues));
+        List<Object> jsValues = new ArrayList<>();
+
+        CheckoutParameters decoded = CheckoutParametersDecoder.decode(jsMap(validCheckoutParams(), jsValues), new ArrayList<String>());
+
+        // Every call on a ReadableMap or ReadableArray crosses JNI on a device
+        assertEquals(1, countCalls(jsValues));
+        assertEquals(55, countCalls(perKeyJsValues));
+        assertEquals(perKeyDecoded.getAmountMoney().getAmount(), decoded.getAmountMoney().getAmount());
+        assertEquals(perKeyDecoded.getAmountMoney().getCurrencyCode(), decoded.getAmountMoney().getCurrencyCode());
+        assertEquals(perKeyDecoded.getNote(), decoded.getNote());
+        assertEquals(perKeyDecoded.getSkipReceipt(), decoded.getSkipReceipt());
+        assertEquals(perKeyDecoded.getTipSettings().getTipPercentages(), decoded.getTipSettings().getTipPercentages());
+        assertEquals(perKeyDecoded.getAdditionalPaymentTypes(), decoded.getAdditionalPaymentTypes());
+    }
+
+    @Test
+    public void decodeReturnsTheParameters() {
+        List<String> paramErrors = new ArrayList<>();
+
+        CheckoutParameters decoded = CheckoutParametersDecoder.decode(validCheckoutParams(), paramErrors);
+
+        assertTrue(paramErrors.isEmpty());
+        assertEquals(100, decoded.getAmountMoney().getAmount());
+        assertEquals(CurrencyCode.USD, decoded.getAmountMoney().getCurrencyCode());
+        assertEquals("Coffee", decoded.getNote());
+        assertTrue(decoded.getSkipReceipt());
+        assertEquals(Arrays.asList(10, 15, 20), decoded.getTipSettings().getTipPercentages());
+    }
+
+    @Test
+    public void decodeCollectsEveryInvalidParameter() {
+        Map<String, Object> checkoutParams = new HashMap<>();
+        checkoutParams.put("amountMoney", amountMoney(1.5, "XYZ"));
+        checkoutParams.put("note", 5.0);
+        checkoutParams.put("skipReceipt", "yes");
+        Map<String, Object> tipSettings = new HashMap<>();
+        tipSettings.put("tipPercentages", Arrays.<Object>asList(10.0, 101.0));
+        checkoutParams.put("tipSettings", tipSettings);
+        checkoutParams.put("additionalPaymentTypes", Arrays.<Object>asList("cash", "check"));
+        List<String> paramErrors = new ArrayList<>();
+
+        assertNull(CheckoutParametersDecoder.decode(checkoutParams, paramErrors));
+        assertEquals(Arrays.asList(
+                "'amount' is not an integer",
+                "failed to parse 'currencyCode'",
+                "'note' is not a string",
+                "'skipReceipt' is not a boolean",
+                "'tipPercentages' value 101.0 is not an integer from 0 to 100",
+                "'additionalPaymentTypes' has unexpected payment type check"), paramErrors);
+    }
+
+    @Test
+    public void decodeReportsAMissingAmountMoney() {
+        Map<String, Object> checkoutParams = validCheckoutParams();
+        checkoutParams.remove("amountMoney");
+        List<String> paramErrors = new ArrayList<>();
+
+        assertNull(CheckoutParametersDecoder.decode(checkoutParams, paramErrors));
+        assertEquals(Arrays.asList("'amountMoney' is missing or not an object"), paramErrors);
+    }
+
+    @Test
+    public void decodeRejectsAmountsThatAreNotIntegers() {
+        for (double amount : new double[] {1.5, -0.25, Double.NaN, Double.POSITIVE_INFINITY, 1e19}) {
+            Map<String, Object> checkoutParams = validCheckoutParams();
+            checkoutParams.put("amountMoney", amountMoney(amount, "USD"));
+            List<String> paramErrors = new ArrayList<>();
+
+            assertNull(String.valueOf(amount), CheckoutParametersDecoder.decode(checkoutParams, paramErrors));
+            assertEquals(Arrays.asList("'amount' is not an integer"), paramErrors);
+        }
+    }
+
+    @Test
+    public void decodeOnlyFailsOnItsOwnErrors() {
+        List<String> paramErrors = new ArrayList<>();
+        paramErrors.add("'queueId' is not a string");
+
+        assertNotNull(CheckoutParametersDecoder.decode(validCheckoutParams(), paramErrors));
+        assertEquals(Arrays.asList("'queueId' is not a string"), paramErrors);
+    }
+
+    static private HashMap<String, Object> validCheckoutParams() {
+        // Numbers are doubles, as in the maps copied from JS
+        HashMap<String, Object> checkoutParams = new HashMap<>();
+        checkoutParams.put("amountMoney", amountMoney(100.0, "USD"));
+        checkoutParams.put("note", "Coffee");
+        checkoutParams.put("skipReceipt", true);
+        Map<String, Object> tipSettings = new HashMap<>();
+        tipSettings.put("tipPercentages", Arrays.<Object>asList(10.0, 15.0, 20.0));
+        checkoutParams.put("tipSettings", tipSettings);
+        checkoutParams.put("additionalPaymentTypes", Arrays.<Object>asList("cash"));
+        return checkoutParams;
+    }
+
+    static private Map<String, Object> amountMoney(double amount, String currencyCode) {
+        Map<String, Object> amountMoney = new HashMap<>();
+        amountMoney.put("amount", amount);
+        amountMoney.put("currencyCode", currencyCode);
+        return amountMoney;
+    }
+
+    /**
+     * @return a mock of the ReadableMap of map, like the bridge passes it, added with the mocks of
+     *     its nested maps and arrays to jsValues as they are read
+     */
+    static private ReadableMap jsMap(Map<String, Object> map, List<Object> jsValues) {
+        ReadableMap jsMap = mock(ReadableMap.class, new JsValueAnswer(map, jsValues));
+        jsValues.add(jsMap);
+        return jsMap;
+    }
+
+    static private int countCalls(List<Object> jsValues) {
+        int callCount = 0;
+        for (Object jsValue : jsValues) {
+            callCount += mockingDetails(jsValue).getInvocations().size();
+        }
+        return callCount;
+    }
+
+    /**
+     * Answers the calls on a ReadableMap or ReadableArray mock from the map or list it stands for.
+     */
+    private static final class JsValueAnswer implements Answer<Object> {
+        private final Object value;
+        private final List<Object> jsValues;
+
+        JsValueAnswer(Object value, List<Object> jsValues) {
+            this.value = value;
+            this.jsValues = jsValues;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Object answer(InvocationOnMock invocation) {
+            String methodName = invocation.getMethod().getName();
+            if (methodName.equals("toHashMap")) {
+                return new HashMap<>((Map<String, Object>) value);
+            }
+            if (methodName.equals("size")) {
+                return ((List<Object>) value).size();
+            }
+            Object key = invocation.getArgument(0);
+            if (methodName.equals("hasKey")) {
+                return ((Map<String, Object>) value).containsKey(key);
+            }
+            Object element = value instanceof Map ? ((Map<String, Object>) value).get(key) : ((List<Object>) value).get((Integer) key);
+            switch (methodName) {
+                case "getType":
+                    return element instanceof Map ? ReadableType.Map
+                            : element instanceof List ? ReadableType.Array
+                            : element instanceof String ? ReadableType.String
+                            : element instanceof Boolean ? ReadableType.Boolean
+                            : ReadableType.Number;
+                case "getMap":
+                    return jsMap((Map<String, Object>) element, jsValues);
+                case "getArray":
+                    ReadableArray jsArray = mock(ReadableArray.class, new JsValueAnswer(element, jsValues));
+                    jsValues.add(jsArray);
+                    return jsArray;
+                case "getInt":
+                    return ((Double) element).intValue();
+                default:
+                    return element;
+            }
+        }
+    }
+
+    /**
+     * The decoding that CheckoutParametersDecoder replaced, which validated the ReadableMap and then
+     * built the parameters from it, reading each field through its own calls. Kept to compare the
+     * calls of both.
+     */
+    private static final class PerKeyDecoder {
+        static CheckoutParameters decode(ReadableMap jsCheckoutParameters) {
+            assertTrue(validateJSCheckoutParams(jsCheckoutParameters));
+            ReadableMap jsAmountMoney = jsCheckoutParameters.getMap("amountMoney");
+            Money amountMoney = new Money(
+                    jsAmountMoney.getInt("amount"),
+                    jsAmountMoney.hasKey("currencyCode") ? CurrencyCode.valueOf(jsAmountMoney.getString("currencyCode")) : CurrencyCode.current());
+
+            CheckoutParameters.Builder checkoutParamsBuilder = CheckoutParameters.newBuilder(amountMoney);
+            if (jsCheckoutParameters.hasKey("note")) {
+                checkoutParamsBuilder.note(jsCheckoutParameters.getString("note"));
+            }
+            if (jsCheckoutParameters.hasKey("skipReceipt")) {
+                checkoutParamsBuilder.skipReceipt(jsCheckoutParameters.getBoolean("skipReceipt"));
+            }
+            if (jsCheckoutParameters.hasKey("collectSignature")) {
+                checkoutParamsBuilder.collectSignature(jsCheckoutParameters.getBoolean("collectSignature"));
+            }
+            if (jsCheckoutParameters.hasKey("allowSplitTender")) {
+                checkoutParamsBuilder.allowSplitTender(jsCheckoutParameters.getBoolean("allowSplitTender"));
+            }
+            if (jsCheckoutParameters.hasKey("delayCapture")) {
+                checkoutParamsBuilder.delayCapture(jsCheckoutParameters.getBoolean("delayCapture"));
+            }
+            if (jsCheckoutParameters.hasKey("tipSettings")) {
+                checkoutParamsBuilder.tipSettings(buildTipSettings(jsCheckoutParameters.getMap("tipSettings")));
+            }
+            if (jsCheckoutParameters.hasKey("additionalPaymentTypes")) {
+                checkoutParamsBuilder.additionalPaymentTypes(buildAdditionalPaymentTypes(jsCheckoutParameters.getArray("additionalPaymentTypes")));
+            }
+            return checkoutParamsBuilder.build();
+        }
+
+        static private boolean validateJSCheckoutParams(ReadableMap jsCheckoutParams) {
+            if (!jsCheckoutParams.hasKey("amountMoney") || jsCheckoutParams.getType("amountMoney") != ReadableType.Map) {
+                return false;
+            } else if (jsCheckoutParams.hasKey("skipReceipt") && jsCheckoutParams.getType("skipReceipt") != ReadableType.Boolean) {
+                return false;
+            } else if (jsCheckoutParams.hasKey("collectSignature") && jsCheckoutParams.getType("collectSignature") != ReadableType.Boolean) {
+                return false;
+            } else if (jsCheckoutParams.hasKey("allowSplitTender") && jsCheckoutParams.getType("allowSplitTender") != ReadableType.Boolean) {
+                return false;
+            } else if (jsCheckoutParams.hasKey("delayCapture") && jsCheckoutParams.getType("delayCapture") != ReadableType.Boolean) {
+                return false;
+            } else if (jsCheckoutParams.hasKey("note") && jsCheckoutParams.getType("note") != ReadableType.String) {
+                return false;
+            } else if (jsCheckoutParams.hasKey("tipSettings") && jsCheckoutParams.getType("tipSettings") != ReadableType.Map) {
+                return false;
+            } else if (jsCheckoutParams.hasKey("additionalPaymentTypes") && jsCheckoutParams.getType("additionalPaymentTypes") != ReadableType.Array) {
+                return false;
+            }
+
+            ReadableMap amountMoney = jsCheckoutParams.getMap("amountMoney");
+            if (!amountMoney.hasKey("amount") || amountMoney.getType("amount") != ReadableType.Number) {
+                return false;
+            }
+            if (amountMoney.hasKey("currencyCode") && amountMoney.getType("currencyCode") != ReadableType.String) {
+                return false;
+            }
+            if (amountMoney.hasKey("currencyCode")) {
+                try {
+                    CurrencyCode.valueOf(amountMoney.getString("currencyCode"));
+                } catch (IllegalArgumentException ex) {
+                    return false;
+                }
+            }
+
+            if (jsCheckoutParams.hasKey("tipSettings")) {
+                ReadableMap tipSettings = jsCheckoutParams.getMap("tipSettings");
+                if (tipSettings.hasKey("showCustomTipField") && tipSettings.getType("showCustomTipField") != ReadableType.Boolean) {
+                    return false;
+                } else if (tipSettings.hasKey("showSeparateTipScreen") && tipSettings.getType("showSeparateTipScreen") != ReadableType.Boolean) {
+                    return false;
+                } else if (tipSettings.hasKey("tipPercentages") && tipSettings.getType("tipPercentages") != ReadableType.Array) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        static private TipSettings buildTipSettings(ReadableMap tipSettingsConfig) {
+            TipSettings.Builder tipSettingsBuilder = TipSettings.newBuilder();
+            if (tipSettingsConfig.hasKey("showCustomTipField")) {
+                tipSettingsBuilder.showCustomTipField(tipSettingsConfig.getBoolean("showCustomTipField"));
+            }
+            if (tipSettingsConfig.hasKey("showSeparateTipScreen")) {
+                tipSettingsBuilder.showSeparateTipScreen(tipSettingsConfig.getBoolean("showSeparateTipScreen"));
+            }
+            if (tipSettingsConfig.hasKey("tipPercentages")) {
+                ReadableArray tipPercentages = tipSettingsConfig.getArray("tipPercentages");
+                List<Integer> percentagesList = new ArrayList<>();
+                for (int i = 0; i < tipPercentages.size(); i++) {
+                    percentagesList.add(tipPercentages.getInt(i));
+                }
+                tipSettingsBuilder.tipPercentages(percentagesList);
+            }
+            return tipSettingsBuilder.build();
+        }
+
+        static private Set<AdditionalPaymentType> buildAdditionalPaymentTypes(ReadableArray additionalPaymentTypes) {
+            Set<AdditionalPaymentType> types = new LinkedHashSet<>();
+            for (int i = 0; i < additionalPaymentTypes.size(); i++) {
+                switch (additionalPaymentTypes.getString(i)) {
+                    case "cash":
+                        types.add(AdditionalPaymentType.CASH);
+                        break;
+                    case "manual_card_entry":
+                        types.add(AdditionalPaymentType.MANUAL_CARD_ENTRY);
+                        break;
+                    default:
+                        types.add(AdditionalPaymentType.OTHER);
+                        break;
+                }
+            }
+            return types;
+        }
+    }
+
+    private static final class CountingMap extends HashMap<String, Object> {
+        private final Map<Object, Integer> getCounts = new HashMap<>();
+
+        @Override
+        public Object get(Object key) {
+            Integer count = getCounts.get(key);
+            getCounts.put(key, count != null ? count + 1 : 1);
+            return super.get(key);
+        }
+
+        int getCount(String key) {
+            Integer count = getCounts.get(key);
+            return count != null ? count : 0;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DateFormatUtilsTest {
+    private static final String[] TIME_ZONE_IDS = {
+        "UTC", "America/Los_Angeles", "Asia/Kolkata", "Pacific/Kiritimati", "Pacific/Pago_Pago",
+    };
+    // 0001-01-01T00:00:00Z to 9999-12-31T23:59:59Z, the years that fit in four digits
+    private static final long MIN_MILLIS = -62135596800000L;
+    private static final long MAX_MILLIS = 253402300799000L;
+
+    private TimeZone defaultTimeZone;
+
+    @Before
+    public void setUp() {
+        defaultTimeZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultTimeZone);
+    }
+
+    @Test
+    public void formatsLeapDays() {
+        for (String timeZoneId : TIME_ZONE_IDS) {
+            TimeZone.setDefault(TimeZone.getTimeZone(timeZoneId));
+            assertEquals("2000-02-29T00:00:00Z", DateFormatUtils.formatISO8601UTC(new Date(951782400000L)));
+            assertEquals("2000-03-01T00:00:00Z", DateFormatUtils.formatISO8601UTC(new Date(951868800000L)));
+            assertEquals("2024-02-29T23:59:59Z", DateFormatUtils.formatISO8601UTC(new Date(1709251199000L)));
+            assertEquals("2024-03-01T00:00:00Z", DateFormatUtils.formatISO8601UTC(new Date(1709251200000L)));
+        }
+    }
+
+    @Test
+    public void formatsCenturiesThatAreNotLeapYears() {
+        for (String timeZoneId : TIME_ZONE_IDS) {
+            TimeZone.setDefault(TimeZone.getTimeZone(timeZoneId));
+            assertEquals("1900-02-28T23:59:59Z", DateFormatUtils.formatISO8601UTC(new Date(-2203891201000L)));
+            assertEquals("1900-03-01T00:00:00Z", DateFormatUtils.formatISO8601UTC(new Date(-2203891200000L)));
+            assertEquals("2100-02-28T23:59:59Z", DateFormatUtils.formatISO8601UTC(new Date(4107542399000L)));
+            assertEquals("2100-03-01T00:00:00Z", DateFormatUtils.formatISO8601UTC(new Date(4107542400000L)));
+        }
+    }
+
+    @Test
+    public void formatsTimesBeforeTheEpoch() {
+        for (String timeZoneId : TIME_ZONE_IDS) {
+            TimeZone.setDefault(TimeZone.getTimeZone(timeZoneId));
+            assertEquals("1970-01-01T00:00:00Z", DateFormatUtils.formatISO8601UTC(new Date(0L)));
+            assertEquals("1969-12-31T23:59:59Z", DateFormatUtils.formatISO8601UTC(new Date(-1L)));
+            assertEquals("1969-12-31T23:59:59Z", DateFormatUtils.formatISO8601UTC(new Date(-1000L)));
+            assertEquals("1969-12-31T23:59:58Z", DateFormatUtils.formatISO8601UTC(new Date(-1001L)));
+            assertEquals("0001-01-01T00:00:00Z", DateFormatUtils.formatISO8601UTC(new Date(MIN_MILLIS)));
+        }
+    }
+
+    @Test
+    public void matchesAUtcFormatterInEveryTimeZone() {
+        Random random = new Random(42L);
+        for (String timeZoneId : TIME_ZONE_IDS) {
+            TimeZone.setDefault(TimeZone.getTimeZone(timeZoneId));
+            SimpleDateFormat utcFormat = newUtcFormat();
+            for (int i = 0; i < 10000; i++) {
+                long millis = MIN_MILLIS + (long) (random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+                Date date = new Date(millis);
+                assertEquals(String.valueOf(millis), utcFormat.format(date), DateFormatUtils.formatISO8601UTC(date));
+            }
+        }
+    }
+
+    static private SimpleDateFormat newUtcFormat() {
+        SimpleDateFormat utcFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        TimeZone utc = TimeZone.getTimeZone("UTC");
+        // Proleptic Gregorian, like the formatter under test, rather than Julian before 1582
+        GregorianCalendar calendar = new GregorianCalendar(utc, Locale.US);
+        calendar.setGregorianChange(new Date(Long.MIN_VALUE));
+        utcFormat.setCalendar(calendar);
+        return utcFormat;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.squareup.sdk.reader.react.internal.OperationCoordinator.Operation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.junit.Test;
+
+public class OperationCoordinatorTest {
+    private static final int THREAD_COUNT = 8;
+    private static final int ATTEMPTS_PER_THREAD = 100000;
+
+    @Test
+    public void exclusiveOperationsConflict() {
+        OperationCoordinator coordinator = new OperationCoordinator();
+
+        assertNull(coordinator.tryStart(Operation.CHECKOUT));
+        assertEquals(Operation.CHECKOUT, coordinator.tryStart(Operation.CHECKOUT));
+        assertEquals(Operation.CHECKOUT, coordinator.tryStart(Operation.READER_SETTINGS));
+        assertEquals(Operation.CHECKOUT, coordinator.tryStart(Operation.STORE_CUSTOMER_CARD));
+        assertNull(coordinator.tryStart(Operation.AUTHORIZE));
+        assertEquals(Operation.AUTHORIZE, coordinator.tryStart(Operation.DEAUTHORIZE));
+
+        assertTrue(coordinator.finish(Operation.CHECKOUT));
+        assertFalse(coordinator.finish(Operation.CHECKOUT));
+        assertNull(coordinator.tryStart(Operation.READER_SETTINGS));
+        assertTrue(coordinator.isInProgress(Operation.READER_SETTINGS));
+        assertFalse(coordinator.isInProgress(Operation.CHECKOUT));
+    }
+
+    @Test
+    public void compatibleOperationsOverlap() {
+        OperationCoordinator coordinator = new OperationCoordinator();
+        coordinator.setCompatible(Operation.CHECKOUT, Operation.READER_SETTINGS, true);
+
+        assertTrue(coordinator.isCompatible(Operation.READER_SETTINGS, Operation.CHECKOUT));
+        assertNull(coordinator.tryStart(Operation.CHECKOUT));
+        assertNull(coordinator.tryStart(Operation.READER_SETTINGS));
+        assertEquals(Operation.CHECKOUT, coordinator.tryStart(Operation.STORE_CUSTOMER_CARD));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void operationsNeverOverlapWithThemselves() {
+        new OperationCoordinator().setCompatible(Operation.CHECKOUT, Operation.CHECKOUT, true);
+    }
+
+    @Test
+    public void concurrentOperationsNeverOverlapIncompatibly() throws InterruptedException {
+        final OperationCoordinator coordinator = new OperationCoordinator();
+        coordinator.setCompatible(Operation.CHECKOUT, Operation.AUTHORIZE, true);
+        final Operation[] operations = Operation.values();
+        // Incremented once an operation has started and decremented before it finishes, so a
+        // positive count means that the operation is in progress
+        final AtomicIntegerArray holderCounts = new AtomicIntegerArray(operations.length);
+        final ConcurrentLinkedQueue<String> violations = new ConcurrentLinkedQueue<>();
+        final CountDownLatch startSignal = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            final Random random = new Random(i);
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startSignal.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int attempt = 0; attempt < ATTEMPTS_PER_THREAD; attempt++) {
+                        Operation operation = operations[random.nextInt(operations.length)];
+                        if (coordinator.tryStart(operation) != null) {
+                            continue;
+                        }
+                        if (holderCounts.incrementAndGet(operation.ordinal()) != 1) {
+                            violations.add(operation + " overlapped with itself");
+                        }
+                        for (Operation otherOperation : operations) {
+                            if (otherOperation != operation
+                                    && holderCounts.get(otherOperation.ordinal()) > 0
+                                    && !coordinator.isCompatible(operation, otherOperation)) {
+                                violations.add(operation + " overlapped with " + otherOperation);
+                            }
+                        }
+                        // Hold the operation for a moment so that other threads race to start theirs
+                        Thread.yield();
+                        holderCounts.decrementAndGet(operation.ordinal());
+                        if (!coordinator.finish(operation)) {
+                            violations.add(operation + " was not in progress when finished");
+                        }
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        startSignal.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(violations.toString(), violations.isEmpty());
+        for (Operation operation : operations) {
+            assertFalse(operation.toString(), coordinator.isInProgress(operation));
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TransactionJournalTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int RECORD_COUNT = 100;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private File compactionFile;
+    private long now;
+
+    @Before
+    public void setUp() {
+        file = new File(folder.getRoot(), "journal.log");
+        compactionFile = new File(folder.getRoot(), "journal.log.compact");
+        now = System.currentTimeMillis();
+    }
+
+    @Test
+    public void findsResultsByTransactionIds() throws Exception {
+        TransactionJournal journal = newJournalWithRecords();
+
+        assertEquals("[5]", journal.find("c5", null));
+        assertEquals("[6]", journal.find(null, "t6"));
+        assertNull(journal.find(null, "t5"));
+        assertNull(journal.find("missing", null));
+    }
+
+    @Test
+    public void queriesPagesNewestFirst() throws Exception {
+        TransactionJournal journal = newJournalWithRecords();
+
+        TransactionJournal.Page page = journal.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, 3);
+        assertEquals(Arrays.asList("[99]", "[98]", "[97]"), page.results);
+        page = journal.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, page.nextCursor, 3);
+        assertEquals(Arrays.asList("[96]", "[95]", "[94]"), page.results);
+        page = journal.query(createdAt(20), createdAt(23), null, null, null, 10);
+        assertEquals(Arrays.asList("[23]", "[22]", "[21]", "[20]"), page.results);
+        assertNull(page.nextCursor);
+    }
+
+    @Test
+    public void queriesByCard() throws Exception {
+        TransactionJournal journal = newJournalWithRecords();
+
+        TransactionJournal.Page page = journal.query(Long.MIN_VALUE, Long.MAX_VALUE, "VISA", "1111", null, 100);
+        assertEquals(Arrays.asList("[90]", "[80]", "[70]", "[60]", "[50]", "[40]", "[30]", "[20]", "[10]", "[0]"), page.results);
+        assertNull(page.nextCursor);
+        page = journal.query(Long.MIN_VALUE, Long.MAX_VALUE, null, "1111", null, 2);
+        assertEquals(Arrays.asList("[90]", "[80]"), page.results);
+        page = journal.query(Long.MIN_VALUE, Long.MAX_VALUE, "MASTERCARD", "1111", null, 2);
+        assertEquals(Collections.<String>emptyList(), page.results);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownCursors() throws Exception {
+        newJournalWithRecords().query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, "cursor", 3);
+    }
+
+    @Test
+    public void truncatesATornTail() throws Exception {
+        newJournalWithRecords();
+        long length = file.length();
+        try (FileOutputStream output = new FileOutputStream(file, true)) {
+            // The header of a record longer than the bytes that follow it
+            output.write(new byte[] {0, 0, 0, 50, 1, 2, 3});
+        }
+
+        TransactionJournal journal = reopenJournal();
+
+        assertEquals("[99]", journal.find("c99", null));
+        assertEquals(RECORD_COUNT, countResults(journal));
+        assertEquals(length, file.length());
+    }
+
+    @Test
+    public void truncatesACorruptRecord() throws Exception {
+        newJournalWithRecords();
+        long length = file.length();
+        try (RandomAccessFile log = new RandomAccessFile(file, "rw")) {
+            log.seek(length - 2);
+            log.write('x');
+        }
+
+        TransactionJournal journal = reopenJournal();
+
+        assertNull(journal.find("c99", null));
+        assertEquals("[98]", journal.find("c98", null));
+        assertEquals(RECORD_COUNT - 1, countResults(journal));
+        assertTrue(file.length() < length);
+    }
+
+    @Test
+    public void replacesResultsAppendedAgain() throws Exception {
+        TransactionJournal journal = newJournalWithRecords();
+        journal.append(createdAt(RECORD_COUNT), "c10", "t10", new String[] {"VISA/2222", "/2222"}, payload("[\"again\"]"));
+        journal.awaitPendingWrites();
+
+        assertEquals("[\"again\"]", journal.find("c10", null));
+        assertEquals("[\"again\"]", journal.find(null, "t10"));
+        assertEquals(RECORD_COUNT, countResults(journal));
+        assertEquals(Arrays.asList("[90]", "[80]", "[70]", "[60]", "[50]", "[40]", "[30]", "[20]", "[0]"),
+                journal.query(Long.MIN_VALUE, Long.MAX_VALUE, "VISA", "1111", null, 100).results);
+        // Replaced records are still skipped once the log is opened again
+        assertEquals(RECORD_COUNT, countResults(reopenJournal()));
+    }
+
+    @Test
+    public void removesRecordsOlderThanTheMaximumAge() throws Exception {
+        TransactionJournal journal = newJournalWithRecords();
+
+        // Keeps the records created in the last 99.5 seconds, from c51 on
+        journal.setEnabled(true, 99500, TransactionJournal.DEFAULT_MAX_BYTES);
+        journal.append(now, "new", null, new String[0], payload("[\"new\"]"));
+        journal.awaitPendingWrites();
+
+        assertNull(journal.find("c0", null));
+        assertNull(journal.find("c50", null));
+        assertEquals("[90]", journal.find("c90", null));
+        assertEquals("[\"new\"]", journal.find("new", null));
+        assertFalse(compactionFile.exists());
+    }
+
+    @Test
+    public void removesTheOldestRecordsPastTheMaximumSize() throws Exception {
+        TransactionJournal journal = newJournalWithRecords();
+        long maxBytes = file.length();
+
+        journal.setEnabled(true, TransactionJournal.DEFAULT_MAX_AGE_MS, maxBytes);
+        journal.append(now, "new", null, new String[0], payload("[\"new\"]"));
+        journal.awaitPendingWrites();
+
+        assertTrue(file.length() <= maxBytes / 4 * 3);
+        assertEquals("[\"new\"]", journal.find("new", null));
+        assertEquals("[99]", journal.find("c99", null));
+        assertNull(journal.find("c0", null));
+        int resultCount = countResults(journal);
+
+        TransactionJournal reopenedJournal = reopenJournal();
+        assertEquals("[\"new\"]", reopenedJournal.find("new", null));
+        assertEquals(resultCount, countResults(reopenedJournal));
+    }
+
+    @Test
+    public void disablingDeletesTheJournal() throws Exception {
+        TransactionJournal journal = newJournalWithRecords();
+        assertTrue(file.exists());
+
+        journal.setEnabled(false, TransactionJournal.DEFAULT_MAX_AGE_MS, TransactionJournal.DEFAULT_MAX_BYTES);
+        journal.append(now, "new", null, new String[0], payload("[\"new\"]"));
+        journal.awaitPendingWrites();
+
+        assertFalse(file.exists());
+        assertNull(journal.find("c5", null));
+        assertEquals(0, countResults(journal));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void lookupsOfADisabledJournalDoNotOpenTheLog() throws Exception {
+        TransactionJournal journal = new TransactionJournal(file, compactionFile);
+
+        assertNull(journal.find("c5", null));
+        assertNull(journal.find(null, "t6"));
+        assertEquals(0, countResults(journal));
+        assertFalse(file.exists());
+    }
+
+    private TransactionJournal newJournalWithRecords() throws InterruptedException {
+        TransactionJournal journal = new TransactionJournal(file, compactionFile);
+        journal.setEnabled(true, TransactionJournal.DEFAULT_MAX_AGE_MS, TransactionJournal.DEFAULT_MAX_BYTES);
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            String[] cardKeys = i % 10 == 0 ? new String[] {"VISA/1111", "/1111"} : new String[0];
+            journal.append(createdAt(i), "c" + i, i % 2 == 0 ? "t" + i : null, cardKeys, payload("[" + i + "]"));
+        }
+        journal.awaitPendingWrites();
+        return journal;
+    }
+
+    /**
+     * Opens the log written by an earlier journal, like the journal of a new process once it is
+     * enabled.
+     */
+    private TransactionJournal reopenJournal() throws InterruptedException {
+        TransactionJournal journal = new TransactionJournal(file, compactionFile);
+        journal.setEnabled(true, TransactionJournal.DEFAULT_MAX_AGE_MS, TransactionJournal.DEFAULT_MAX_BYTES);
+        journal.awaitPendingWrites();
+        return journal;
+    }
+
+    /**
+     * Record i was created (100 - i) seconds ago, 10 ms apart.
+     */
+    private long createdAt(int i) {
+        return now - 100000 + i * 10;
+    }
+
+    static private byte[] payload(String compactResult) {
+        return compactResult.getBytes(UTF_8);
+    }
+
+    static private int countResults(TransactionJournal journal) throws IOException {
+        return journal.query(Long.MIN_VALUE, Long.MAX_VALUE, null, null, null, Integer.MAX_VALUE).results.size();
+    }
+}
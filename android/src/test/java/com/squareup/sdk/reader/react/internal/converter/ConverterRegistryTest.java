@@ -0,0 +1,107 @@
+/*
+Copyright 2022 Square Inc.
+
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+*/
+package com.squareup.sdk.reader.react.internal.converter;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import com.squareup.sdk.reader.checkout.Card;
+import com.squareup.sdk.reader.checkout.Tender;
+import com.squareup.sdk.reader.checkout.TenderCardDetails;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.Test;
+
+public class ConverterRegistryTest {
+    // Room for the allocation counter itself, far below one allocation per lookup
+    private static final long MAX_ALLOCATED_BYTES = 1024;
+    private static final int LOOKUP_ROUNDS = 10000;
+
+    @Test
+    public void convertersAreShared() {
+        ConverterRegistry registry = ConverterRegistry.getInstance();
+
+        assertSame(registry, ConverterRegistry.getInstance());
+        assertSame(registry.getCardConverter(), registry.getCardConverter());
+        assertSame(registry.getCheckoutResultConverter(), registry.getCheckoutResultConverter());
+        assertSame(registry.getCompactCheckoutResultConverter(), registry.getCompactCheckoutResultConverter());
+        assertSame(registry.getLocationConverter(), registry.getLocationConverter());
+    }
+
+    @Test
+    public void enumValuesAreTheTableValues() {
+        ConverterRegistry registry = ConverterRegistry.getInstance();
+
+        for (Card.Brand brand : Card.Brand.values()) {
+            assertSame(registry.getCardBrandValues().get(CardConverter.brandTable.getIndex(brand)),
+                    registry.getCardBrandValue(brand));
+        }
+        for (TenderCardDetails.EntryMethod entryMethod : TenderCardDetails.EntryMethod.values()) {
+            assertSame(registry.getEntryMethodValues().get(TenderCardDetailsConverter.entryMethodTable.getIndex(entryMethod)),
+                    registry.getEntryMethodValue(entryMethod));
+        }
+        for (Tender.Type tenderType : Tender.Type.values()) {
+            assertSame(registry.getTenderTypeValues().get(TenderConverter.tenderTypeTable.getIndex(tenderType)),
+                    registry.getTenderTypeValue(tenderType));
+        }
+    }
+
+    @Test
+    public void lookupsDoNotAllocate() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationCounter = (com.sun.management.ThreadMXBean) threadMXBean;
+        assumeTrue(allocationCounter.isThreadAllocatedMemorySupported());
+        allocationCounter.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        // The first rounds load classes and compile the lookups
+        int lookupCount = lookUpAll(LOOKUP_ROUNDS);
+        long allocatedBytesBefore = allocationCounter.getThreadAllocatedBytes(threadId);
+        lookupCount += lookUpAll(LOOKUP_ROUNDS);
+        long allocatedBytes = allocationCounter.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+
+        assertTrue(lookupCount > 0);
+        assertTrue(allocatedBytes + " bytes allocated", allocatedBytes < MAX_ALLOCATED_BYTES);
+    }
+
+    static private int lookUpAll(int rounds) {
+        ConverterRegistry registry = ConverterRegistry.getInstance();
+        Card.Brand[] brands = Card.Brand.values();
+        TenderCardDetails.EntryMethod[] entryMethods = TenderCardDetails.EntryMethod.values();
+        Tender.Type[] tenderTypes = Tender.Type.values();
+        int lookupCount = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (Card.Brand brand : brands) {
+                lookupCount += registry.getCardBrandValue(brand).length() + CardConverter.brandTable.getIndex(brand);
+            }
+            for (TenderCardDetails.EntryMethod entryMethod : entryMethods) {
+                lookupCount += registry.getEntryMethodValue(entryMethod).length()
+                        + TenderCardDetailsConverter.entryMethodTable.getIndex(entryMethod);
+            }
+            for (Tender.Type tenderType : tenderTypes) {
+                lookupCount += registry.getTenderTypeValue(tenderType).length()
+                        + TenderConverter.tenderTypeTable.getIndex(tenderType);
+            }
+            if (ResultFieldMask.SUMMARY.includes("tenders")
+                    && ResultFieldMask.SUMMARY.get("tenders").includes("cardDetails")) {
+                lookupCount++;
+            }
+        }
+        return lookupCount;
+    }
+}
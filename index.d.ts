@@ -9,16 +9,85 @@ declare module "react-native-square-reader-sdk" {
 	export function deauthorizeAsync(): Promise<void>
 	/** Returns the currently authorized location. */
 	export function getAuthorizedLocationAsync(): Promise<Location>
+	/** Synchronous version of isAuthorizedAsync. Android only, not available while debugging JS remotely. */
+	export function isAuthorizedSync(): boolean
+	/** Synchronous version of isAuthorizationInProgressAsync. Android only, not available while debugging JS remotely. */
+	export function isAuthorizationInProgressSync(): boolean
+	/** Synchronous version of canDeauthorizeAsync. Android only, not available while debugging JS remotely. */
+	export function canDeauthorizeSync(): boolean
+	/** Synchronous version of getAuthorizedLocationAsync. Returns null when Reader SDK is not authorized. Android only, not available while debugging JS remotely. */
+	export function getAuthorizedLocationSync(): Location | null
+	/** Returns the whole authorization state, read once, in a single call. Android only. */
+	export function getAuthorizationSnapshotAsync(includeOperationsInProgress?: boolean): Promise<AuthorizationSnapshot>
+	/** Returns how many getAuthorizedLocationAsync calls were served from the cached location. Android only. */
+	export function getAuthorizedLocationCacheStatsAsync(): Promise<CacheStats>
+	/** Returns how many calls joined an identical call already in progress instead of starting their own. Android only. */
+	export function getCoalescedCallStatsAsync(): Promise<CoalescedCallStats>
+	/** Writes the recent native events of all modules to a Chrome trace file and returns its path. Android only. */
+	export function dumpFlightRecordingAsync(): Promise<string>
+	/** Returns the calls, errors, calls in flight and latencies of the native module methods. Android only. */
+	export function getMethodMetricsAsync(): Promise<MethodMetrics>
+	/** Writes the method metrics to a file in the Prometheus text format and returns its path. Android only. */
+	export function writeMethodMetricsAsync(): Promise<string>
 	/** Verifies Reader SDK is currently authorized for payment collection. */
 	export function isAuthorizedAsync(): Promise<boolean>
 	/** Verifies Reader SDK is currently authorizing. */
 	export function isAuthorizationInProgressAsync(): Promise<boolean>
 	/** Begins the checkout workflow. */
 	export function startCheckoutAsync(checkoutParams: CheckoutParameter): Promise<CheckoutResult>
+	/** Registers checkout parameters, without amountMoney, to reuse for later checkouts. Android only. */
+	export function registerCheckoutTemplateAsync(templateId: string, templateParams: CheckoutTemplateParameter): Promise<void>
+	/** Removes a registered checkout template. Resolves true if the template existed. Android only. */
+	export function unregisterCheckoutTemplateAsync(templateId: string): Promise<boolean>
+	/** Begins the checkout workflow with a registered checkout template. Android only. */
+	export function startCheckoutWithTemplateAsync(templateId: string, amountMoney: Money): Promise<CheckoutResult>
+	/** Begins the checkout workflow with the parameters of the last checkout started. Android only. */
+	export function repeatLastCheckoutAsync(): Promise<CheckoutResult>
+	/** Decodes checkout parameters and registers the checkout callback ahead of time. Resolves an opaque handle that expires after 5 minutes. Android only. */
+	export function prepareCheckoutAsync(checkoutParams: CheckoutParameter): Promise<string>
+	/** Begins the checkout workflow prepared with prepareCheckoutAsync. Android only. */
+	export function startPreparedCheckoutAsync(handle: string): Promise<CheckoutResult>
+	/** Releases a prepared checkout that will not be started. Resolves true if the handle was still prepared. Android only. */
+	export function disposePreparedCheckoutAsync(handle: string): Promise<boolean>
+	/** When enabled, checkout results and their tenders also include createdAtMillis. Android only. */
+	export function setEpochMillisTimestampsEnabledAsync(enabled: boolean): Promise<void>
+	/** When enabled, checkout results cross the bridge in a compact format and are expanded in JS, tenders on first read. Results are unchanged. Android only. */
+	export function setCompactCheckoutResultsEnabledAsync(enabled: boolean): Promise<void>
+	/** When enabled, checkouts started while another checkout is in progress are queued natively instead of rejected. maxDepth defaults to 5. Android only. */
+	export function setCheckoutQueueEnabledAsync(enabled: boolean, maxDepth?: number): Promise<void>
+	/** Returns the checkouts waiting in the checkout queue, in the order they will start. Android only. */
+	export function getCheckoutQueueAsync(): Promise<QueuedCheckout[]>
+	/** Cancels a queued checkout, which then throws CheckoutErrorCanceled. Resolves true if the checkout was still queued. Android only. */
+	export function cancelQueuedCheckoutAsync(queueId: string): Promise<boolean>
+	/** When enabled, every checkout result is appended to a journal on the device that can be searched without a server round trip. Disabling deletes the journal. Android only. */
+	export function setTransactionJournalEnabledAsync(enabled: boolean, options?: TransactionJournalOptions): Promise<void>
+	/** Returns the journaled checkout result with the given transactionClientId, or else transactionId, or null if there is none. Android only. */
+	export function findJournalTransactionAsync(lookup: { transactionClientId?: string, transactionId?: string }): Promise<CheckoutResult | null>
+	/** Returns one page of journaled checkout results, newest first. Android only. */
+	export function queryJournalTransactionsAsync(query?: TransactionJournalQuery): Promise<TransactionJournalPage>
+	/** Returns the totals of the checkout results created in a time range, by currency code. Kept natively as results arrive. Android only. */
+	export function getCheckoutTotalsAsync(range: { fromMillis: number, toMillis: number }): Promise<{ [currencyCode: string]: CheckoutTotals }>
+	/** Returns and removes the results of checkouts that completed after the React instance that started them was destroyed. Android only. */
+	export function drainCheckoutResultMailboxAsync(): Promise<CheckoutMailboxEntry[]>
+	/** Returns the entries of the checkout result mailbox without removing them. Android only. */
+	export function peekCheckoutResultMailboxAsync(): Promise<CheckoutMailboxEntry[]>
+	/** Removes the checkout result mailbox entries with the given ids once they are handled. Android only. */
+	export function acknowledgeCheckoutResultMailboxAsync(ids: string[]): Promise<void>
+	/** Cancels the checkout in progress, which then throws OperationCanceled. Resolves true if a checkout was in progress. Android only. */
+	export function cancelCheckoutAsync(): Promise<boolean>
 	/** Starts the Reader settings flow for connecting Square Reader. */
-	export function startReaderSettingsAsync(): Promise<void>
+	export function startReaderSettingsAsync(options?: OperationOptions): Promise<void>
+	/** Cancels the Reader settings flow in progress, which then throws OperationCanceled. Resolves true if the flow was in progress. Android only. */
+	export function cancelReaderSettingsAsync(): Promise<boolean>
 	/** Used to start the store a card for a customer flow. */
-	export function startStoreCardAsync(customerId: string): Promise<Card>
+	export function startStoreCardAsync(customerId: string, options?: OperationOptions): Promise<Card>
+	/** Cancels the store a card for a customer flow in progress, which then throws OperationCanceled. Resolves true if the flow was in progress. Android only. */
+	export function cancelStoreCardAsync(): Promise<boolean>
+
+	export interface OperationOptions {
+		/** The time after which the operation throws OperationTimedOut if it has not completed, in milliseconds. Default: undefined (no timeout). Android only. */
+		timeoutMs?: number
+	}
 
 	export interface Money {
 		/** The amount of money, in the smallest denomination of the indicated currency. */
@@ -44,6 +113,75 @@ declare module "react-native-square-reader-sdk" {
 		locationId: string
 	}
 
+	export interface AuthorizationSnapshot {
+		/** Same as isAuthorizedAsync. */
+		isAuthorized: boolean
+		/** Same as isAuthorizationInProgressAsync. */
+		isAuthorizationInProgress: boolean
+		/** Same as canDeauthorizeAsync. */
+		canDeauthorize: boolean
+		/** Same as getAuthorizedLocationAsync, or null when Reader SDK is not authorized. */
+		authorizedLocation: Location | null
+		/** Which plugin operations are waiting for Reader SDK to complete. Only set when requested. */
+		operationsInProgress?: OperationsInProgress
+	}
+
+	export interface OperationsInProgress {
+		authorize: boolean
+		deauthorize: boolean
+		checkout: boolean
+		readerSettings: boolean
+		storeCustomerCard: boolean
+	}
+
+	export interface CacheStats {
+		/** The number of calls served from the cache. */
+		hits: number
+		/** The number of calls that had to read the SDK state. */
+		misses: number
+	}
+
+	export interface LatencyPercentiles {
+		p50: number
+		p99: number
+		p999: number
+	}
+
+	export interface MethodStats {
+		/** The number of calls that settled. */
+		calls: number
+		/** The number of calls that have not settled. */
+		inFlight: number
+		/** The number of rejected calls, by debug code. */
+		errors: { [debugCode: string]: number }
+		/** Milliseconds from the bridge call to the settle. */
+		latencyMs: LatencyPercentiles
+	}
+
+	export interface CallbackStats {
+		count: number
+		/** Milliseconds from the start of the Reader SDK callback to the settle. */
+		latencyMs: LatencyPercentiles
+		/** Milliseconds the Reader SDK callback held the main thread. */
+		mainThreadMs: LatencyPercentiles
+	}
+
+	export interface MethodMetrics {
+		/** Keyed by native method name, such as startCheckout. */
+		methods: { [method: string]: MethodStats }
+		/** Keyed by Reader SDK callback name, such as CheckoutActivityCallback. */
+		callbacks: { [callback: string]: CallbackStats }
+	}
+
+	export interface CoalescedCallStats {
+		/** The number of authorizeAsync calls that joined an authorization in progress with the same code. */
+		authorize: number
+		/** The number of deauthorizeAsync calls that joined a deauthorization in progress. */
+		deauthorize: number
+		/** The number of getAuthorizedLocationAsync calls that shared a check of the cached location in progress. */
+		authorizedLocation: number
+	}
+
 	export interface CheckoutParameter {
 		/** The total payment amount. */
 		amountMoney: Money
@@ -65,8 +203,88 @@ declare module "react-native-square-reader-sdk" {
 		tipSettings?: TipSettings
 		/** Valid payment methods for checkout (in addition to payments via Square Readers). Default: undefined (No additional payment method) */
 		additionalPaymentTypes?: AdditionalPaymentType[]
+		/** The id of the checkout in the checkout queue, if it gets queued. Default: a generated id. Android only. */
+		queueId?: string
+		/** The fields of the checkout result to return, as "summary", "full" or a list of field paths such as "tenders.cardDetails.card.brand". Default: "full". Android only. */
+		resultFields?: "summary" | "full" | string[]
+		/** The time after which the checkout throws OperationTimedOut if it has not completed, in milliseconds. Default: undefined (no timeout). Android only. */
+		timeoutMs?: number
 	}
 
+	export interface CheckoutTotal {
+		/** The number of checkout results, or of tenders in a breakdown. */
+		count: number
+		/** The total amount, in the smallest denomination of the currency. */
+		amount: number
+		/** The tip amount, in the smallest denomination of the currency. */
+		tipAmount: number
+	}
+
+	export interface CheckoutTotals extends CheckoutTotal {
+		tenderTypes: { [tenderType: string]: CheckoutTotal }
+		cardBrands: { [cardBrand: string]: CheckoutTotal }
+		entryMethods: { [entryMethod: string]: CheckoutTotal }
+	}
+
+	export interface TransactionJournalOptions {
+		/** Results older than this are removed. Default: 90. */
+		maxAgeDays?: number
+		/** The oldest results are removed once the journal grows past this size. Default: 16 MB. */
+		maxBytes?: number
+	}
+
+	export interface TransactionJournalQuery {
+		/** Only returns results created at or after this time, in milliseconds since the epoch. */
+		fromMillis?: number
+		/** Only returns results created at or before this time, in milliseconds since the epoch. */
+		toMillis?: number
+		/** Only returns results with a card ending in these digits. */
+		lastFourDigits?: string
+		/** Only returns results with a card of this brand. Ignored unless lastFourDigits is set. */
+		cardBrand?: CardBrand
+		/** The maximum number of results in the page. Default: 50. */
+		limit?: number
+		/** The nextCursor of the previous page. */
+		cursor?: string
+	}
+
+	export interface TransactionJournalPage {
+		results: CheckoutResult[]
+		/** Pass as cursor to get the next page. Null on the last page. */
+		nextCursor: string | null
+	}
+
+	export interface CheckoutMailboxEntry {
+		/** The id to acknowledge the entry with. */
+		id: string
+		/** The requestId of the timed out or canceled checkout that the entry belongs to. */
+		requestId?: string
+		/** The client-generated transaction id of the result. Not set for errors. */
+		transactionClientId?: string
+		/** The full result of the checkout, set when the checkout succeeded. */
+		result?: CheckoutResult
+		/** The error of the checkout, set when the checkout failed. */
+		error?: CheckoutMailboxError
+	}
+
+	export interface CheckoutMailboxError {
+		code: string
+		message: string
+		debugCode: string
+		debugMessage: string
+	}
+
+	export interface QueuedCheckout {
+		/** The id of the queued checkout. */
+		queueId: string
+		/** The position in the queue, starting at 1 for the next checkout to start. */
+		position: number
+		/** The time the checkout has been waiting in the queue, in milliseconds. */
+		waitMs: number
+	}
+
+	export type CheckoutTemplateParameter = Omit<CheckoutParameter, "amountMoney" | "queueId">
+
 	export interface CheckoutResult {
 		/** The total amount of money collected during the checkout flow. */
 		totalMoney: Money
@@ -78,6 +296,8 @@ declare module "react-native-square-reader-sdk" {
 		transactionClientId: string
 		/** The date and time when the transaction was completed as determined by the client device. */
 		createdAt: string
+		/** createdAt in milliseconds since the epoch. Only set when enabled with setEpochMillisTimestampsEnabledAsync. Android only. */
+		createdAtMillis?: number
 		/** The set of tenders associated with a successful transaction. */
 		tenders: Tender[]
 		/** A unique ID issued by Square. Only set for successful transactions that include one or more card tenders. */
@@ -102,6 +322,8 @@ declare module "react-native-square-reader-sdk" {
 		cashDetails: CashDetails
 		/** The date and time when the tender was processed as determined by the client device. */
 		createdAt: string
+		/** createdAt in milliseconds since the epoch. Only set when enabled with setEpochMillisTimestampsEnabledAsync. Android only. */
+		createdAtMillis?: number
 		/** A unique ID issued by Square. Only set for card tenders. */
 		tenderId: string
 		/** The monetary amount added to this tender as a tip. */
@@ -158,6 +380,8 @@ declare module "react-native-square-reader-sdk" {
 
 	// Error codes
 	export const UsageError: string
+	export const OperationTimedOut: string
+	export const OperationCanceled: string
 	export const AuthorizeErrorNoNetwork: string
 	export const CheckoutErrorCanceled: string
 	export const CheckoutErrorSdkNotAuthorized: string
@@ -172,5 +396,7 @@ declare module "react-native-square-reader-sdk" {
 		message: string
 		code?: string
 		debugCode?: string
+		/** Identifies the late result of a timed out or canceled checkout in the checkout result mailbox. Android only. */
+		requestId?: string
 	}
 }
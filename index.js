@@ -14,19 +14,36 @@
  limitations under the License.
 */
 
-import { NativeModules } from 'react-native'; // eslint-disable-line import/no-unresolved
 import ValidateCheckoutParameters from './src/utils';
+import ExpandCompactCheckoutResult from './src/compact';
 
-const {
-  RNReaderSDKAuthorization,
-  RNReaderSDKCheckout,
-  RNReaderSDKReaderSettings,
-  RNReaderSDKStoreCustomerCard,
-} = NativeModules;
+// Native modules are looked up through their codegen specs on each call rather than imported here,
+// so that a module is only created the first time one of its methods is used.
+/* eslint-disable global-require */
+function authorizationModule() {
+  return require('./src/specs/NativeRNReaderSDKAuthorization').default;
+}
+
+function checkoutModule() {
+  return require('./src/specs/NativeRNReaderSDKCheckout').default;
+}
+
+function readerSettingsModule() {
+  return require('./src/specs/NativeRNReaderSDKReaderSettings').default;
+}
+
+function storeCustomerCardModule() {
+  return require('./src/specs/NativeRNReaderSDKStoreCustomerCard').default;
+}
+
+function diagnosticsModule() {
+  return require('./src/specs/NativeRNReaderSDKDiagnostics').default;
+}
+/* eslint-enable global-require */
 
 export async function authorizeAsync(authCode) {
   try {
-    return await RNReaderSDKAuthorization.authorize(authCode);
+    return await authorizationModule().authorize(authCode);
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
@@ -34,7 +51,7 @@ export async function authorizeAsync(authCode) {
 
 export async function deauthorizeAsync() {
   try {
-    await RNReaderSDKAuthorization.deauthorize();
+    await authorizationModule().deauthorize();
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
@@ -42,7 +59,7 @@ export async function deauthorizeAsync() {
 
 export async function isAuthorizedAsync() {
   try {
-    return await RNReaderSDKAuthorization.isAuthorized();
+    return await authorizationModule().isAuthorized();
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
@@ -50,7 +67,7 @@ export async function isAuthorizedAsync() {
 
 export async function isAuthorizationInProgressAsync() {
   try {
-    return await RNReaderSDKAuthorization.isAuthorizationInProgress();
+    return await authorizationModule().isAuthorizationInProgress();
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
@@ -58,7 +75,7 @@ export async function isAuthorizationInProgressAsync() {
 
 export async function canDeauthorizeAsync() {
   try {
-    return await RNReaderSDKAuthorization.canDeauthorize();
+    return await authorizationModule().canDeauthorize();
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
@@ -66,7 +83,74 @@ export async function canDeauthorizeAsync() {
 
 export async function getAuthorizedLocationAsync() {
   try {
-    return await RNReaderSDKAuthorization.authorizedLocation();
+    return await authorizationModule().authorizedLocation();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+// Synchronous getters block the JS thread on a native call. They are only available on Android
+// and are not supported while debugging JS remotely.
+export function isAuthorizedSync() {
+  return authorizationModule().isAuthorizedSync();
+}
+
+export function isAuthorizationInProgressSync() {
+  return authorizationModule().isAuthorizationInProgressSync();
+}
+
+export function canDeauthorizeSync() {
+  return authorizationModule().canDeauthorizeSync();
+}
+
+export function getAuthorizedLocationSync() {
+  return authorizationModule().authorizedLocationSync();
+}
+
+export async function getAuthorizationSnapshotAsync(includeOperationsInProgress = false) {
+  try {
+    const RNReaderSDKAuthorization = authorizationModule();
+    return await RNReaderSDKAuthorization.getAuthorizationSnapshot(includeOperationsInProgress);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function getAuthorizedLocationCacheStatsAsync() {
+  try {
+    return await authorizationModule().getAuthorizedLocationCacheStats();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function getCoalescedCallStatsAsync() {
+  try {
+    return await authorizationModule().getCoalescedCallStats();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function dumpFlightRecordingAsync() {
+  try {
+    return await diagnosticsModule().dumpFlightRecording();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function getMethodMetricsAsync() {
+  try {
+    return await diagnosticsModule().getMethodMetrics();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function writeMethodMetricsAsync() {
+  try {
+    return await diagnosticsModule().writeMethodMetrics();
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
@@ -75,47 +159,275 @@ export async function getAuthorizedLocationAsync() {
 export async function startCheckoutAsync(checkoutParams) {
   try {
     ValidateCheckoutParameters(checkoutParams);
-    return await RNReaderSDKCheckout.startCheckout(checkoutParams);
+    return toCheckoutResult(await checkoutModule().startCheckout(checkoutParams));
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function registerCheckoutTemplateAsync(templateId, templateParams) {
+  try {
+    await checkoutModule().registerCheckoutTemplate(templateId, templateParams);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function unregisterCheckoutTemplateAsync(templateId) {
+  try {
+    return await checkoutModule().unregisterCheckoutTemplate(templateId);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function startCheckoutWithTemplateAsync(templateId, amountMoney) {
+  try {
+    const nativeResult = await checkoutModule().startCheckoutWithTemplate(
+      templateId,
+      amountMoney,
+    );
+    return toCheckoutResult(nativeResult);
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
 }
 
-export async function startReaderSettingsAsync() {
+export async function repeatLastCheckoutAsync() {
   try {
-    await RNReaderSDKReaderSettings.startReaderSettings();
+    return toCheckoutResult(await checkoutModule().repeatLastCheckout());
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
 }
 
-export async function startStoreCardAsync(customerId) {
+export async function prepareCheckoutAsync(checkoutParams) {
   try {
+    ValidateCheckoutParameters(checkoutParams);
+    return await checkoutModule().prepareCheckout(checkoutParams);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function startPreparedCheckoutAsync(handle) {
+  try {
+    return toCheckoutResult(await checkoutModule().startPreparedCheckout(handle));
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function disposePreparedCheckoutAsync(handle) {
+  try {
+    return await checkoutModule().disposePreparedCheckout(handle);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function setEpochMillisTimestampsEnabledAsync(enabled) {
+  try {
+    await checkoutModule().setEpochMillisTimestampsEnabled(enabled);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function setCompactCheckoutResultsEnabledAsync(enabled) {
+  try {
+    await checkoutModule().setCompactCheckoutResultsEnabled(enabled);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function setCheckoutQueueEnabledAsync(enabled, maxDepth = 5) {
+  try {
+    await checkoutModule().setCheckoutQueueEnabled(enabled, maxDepth);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function getCheckoutQueueAsync() {
+  try {
+    return await checkoutModule().getCheckoutQueue();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function cancelQueuedCheckoutAsync(queueId) {
+  try {
+    return await checkoutModule().cancelQueuedCheckout(queueId);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function setTransactionJournalEnabledAsync(enabled, options = {}) {
+  const { maxAgeDays = 90, maxBytes = 16 * 1024 * 1024 } = options;
+  try {
+    const RNReaderSDKCheckout = checkoutModule();
+    await RNReaderSDKCheckout.setTransactionJournalEnabled(enabled, maxAgeDays, maxBytes);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function findJournalTransactionAsync({ transactionClientId, transactionId }) {
+  try {
+    const result = await checkoutModule().findJournalTransaction(
+      transactionClientId === undefined ? null : transactionClientId,
+      transactionId === undefined ? null : transactionId,
+    );
+    return result === null ? null : toCheckoutResult(result);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function queryJournalTransactionsAsync(query = {}) {
+  try {
+    const RNReaderSDKCheckout = checkoutModule();
+    const page = await RNReaderSDKCheckout.queryJournalTransactions({ limit: 50, ...query });
+    return {
+      results: page.results.map(toCheckoutResult),
+      nextCursor: page.nextCursor,
+    };
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function getCheckoutTotalsAsync({ fromMillis, toMillis }) {
+  try {
+    return await checkoutModule().getCheckoutTotals(fromMillis, toMillis);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function drainCheckoutResultMailboxAsync() {
+  try {
+    const entries = await checkoutModule().drainCheckoutResultMailbox();
+    return JSON.parse(entries);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function peekCheckoutResultMailboxAsync() {
+  try {
+    const entries = await checkoutModule().peekCheckoutResultMailbox();
+    return JSON.parse(entries);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function acknowledgeCheckoutResultMailboxAsync(ids) {
+  try {
+    await checkoutModule().acknowledgeCheckoutResultMailbox(ids);
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function cancelCheckoutAsync() {
+  try {
+    return await checkoutModule().cancelCheckout();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function startReaderSettingsAsync(options = {}) {
+  try {
+    const RNReaderSDKReaderSettings = readerSettingsModule();
+    if (options.timeoutMs !== undefined) {
+      await RNReaderSDKReaderSettings.startReaderSettingsWithTimeout(options.timeoutMs);
+    } else {
+      await RNReaderSDKReaderSettings.startReaderSettings();
+    }
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function cancelReaderSettingsAsync() {
+  try {
+    return await readerSettingsModule().cancelReaderSettings();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
+
+export async function startStoreCardAsync(customerId, options = {}) {
+  try {
+    const RNReaderSDKStoreCustomerCard = storeCustomerCardModule();
+    if (options.timeoutMs !== undefined) {
+      return await RNReaderSDKStoreCustomerCard.startStoreCardWithTimeout(
+        customerId,
+        options.timeoutMs,
+      );
+    }
     return await RNReaderSDKStoreCustomerCard.startStoreCard(customerId);
   } catch (ex) {
     throw createReaderSDKError(ex);
   }
 }
 
-// error codes are defined below, both iOS and Android *MUST* return same error for these errors:
-// Usage error
-export const UsageError = 'USAGE_ERROR';
+export async function cancelStoreCardAsync() {
+  try {
+    return await storeCustomerCardModule().cancelStoreCard();
+  } catch (ex) {
+    throw createReaderSDKError(ex);
+  }
+}
 
-// Expected errors:
-// Search KEEP_IN_SYNC_AUTHORIZE_ERROR to update all places
-export const AuthorizeErrorNoNetwork = 'AUTHORIZE_NO_NETWORK';
-// Search KEEP_IN_SYNC_CHECKOUT_ERROR to update all places
-export const CheckoutErrorCanceled = 'CHECKOUT_CANCELED';
-export const CheckoutErrorSdkNotAuthorized = 'CHECKOUT_SDK_NOT_AUTHORIZED';
-// Search KEEP_IN_SYNC_READER_SETTINGS_ERROR to update all places
-export const ReaderSettingsErrorSdkNotAuthorized = 'READER_SETTINGS_SDK_NOT_AUTHORIZED';
-// Search KEEP_IN_SYNC_STORE_CUSTOMER_CARD_ERROR to update all places
-export const StoreCustomerCardCancelled = 'STORE_CUSTOMER_CARD_CANCELED';
-export const StoreCustomerCardInvalidCustomerId = 'STORE_CUSTOMER_CARD_INVALID_CUSTOMER_ID';
-export const StoreCustomerCardSdkNotAuthorized = 'STORE_CUSTOMER_CARD_SDK_NOT_AUTHORIZED';
-export const StoreCustomerCardNoNetwork = 'STORE_CUSTOMER_CARD_NO_NETWORK';
+// Error codes are generated from scripts/constants.json, both iOS and Android return the same
+// codes. On Android each native module also publishes its error codes in its constants.
+export {
+  UsageError,
+  OperationTimedOut,
+  OperationCanceled,
+  AuthorizeErrorNoNetwork,
+  CheckoutErrorCanceled,
+  CheckoutErrorSdkNotAuthorized,
+  ReaderSettingsErrorSdkNotAuthorized,
+  StoreCustomerCardCancelled,
+  StoreCustomerCardInvalidCustomerId,
+  StoreCustomerCardSdkNotAuthorized,
+  StoreCustomerCardNoNetwork,
+} from './src/constants';
+
+// Compact checkout results arrive as arrays, see setCompactCheckoutResultsEnabledAsync
+// and their enum values index the tables published in the checkout module constants
+function toCheckoutResult(nativeResult) {
+  if (!Array.isArray(nativeResult)) {
+    return nativeResult;
+  }
+  const { cardBrands, entryMethods, tenderTypes } = checkoutModule().getConstants();
+  return cardBrands
+    ? ExpandCompactCheckoutResult(nativeResult, { cardBrands, entryMethods, tenderTypes })
+    : ExpandCompactCheckoutResult(nativeResult);
+}
 
 function createReaderSDKError(ex) {
+  // Android passes the error details in userInfo, iOS and the legacy Android format encode
+  // them as JSON in the message
+  if (ex.userInfo && ex.userInfo.debugCode !== undefined) {
+    ex.message = ex.userInfo.message; // eslint-disable-line no-param-reassign
+    ex.debugCode = ex.userInfo.debugCode; // eslint-disable-line no-param-reassign
+    ex.debugMessage = ex.userInfo.debugMessage; // eslint-disable-line no-param-reassign
+    if (ex.userInfo.requestId !== undefined) {
+      // Set on timeouts and cancellations, to match the late result in the checkout result mailbox
+      ex.requestId = ex.userInfo.requestId; // eslint-disable-line no-param-reassign
+    }
+    return ex;
+  }
   try {
     const errorDetails = JSON.parse(ex.message);
     ex.message = errorDetails.message; // eslint-disable-line no-param-reassign
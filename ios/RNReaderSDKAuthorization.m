@@ -19,11 +19,7 @@
 #import "Converters/SQRDLocation+RNReaderSDKAdditions.h"
 
 // Define all the error codes and messages below
-// These error codes and messages **MUST** align with iOS error codes and javascript error codes
-// Search KEEP_IN_SYNC_AUTHORIZE_ERROR to update all places
-
-// Expected errors:
-static NSString *const RNReaderSDKAuthorizeNoNetwork = @"AUTHORIZE_NO_NETWORK";
+// Expected error codes are generated in RNReaderSDKConstants.h
 
 // React native module debug error codes
 static NSString *const RNReaderSDKRNAuthLocationNotAuthorized = @"rn_auth_location_not_authorized";
@@ -27,12 +27,7 @@
 @end
 
 // Define all the error codes and messages below
-// These error codes and messages **MUST** align with iOS error codes and javascript error codes
-// Search KEEP_IN_SYNC_CHECKOUT_ERROR to update all places
-
-// Expected errors:
-static NSString *const RNReaderSDKCheckoutCancelled = @"CHECKOUT_CANCELED";
-static NSString *const RNReaderSDKCheckoutSdkNotAuthorized = @"CHECKOUT_SDK_NOT_AUTHORIZED";
+// Expected error codes are generated in RNReaderSDKConstants.h
 
 // React native module debug error codes
 static NSString *const RNReaderSDKRNCheckoutAlreadyInProgress = @"rn_checkout_already_in_progress";
@@ -0,0 +1,35 @@
+/*
+ Copyright 2022 Square Inc.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+ */
+
+// Generated by scripts/generate-constants.js from scripts/constants.json. Do not edit.
+
+#import <Foundation/Foundation.h>
+
+static NSString *const RNReaderSDKUsageError = @"USAGE_ERROR";
+static NSString *const RNReaderSDKOperationTimedOut = @"OPERATION_TIMED_OUT";
+static NSString *const RNReaderSDKOperationCanceled = @"OPERATION_CANCELED";
+
+static NSString *const RNReaderSDKAuthorizeNoNetwork = @"AUTHORIZE_NO_NETWORK";
+
+static NSString *const RNReaderSDKCheckoutCancelled = @"CHECKOUT_CANCELED";
+static NSString *const RNReaderSDKCheckoutSdkNotAuthorized = @"CHECKOUT_SDK_NOT_AUTHORIZED";
+
+static NSString *const RNReaderSDKReaderSettingsSdkNotAuthorized = @"READER_SETTINGS_SDK_NOT_AUTHORIZED";
+
+static NSString *const RNReaderSDKStoreCustomerCardCancelled = @"STORE_CUSTOMER_CARD_CANCELED";
+static NSString *const RNReaderSDKStoreCustomerCardInvalidCustomerID = @"STORE_CUSTOMER_CARD_INVALID_CUSTOMER_ID";
+static NSString *const RNReaderSDKStoreCustomerCardSdkNotAuthorized = @"STORE_CUSTOMER_CARD_SDK_NOT_AUTHORIZED";
+static NSString *const RNReaderSDKStoreCustomerCardNoNetwork = @"STORE_CUSTOMER_CARD_NO_NETWORK";
@@ -15,8 +15,7 @@
  */
 
 #import <Foundation/Foundation.h>
-
-extern NSString *const RNReaderSDKUsageError;
+#import "RNReaderSDKConstants.h"
 
 
 @interface RNReaderSDKErrorUtilities : NSObject
@@ -17,9 +17,6 @@
 #import "RNReaderSDKErrorUtilities.h"
 @import SquareReaderSDK;
 
-// Usage error
-NSString *const RNReaderSDKUsageError = @"USAGE_ERROR";
-
 
 @implementation RNReaderSDKErrorUtilities
 
@@ -26,11 +26,7 @@
 @end
 
 // Define all the error codes and messages below
-// These error codes and messages **MUST** align with iOS error codes and javascript error codes
-// Search KEEP_IN_SYNC_READER_SETTINGS_ERROR to update all places
-
-// Expected errors:
-static NSString *const RNReaderSDKReaderSettingsSdkNotAuthorized = @"READER_SETTINGS_SDK_NOT_AUTHORIZED";
+// Expected error codes are generated in RNReaderSDKConstants.h
 
 // React native module debug error codes
 static NSString *const RNReaderSDKRNReaderSettingsAlreadyInProgress = @"rn_reader_settings_already_in_progress";
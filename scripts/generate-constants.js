@@ -0,0 +1,231 @@
+/*
+ Copyright 2022 Square Inc.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+
+// Generates the Android, iOS and JS error code and enum tables from constants.json.
+// Run `yarn generate-constants` after editing constants.json and commit the generated files.
+const fs = require('fs');
+const path = require('path');
+
+const rootDir = path.join(__dirname, '..');
+const constants = JSON.parse(fs.readFileSync(path.join(__dirname, 'constants.json'), 'utf8'));
+// The license header of this file, without its comment delimiters
+const license = fs.readFileSync(__filename, 'utf8').split('*/')[0].replace(/^\/\*\n/, '');
+const javaLicense = license.replace(/^ /gm, '').replace(/^http/m, '    http');
+const generatedNotice = 'Generated by scripts/generate-constants.js from scripts/constants.json. Do not edit.';
+
+const errorGroups = Object.keys(constants.errors);
+const enumNames = Object.keys(constants.enums);
+const compactFormat = constants.compactCheckoutResult;
+const compactObjectNames = Object.keys(compactFormat.fields);
+
+function toConstantCase(name) {
+  return name.replace(/([a-z])([A-Z])/g, '$1_$2').toUpperCase();
+}
+
+function singular(name) {
+  return name.replace(/s$/, '');
+}
+
+function enumValues(enumName) {
+  const enumDefinition = constants.enums[enumName];
+  return Object.values(enumDefinition.values).concat(enumDefinition.unknown);
+}
+
+function generateJava() {
+  const lines = [
+    `/*\n${javaLicense}*/`,
+    `// ${generatedNotice}`,
+    'package com.squareup.sdk.reader.react.internal;',
+    '',
+    'public final class ReaderSdkConstants {',
+    `    public static final String USAGE_ERROR = "${constants.usageError.code}";`,
+    `    public static final String USAGE_ERROR_JS_NAME = "${constants.usageError.jsName}";`,
+  ];
+  constants.operationErrors.forEach((error) => {
+    lines.push(`    public static final String ${error.code} = "${error.code}";`);
+  });
+  lines.push('');
+  lines.push('    // Errors of operations that time out or are canceled, as {null, error code, JS constant name}');
+  lines.push('    public static final String[][] OPERATION_ERRORS = {');
+  constants.operationErrors.forEach((error) => {
+    lines.push(`            {null, ${error.code}, "${error.jsName}"},`);
+  });
+  lines.push('    };');
+  lines.push('');
+  lines.push('    // Expected errors as {Reader SDK error code name, error code, JS constant name}');
+  errorGroups.forEach((group) => {
+    lines.push(`    public static final String[][] ${toConstantCase(group)}_ERRORS = {`);
+    constants.errors[group].forEach((error) => {
+      lines.push(`            {"${error.sdkCode}", "${error.code}", "${error.jsName}"},`);
+    });
+    lines.push('    };');
+  });
+  lines.push('');
+  lines.push('    // Enum values returned to JS as {Reader SDK enum constant name, JS value}. Unlisted constants use the unknown value');
+  enumNames.forEach((enumName) => {
+    const enumDefinition = constants.enums[enumName];
+    lines.push(`    public static final String[][] ${toConstantCase(enumName)} = {`);
+    Object.keys(enumDefinition.values).forEach((sdkName) => {
+      lines.push(`            {"${sdkName}", "${enumDefinition.values[sdkName]}"},`);
+    });
+    lines.push('    };');
+    lines.push(`    public static final String UNKNOWN_${toConstantCase(singular(enumName))} = "${enumDefinition.unknown}";`);
+  });
+  lines.push('');
+  lines.push('    // Compact checkout result format, expanded by src/compact.js. A compact result is {version, currency code dictionary,');
+  lines.push('    // result fields...}, and each object is an array of its fields in the order listed here');
+  lines.push(`    public static final int COMPACT_CHECKOUT_RESULT_VERSION = ${compactFormat.version};`);
+  compactObjectNames.forEach((objectName) => {
+    const fields = compactFormat.fields[objectName].map((field) => `"${field}"`);
+    lines.push(`    public static final String[] COMPACT_${toConstantCase(objectName)}_FIELDS = {${fields.join(', ')}};`);
+  });
+  lines.push('');
+  lines.push('    private ReaderSdkConstants() {');
+  lines.push('    }');
+  lines.push('}');
+  return `${lines.join('\n')}\n`;
+}
+
+function simpleClassName(className) {
+  return className.slice(className.lastIndexOf('.') + 1);
+}
+
+// Generates the mapping from Reader SDK error codes to the error codes returned to JS
+function generateJavaErrorCodes() {
+  const classNames = errorGroups.map((group) => constants.errorCodeClasses[group]);
+  const lines = [
+    `/*\n${javaLicense}*/`,
+    `// ${generatedNotice}`,
+    'package com.squareup.sdk.reader.react.internal;',
+    '',
+  ];
+  classNames.concat('com.squareup.sdk.reader.core.ErrorCode').sort().forEach((className) => {
+    lines.push(`import ${className};`);
+  });
+  lines.push('');
+  lines.push('/**');
+  lines.push(' * Maps Reader SDK error codes to the error codes returned to JS. Each mapping is a switch over the');
+  lines.push(' * Reader SDK enum, which javac compiles into a lookup in an array indexed by the enum ordinal.');
+  lines.push(' * Enum constants missing from the loaded Reader SDK are skipped when that array is built.');
+  lines.push(' */');
+  lines.push('final class ReaderSdkErrorCodes {');
+  lines.push('    private ReaderSdkErrorCodes() {');
+  lines.push('    }');
+  lines.push('');
+  lines.push('    /**');
+  lines.push('     * @return the JS error code, or null if the error code is not listed in scripts/constants.json');
+  lines.push('     */');
+  lines.push('    static String get(ErrorCode errorCode) {');
+  lines.push('        if (errorCode.isUsageError()) {');
+  lines.push('            return ReaderSdkConstants.USAGE_ERROR;');
+  lines.push('        }');
+  lines.push('        switch (((Enum<?>) errorCode).getDeclaringClass().getName()) {');
+  classNames.forEach((className) => {
+    lines.push(`            case "${className}":`);
+    lines.push(`                return get((${simpleClassName(className)}) errorCode);`);
+  });
+  lines.push('            default:');
+  lines.push('                return null;');
+  lines.push('        }');
+  lines.push('    }');
+  errorGroups.forEach((group) => {
+    lines.push('');
+    lines.push(`    static private String get(${simpleClassName(constants.errorCodeClasses[group])} errorCode) {`);
+    if (constants.errors[group].length === 0) {
+      lines.push('        // Only usage errors are expected');
+      lines.push('        return null;');
+    } else {
+      lines.push('        switch (errorCode) {');
+      constants.errors[group].forEach((error) => {
+        lines.push(`            case ${error.sdkCode}:`);
+        lines.push(`                return "${error.code}";`);
+      });
+      lines.push('            default:');
+      lines.push('                return null;');
+      lines.push('        }');
+    }
+    lines.push('    }');
+  });
+  lines.push('}');
+  return `${lines.join('\n')}\n`;
+}
+
+function generateObjectiveC() {
+  const lines = [
+    `/*\n${license} */`,
+    '',
+    `// ${generatedNotice}`,
+    '',
+    '#import <Foundation/Foundation.h>',
+    '',
+    `static NSString *const ${constants.usageError.iosName} = @"${constants.usageError.code}";`,
+  ];
+  constants.operationErrors.forEach((error) => {
+    lines.push(`static NSString *const ${error.iosName} = @"${error.code}";`);
+  });
+  errorGroups.filter((group) => constants.errors[group].length > 0).forEach((group) => {
+    lines.push('');
+    constants.errors[group].forEach((error) => {
+      lines.push(`static NSString *const ${error.iosName} = @"${error.code}";`);
+    });
+  });
+  return `${lines.join('\n')}\n`;
+}
+
+function generateJs() {
+  const lines = [
+    `/*\n${license}*/`,
+    '',
+    `// ${generatedNotice}`,
+    '',
+    '// Error codes',
+    `export const ${constants.usageError.jsName} = '${constants.usageError.code}';`,
+  ];
+  constants.operationErrors.forEach((error) => {
+    lines.push(`export const ${error.jsName} = '${error.code}';`);
+  });
+  errorGroups.forEach((group) => {
+    constants.errors[group].forEach((error) => {
+      lines.push(`export const ${error.jsName} = '${error.code}';`);
+    });
+  });
+  lines.push('');
+  lines.push('// Enum values, in the order of their integer encoding');
+  enumNames.forEach((enumName) => {
+    const jsName = enumName.charAt(0).toUpperCase() + enumName.slice(1);
+    const values = enumValues(enumName).map((value) => `'${value}'`);
+    lines.push(`export const ${jsName} = [${values.join(', ')}];`);
+  });
+  lines.push('');
+  lines.push('// Compact checkout result format, written by CompactCheckoutResultConverter on Android. A compact');
+  lines.push('// result is [version, currency code dictionary, ...result fields], and each object is an array of');
+  lines.push('// its fields in the order listed here');
+  lines.push('export const CompactCheckoutResultFormat = {');
+  lines.push(`  version: ${compactFormat.version},`);
+  lines.push('  fields: {');
+  compactObjectNames.forEach((objectName) => {
+    const fields = compactFormat.fields[objectName].map((field) => `'${field}'`);
+    lines.push(`    ${objectName}: [${fields.join(', ')}],`);
+  });
+  lines.push('  },');
+  lines.push('};');
+  return `${lines.join('\n')}\n`;
+}
+
+fs.writeFileSync(path.join(rootDir, 'android/src/main/java/com/squareup/sdk/reader/react/internal/ReaderSdkConstants.java'), generateJava());
+fs.writeFileSync(path.join(rootDir, 'android/src/main/java/com/squareup/sdk/reader/react/internal/ReaderSdkErrorCodes.java'), generateJavaErrorCodes());
+fs.writeFileSync(path.join(rootDir, 'ios/RNReaderSDKConstants.h'), generateObjectiveC());
+fs.writeFileSync(path.join(rootDir, 'src/constants.js'), generateJs());
@@ -0,0 +1,211 @@
+/*
+ Copyright 2022 Square Inc.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+import ExpandCompactCheckoutResult from '../compact';
+import {
+  CardBrands, CompactCheckoutResultFormat, EntryMethods, TenderTypes,
+} from '../constants';
+// Results converted by CheckoutResultConverter and CompactCheckoutResultConverter on Android
+import fixtures from './fixtures/compactCheckoutResults.json';
+
+const CURRENCY_CODES = ['USD', 'CAD', 'GBP', 'JPY', 'AUD'];
+
+// Deterministic generator so that failures can be reproduced
+function createRandom(seed) {
+  let state = seed;
+  const next = () => {
+    state = (state * 1103515245 + 12345) % 2147483648;
+    return state / 2147483648;
+  };
+  return {
+    int: (max) => Math.floor(next() * max),
+    bool: () => next() < 0.5,
+    pick: (values) => values[Math.floor(next() * values.length)],
+  };
+}
+
+function randomMoney(random) {
+  return { amount: random.int(1000000), currencyCode: random.pick(CURRENCY_CODES) };
+}
+
+function randomTimestamp(random) {
+  return new Date(random.int(4102444800) * 1000).toISOString().replace('.000', '');
+}
+
+// Returns value, or null as often as the native module sends a null value for it
+function randomOrNull(random, value) {
+  return random.int(4) === 0 ? null : value;
+}
+
+// Generates a result shaped like the output of CheckoutResultConverter
+function randomCheckoutResult(random) {
+  const result = {
+    transactionClientId: randomOrNull(random, `client-${random.int(1000)}`),
+    locationId: randomOrNull(random, `location-${random.int(1000)}`),
+    createdAt: randomTimestamp(random),
+    totalMoney: randomMoney(random),
+    totalTipMoney: randomMoney(random),
+    tenders: [],
+  };
+  if (random.bool()) {
+    result.transactionId = `transaction-${random.int(1000)}`;
+  }
+  if (random.bool()) {
+    result.createdAtMillis = random.int(4102444800000);
+  }
+  const tenderCount = random.int(4);
+  for (let i = 0; i < tenderCount; i += 1) {
+    const type = random.pick(TenderTypes);
+    const tender = {
+      createdAt: randomTimestamp(random),
+      tipMoney: randomMoney(random),
+      totalMoney: randomMoney(random),
+      type,
+    };
+    if (result.createdAtMillis !== undefined) {
+      tender.createdAtMillis = random.int(4102444800000);
+    }
+    if (type === 'card') {
+      tender.tenderId = randomOrNull(random, `tender-${random.int(1000)}`);
+      const card = {
+        brand: random.pick(CardBrands),
+        lastFourDigits: randomOrNull(random, `${1000 + random.int(9000)}`),
+      };
+      if (random.bool()) {
+        card.expirationMonth = 1 + random.int(12);
+        card.expirationYear = 2020 + random.int(20);
+      }
+      if (random.bool()) {
+        card.id = `card-${random.int(1000)}`;
+      }
+      if (random.bool()) {
+        card.cardholderName = 'Jane Doe';
+      }
+      tender.cardDetails = { entryMethod: random.pick(EntryMethods), card };
+    } else if (type === 'cash') {
+      tender.cashDetails = {
+        buyerTenderedMoney: randomMoney(random),
+        changeBackMoney: randomMoney(random),
+      };
+    }
+    result.tenders.push(tender);
+  }
+  return result;
+}
+
+// Encodes a result the way CompactCheckoutResultConverter does, in the generated layout
+function compact(result) {
+  const { version, fields } = CompactCheckoutResultFormat;
+  const dictionary = [];
+  const indexOf = (entry) => {
+    if (!dictionary.includes(entry)) {
+      dictionary.push(entry);
+    }
+    return dictionary.indexOf(entry);
+  };
+  const fieldsOf = {
+    totalMoney: fields.money,
+    totalTipMoney: fields.money,
+    tipMoney: fields.money,
+    buyerTenderedMoney: fields.money,
+    changeBackMoney: fields.money,
+    cardDetails: fields.cardDetails,
+    card: fields.card,
+    cashDetails: fields.cashDetails,
+  };
+  const compactObject = (object, fieldNames) => fieldNames.map((fieldName) => {
+    const value = object[fieldName];
+    if (value === undefined) {
+      return null;
+    }
+    if (value === null) {
+      return false;
+    }
+    switch (fieldName) {
+      case 'currencyCode':
+        return indexOf(value);
+      case 'brand':
+        return CardBrands.indexOf(value);
+      case 'entryMethod':
+        return EntryMethods.indexOf(value);
+      case 'type':
+        return TenderTypes.indexOf(value);
+      case 'tenders':
+        return value.map((tender) => compactObject(tender, fields.tender));
+      default:
+        return fieldsOf[fieldName] ? compactObject(value, fieldsOf[fieldName]) : value;
+    }
+  });
+  const compactFields = compactObject(result, fields.result);
+  return [version, dictionary, ...compactFields];
+}
+
+describe('Test ExpandCompactCheckoutResult', () => {
+  fixtures.forEach(({ name, keyed, compact }) => {
+    it(`expands the compact result to the keyed result: ${name}`, () => {
+      expect(ExpandCompactCheckoutResult(compact)).toEqual(keyed);
+    });
+  });
+
+  it('expands random results to the original result', () => {
+    for (let seed = 1; seed <= 500; seed += 1) {
+      const result = randomCheckoutResult(createRandom(seed));
+      expect(ExpandCompactCheckoutResult(compact(result))).toEqual(result);
+    }
+  });
+
+  it('shares one dictionary entry per currency code', () => {
+    const { compact } = fixtures[0];
+    expect(compact[1]).toEqual(['USD', 'CAD']);
+  });
+
+  it('expands tenders when they are first read', () => {
+    const { keyed, compact } = fixtures[0];
+    const expanded = ExpandCompactCheckoutResult(compact);
+    expect(Object.getOwnPropertyDescriptor(expanded, 'tenders').get).toBeDefined();
+    expect(expanded.tenders).toEqual(keyed.tenders);
+    expect(Object.getOwnPropertyDescriptor(expanded, 'tenders').value).toBe(expanded.tenders);
+  });
+
+  it('looks up enum values in the given tables', () => {
+    const tables = { cardBrands: ['B0', 'B1'], entryMethods: ['E0', 'E1'], tenderTypes: ['T0', 'T1'] };
+    const compactTender = [null, null, null, null, 1, 'tender', [0, [1, '1111', null, null, null, null]], null];
+    const compactResult = [3, [], null, null, null, null, null, null, null, [compactTender]];
+    const expanded = ExpandCompactCheckoutResult(compactResult, tables);
+    expect(expanded.tenders).toEqual([{
+      type: 'T1', tenderId: 'tender', cardDetails: { entryMethod: 'E0', card: { brand: 'B1', lastFourDigits: '1111' } },
+    }]);
+  });
+
+  it('leaves out fields that are not set', () => {
+    expect(ExpandCompactCheckoutResult([3, [], 'id', null, null, null, null, null, null, null])).toEqual({ transactionId: 'id' });
+  });
+
+  it('sets fields that are false to null', () => {
+    const compactResult = [3, [], null, false, false, null, null, null, null, null];
+    const expected = { transactionClientId: null, locationId: null };
+    expect(ExpandCompactCheckoutResult(compactResult)).toEqual(expected);
+  });
+
+  it('expands version 2 results from the transaction journal', () => {
+    const compactResult = [2, [], 'id', 'client', null, null, null, null, null, null];
+    expect(ExpandCompactCheckoutResult(compactResult)).toEqual({ transactionId: 'id', transactionClientId: 'client' });
+  });
+
+  it('throws on an unsupported version', () => {
+    const compactResult = [1, [], null, null, null, null, null, null, null, null];
+    expect(() => ExpandCompactCheckoutResult(compactResult)).toThrow();
+  });
+});
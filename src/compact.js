@@ -0,0 +1,113 @@
+/*
+ Copyright 2022 Square Inc.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+
+import {
+  CardBrands, CompactCheckoutResultFormat, EntryMethods, TenderTypes,
+} from './constants';
+
+// Expands the compact checkout results written by CompactCheckoutResultConverter on Android, in
+// the layout generated from scripts/constants.json.
+const { version: FORMAT_VERSION, fields } = CompactCheckoutResultFormat;
+// The transaction journal persists compact results on disk and returns them as they were written,
+// so it can hold version 2 results written before an app update. Version 2 has the same layout,
+// but wrote null instead of false for null fields, which then expand as left out.
+const PREVIOUS_FORMAT_VERSION = 2;
+
+// Enum tables generated from scripts/constants.json, used when the native module constants are
+// not available
+const defaultTables = {
+  cardBrands: CardBrands,
+  entryMethods: EntryMethods,
+  tenderTypes: TenderTypes,
+};
+
+// Copies the non-null positions of a compact array to the named fields of a new object. False
+// marks a field that the native module sends with a null value, null a field that it leaves out.
+function expandFields(compact, fieldNames, expanders) {
+  const expanded = {};
+  fieldNames.forEach((fieldName, index) => {
+    const value = compact[index];
+    if (value === false) {
+      expanded[fieldName] = null;
+    } else if (value !== null && typeof value !== 'undefined') {
+      expanded[fieldName] = expanders && expanders[fieldName] ? expanders[fieldName](value) : value;
+    }
+  });
+  return expanded;
+}
+
+function expandMoney(compact, dictionary) {
+  return expandFields(compact, fields.money, {
+    currencyCode: (index) => dictionary[index],
+  });
+}
+
+function expandCard(compact, tables) {
+  return expandFields(compact, fields.card, {
+    brand: (index) => tables.cardBrands[index],
+  });
+}
+
+function expandTender(compact, dictionary, tables) {
+  const toMoney = (value) => expandMoney(value, dictionary);
+  return expandFields(compact, fields.tender, {
+    tipMoney: toMoney,
+    totalMoney: toMoney,
+    type: (index) => tables.tenderTypes[index],
+    cardDetails: (value) => expandFields(value, fields.cardDetails, {
+      entryMethod: (index) => tables.entryMethods[index],
+      card: (card) => expandCard(card, tables),
+    }),
+    cashDetails: (value) => expandFields(value, fields.cashDetails, {
+      buyerTenderedMoney: toMoney,
+      changeBackMoney: toMoney,
+    }),
+  });
+}
+
+// Returns the CheckoutResult encoded by compactResult. Tenders are only expanded the first time
+// they are read. Enum values are looked up in the cardBrands, entryMethods and tenderTypes tables
+// published by the native module, if given.
+export default function ExpandCompactCheckoutResult(compactResult, tables = defaultTables) {
+  if (compactResult[0] !== FORMAT_VERSION && compactResult[0] !== PREVIOUS_FORMAT_VERSION) {
+    throw new Error(`Unsupported compact checkout result version ${compactResult[0]}`);
+  }
+  const dictionary = compactResult[1];
+  const compactFields = compactResult.slice(2);
+  const tendersIndex = fields.result.indexOf('tenders');
+  const compactTenders = compactFields[tendersIndex];
+  // Tenders are defined below, to be expanded when they are first read
+  compactFields[tendersIndex] = null;
+  const toMoney = (value) => expandMoney(value, dictionary);
+  const result = expandFields(compactFields, fields.result, {
+    totalMoney: toMoney,
+    totalTipMoney: toMoney,
+  });
+  if (compactTenders !== null && typeof compactTenders !== 'undefined') {
+    Object.defineProperty(result, 'tenders', {
+      configurable: true,
+      enumerable: true,
+      get() {
+        const tenders = compactTenders.map((tender) => expandTender(tender, dictionary, tables));
+        Object.defineProperty(result, 'tenders', {
+          configurable: true, enumerable: true, writable: true, value: tenders,
+        });
+        return tenders;
+      },
+    });
+  }
+  return result;
+}
@@ -0,0 +1,50 @@
+/*
+ Copyright 2022 Square Inc.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+
+// Generated by scripts/generate-constants.js from scripts/constants.json. Do not edit.
+
+// Error codes
+export const UsageError = 'USAGE_ERROR';
+export const OperationTimedOut = 'OPERATION_TIMED_OUT';
+export const OperationCanceled = 'OPERATION_CANCELED';
+export const AuthorizeErrorNoNetwork = 'AUTHORIZE_NO_NETWORK';
+export const CheckoutErrorCanceled = 'CHECKOUT_CANCELED';
+export const CheckoutErrorSdkNotAuthorized = 'CHECKOUT_SDK_NOT_AUTHORIZED';
+export const ReaderSettingsErrorSdkNotAuthorized = 'READER_SETTINGS_SDK_NOT_AUTHORIZED';
+export const StoreCustomerCardCancelled = 'STORE_CUSTOMER_CARD_CANCELED';
+export const StoreCustomerCardInvalidCustomerId = 'STORE_CUSTOMER_CARD_INVALID_CUSTOMER_ID';
+export const StoreCustomerCardSdkNotAuthorized = 'STORE_CUSTOMER_CARD_SDK_NOT_AUTHORIZED';
+export const StoreCustomerCardNoNetwork = 'STORE_CUSTOMER_CARD_NO_NETWORK';
+
+// Enum values, in the order of their integer encoding
+export const CardBrands = ['VISA', 'MASTERCARD', 'AMERICAN_EXPRESS', 'DISCOVER', 'DISCOVER_DINERS', 'INTERAC', 'JCB', 'CHINA_UNIONPAY', 'SQUARE_GIFT_CARD', 'EFTPOS', 'FELICA', 'OTHER_BRAND', 'UNKNOWN'];
+export const EntryMethods = ['MANUALLY_ENTERED', 'SWIPE', 'CHIP', 'CONTACTLESS', 'UNKNOWN'];
+export const TenderTypes = ['card', 'cash', 'other', 'unknown'];
+
+// Compact checkout result format, written by CompactCheckoutResultConverter on Android. A compact
+// result is [version, currency code dictionary, ...result fields], and each object is an array of
+// its fields in the order listed here
+export const CompactCheckoutResultFormat = {
+  version: 3,
+  fields: {
+    result: ['transactionId', 'transactionClientId', 'locationId', 'createdAt', 'createdAtMillis', 'totalMoney', 'totalTipMoney', 'tenders'],
+    tender: ['createdAt', 'createdAtMillis', 'tipMoney', 'totalMoney', 'type', 'tenderId', 'cardDetails', 'cashDetails'],
+    cardDetails: ['entryMethod', 'card'],
+    card: ['brand', 'lastFourDigits', 'expirationMonth', 'expirationYear', 'id', 'cardholderName'],
+    cashDetails: ['buyerTenderedMoney', 'changeBackMoney'],
+    money: ['amount', 'currencyCode'],
+  },
+};
@@ -0,0 +1,59 @@
+/*
+ Copyright 2022 Square Inc.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+
+// @flow
+
+import type { TurboModule } from 'react-native/Libraries/TurboModule/RCTExport'; // eslint-disable-line import/no-unresolved
+import { TurboModuleRegistry } from 'react-native'; // eslint-disable-line import/no-unresolved
+
+export interface Spec extends TurboModule {
+  +getConstants: () => {|
+    errorCodes: { [jsName: string]: string },
+    cardBrands: Array<string>,
+    entryMethods: Array<string>,
+    tenderTypes: Array<string>,
+  |};
+  +startCheckout: (checkoutParams: Object) => Promise<Object>;
+  +registerCheckoutTemplate: (templateId: string, templateParams: Object) => Promise<void>;
+  +unregisterCheckoutTemplate: (templateId: string) => Promise<boolean>;
+  +startCheckoutWithTemplate: (templateId: string, amountMoney: Object) => Promise<Object>;
+  +repeatLastCheckout: () => Promise<Object>;
+  +prepareCheckout: (checkoutParams: Object) => Promise<string>;
+  +startPreparedCheckout: (handle: string) => Promise<Object>;
+  +disposePreparedCheckout: (handle: string) => Promise<boolean>;
+  +setEpochMillisTimestampsEnabled: (enabled: boolean) => Promise<void>;
+  +setCompactCheckoutResultsEnabled: (enabled: boolean) => Promise<void>;
+  +setCheckoutQueueEnabled: (enabled: boolean, maxDepth: number) => Promise<void>;
+  +getCheckoutQueue: () => Promise<Array<Object>>;
+  +cancelQueuedCheckout: (queueId: string) => Promise<boolean>;
+  +cancelCheckout: () => Promise<boolean>;
+  +drainCheckoutResultMailbox: () => Promise<string>;
+  +peekCheckoutResultMailbox: () => Promise<string>;
+  +acknowledgeCheckoutResultMailbox: (ids: Array<string>) => Promise<void>;
+  +getCheckoutTotals: (fromMillis: number, toMillis: number) => Promise<Object>;
+  +setTransactionJournalEnabled: (
+    enabled: boolean,
+    maxAgeDays: number,
+    maxBytes: number,
+  ) => Promise<void>;
+  +findJournalTransaction: (
+    transactionClientId: ?string,
+    transactionId: ?string,
+  ) => Promise<?Array<mixed>>;
+  +queryJournalTransactions: (query: Object) => Promise<Object>;
+}
+
+export default (TurboModuleRegistry.get<Spec>('RNReaderSDKCheckout'): ?Spec);
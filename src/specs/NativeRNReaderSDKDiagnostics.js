@@ -0,0 +1,28 @@
+/*
+ Copyright 2022 Square Inc.
+
+ Licensed under the Apache License, Version 2.0 (the "License");
+ you may not use this file except in compliance with the License.
+ You may obtain a copy of the License at
+
+ http://www.apache.org/licenses/LICENSE-2.0
+
+ Unless required by applicable law or agreed to in writing, software
+ distributed under the License is distributed on an "AS IS" BASIS,
+ WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ See the License for the specific language governing permissions and
+ limitations under the License.
+*/
+
+// @flow
+
+import type { TurboModule } from 'react-native/Libraries/TurboModule/RCTExport'; // eslint-disable-line import/no-unresolved
+import { TurboModuleRegistry } from 'react-native'; // eslint-disable-line import/no-unresolved
+
+export interface Spec extends TurboModule {
+  +dumpFlightRecording: () => Promise<string>;
+  +getMethodMetrics: () => Promise<Object>;
+  +writeMethodMetrics: () => Promise<string>;
+}
+
+export default (TurboModuleRegistry.get<Spec>('RNReaderSDKDiagnostics'): ?Spec);